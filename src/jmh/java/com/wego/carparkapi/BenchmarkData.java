@@ -0,0 +1,145 @@
+package com.wego.carparkapi;
+
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.wego.carparkapi.model.Carpark;
+import com.wego.carparkapi.model.CarparkCsv;
+import com.wego.carparkapi.util.CoordinateConversionUtility;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Inputs shared by the benchmarks, built from the HDB carpark CSV bundled with the
+ * application so every run measures the real dataset.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+public final class BenchmarkData {
+
+  private static final String CSV_RESOURCE = "/data/hdb-carpark-information.csv";
+
+  /**
+   * Path of a recorded availability API response to parse instead of the
+   * generated one, e.g. {@code -Dcarpark.feed=/tmp/carpark-availability.json}.
+   */
+  private static final String FEED_PROPERTY = "carpark.feed";
+
+  // Singapore bounding box used for query points
+  private static final double MIN_LATITUDE = 1.24;
+  private static final double MAX_LATITUDE = 1.47;
+  private static final double MIN_LONGITUDE = 103.60;
+  private static final double MAX_LONGITUDE = 104.00;
+
+  private BenchmarkData() {
+  }
+
+  /**
+   * Every row of the CSV, as the import reads it.
+   */
+  public static List<CarparkCsv> csvRows() {
+    try (InputStream in = BenchmarkData.class.getResourceAsStream(CSV_RESOURCE);
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8)) {
+      return new CsvToBeanBuilder<CarparkCsv>(reader)
+          .withType(CarparkCsv.class)
+          .withIgnoreLeadingWhiteSpace(true)
+          .build()
+          .parse();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Every carpark of the CSV with WGS84 coordinates and deterministic lot counts,
+   * one in ten of them full.
+   */
+  public static List<Carpark> carparks() {
+    CoordinateConversionUtility converter = new CoordinateConversionUtility();
+    Random random = new Random(42);
+    List<Carpark> carparks = new ArrayList<>();
+    long id = 1;
+    for (CarparkCsv row : csvRows()) {
+      double[] wgs84 = converter.convertSvy21ToWgs84(
+          Double.parseDouble(row.getXCoord()), Double.parseDouble(row.getYCoord()));
+      int totalLots = 50 + random.nextInt(600);
+      carparks.add(Carpark.builder()
+          .id(id++)
+          .carparkNumber(row.getCarParkNo())
+          .address(row.getAddress())
+          .latitude(wgs84[0])
+          .longitude(wgs84[1])
+          .totalLots(totalLots)
+          .availableLots(random.nextInt(10) == 0 ? 0 : random.nextInt(totalLots))
+          .build());
+    }
+    return carparks;
+  }
+
+  /**
+   * {@code count} query points spread uniformly over Singapore, as
+   * {latitude, longitude} pairs.
+   */
+  public static double[][] queryPoints(int count) {
+    Random random = new Random(7);
+    double[][] points = new double[count][];
+    for (int i = 0; i < count; i++) {
+      points[i] = new double[]{
+          MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE),
+          MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE)};
+    }
+    return points;
+  }
+
+  /**
+   * The recorded feed named by {@code -Dcarpark.feed}, or otherwise a response in
+   * the availability API's format covering every carpark of the CSV, with the
+   * lot-type mix of the live feed.
+   */
+  public static byte[] availabilityFeed() {
+    String recorded = System.getProperty(FEED_PROPERTY);
+    if (recorded != null && !recorded.isBlank()) {
+      try {
+        return Files.readAllBytes(Path.of(recorded));
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+
+    Random random = new Random(11);
+    StringBuilder json = new StringBuilder(512 * 1024)
+        .append("{\"items\":[{\"timestamp\":\"2025-07-23T10:00:00+08:00\",\"carpark_data\":[");
+    List<CarparkCsv> rows = csvRows();
+    for (int i = 0; i < rows.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"carpark_info\":[");
+      lotInfo(json, "C", random);
+      if (random.nextInt(4) == 0) {
+        json.append(',');
+        lotInfo(json, random.nextBoolean() ? "Y" : "H", random);
+      }
+      json.append("],\"carpark_number\":\"").append(rows.get(i).getCarParkNo())
+          .append("\",\"update_datetime\":\"2025-07-23T09:58:").append(10 + random.nextInt(49))
+          .append("\"}");
+    }
+    return json.append("]}]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static void lotInfo(StringBuilder json, String lotType, Random random) {
+    int totalLots = 10 + random.nextInt(600);
+    json.append("{\"total_lots\":\"").append(totalLots)
+        .append("\",\"lot_type\":\"").append(lotType)
+        .append("\",\"lots_available\":\"").append(random.nextInt(totalLots + 1))
+        .append("\"}");
+  }
+}
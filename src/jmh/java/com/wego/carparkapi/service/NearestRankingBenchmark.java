@@ -0,0 +1,56 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.BenchmarkData;
+import com.wego.carparkapi.model.Carpark;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Nearest-k ranking of the full carpark set on the in-process spatial index, for
+ * query points spread over the whole island.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NearestRankingBenchmark {
+
+  @Param({"1", "10", "100"})
+  private int k;
+
+  private CarparkSpatialIndex index;
+  private double[][] points;
+  private int next;
+
+  @Setup
+  public void setUp() {
+    List<Carpark> carparks = BenchmarkData.carparks();
+    CarparkAvailabilityStore availabilityStore = new CarparkAvailabilityStore();
+    availabilityStore.register(carparks);
+    index = new CarparkSpatialIndex(availabilityStore);
+    index.rebuild(carparks);
+    points = BenchmarkData.queryPoints(1024);
+  }
+
+  @Benchmark
+  public List<CarparkSpatialIndex.Neighbour> findNearest() {
+    double[] point = points[next++ & (points.length - 1)];
+    return index.findNearest(point[0], point[1], 0, k);
+  }
+}
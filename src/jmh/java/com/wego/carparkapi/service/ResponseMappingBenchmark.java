@@ -0,0 +1,88 @@
+package com.wego.carparkapi.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wego.carparkapi.BenchmarkData;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.model.Carpark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Turning a page of ranked carparks into the {@code /carparks/nearest} response:
+ * mapping each neighbour to a {@link CarparkResponseDto} with
+ * {@link NearestCarparkPage#toResponseDto}, as a page read as a list does, and
+ * serialising the list with Jackson's bean serializer, against wrapping the
+ * neighbours in a {@link NearestCarparkPage} written by
+ * {@link NearestCarparkPageSerializer}, with and without pre-encoded fragments. The gc profiler's {@code gc.alloc.rate.norm}
+ * gives the bytes allocated per page.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ResponseMappingBenchmark {
+
+  @Param({"10", "100"})
+  private int perPage;
+
+  private List<CarparkSpatialIndex.Neighbour> page;
+  private CarparkJsonFragments noFragments;
+  private CarparkJsonFragments fragments;
+  private ObjectMapper objectMapper;
+
+  @Setup
+  public void setUp() {
+    List<Carpark> carparks = BenchmarkData.carparks();
+    CarparkAvailabilityStore availabilityStore = new CarparkAvailabilityStore();
+    availabilityStore.register(carparks);
+    CarparkSpatialIndex index = new CarparkSpatialIndex(availabilityStore);
+    index.rebuild(carparks);
+    page = index.findNearest(1.3521, 103.8198, 0, perPage);
+    objectMapper = new ObjectMapper();
+    noFragments = new CarparkJsonFragments(objectMapper);
+    fragments = new CarparkJsonFragments(objectMapper);
+    fragments.rebuild(carparks);
+  }
+
+  @Benchmark
+  public List<CarparkResponseDto> map() {
+    List<CarparkResponseDto> result = new ArrayList<>(page.size());
+    for (CarparkSpatialIndex.Neighbour neighbour : page) {
+      result.add(NearestCarparkPage.toResponseDto(neighbour));
+    }
+    return result;
+  }
+
+  @Benchmark
+  public byte[] mapAndSerialise() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(map());
+  }
+
+  @Benchmark
+  public byte[] serialisePageWithoutFragments() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(NearestCarparkPage.of(page, noFragments));
+  }
+
+  @Benchmark
+  public byte[] serialisePage() throws JsonProcessingException {
+    return objectMapper.writeValueAsBytes(NearestCarparkPage.of(page, fragments));
+  }
+}
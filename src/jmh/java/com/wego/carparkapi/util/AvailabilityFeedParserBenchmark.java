@@ -0,0 +1,58 @@
+package com.wego.carparkapi.util;
+
+import com.wego.carparkapi.BenchmarkData;
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of a whole availability API response, in one piece and fed in network
+ * sized chunks as the refresh does. Pass {@code -Dcarpark.feed=<file>} to the
+ * benchmark JVM to parse a recorded response instead of the generated one.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AvailabilityFeedParserBenchmark {
+
+  @Param({"8192"})
+  private int chunkSize;
+
+  private byte[] feed;
+
+  @Setup
+  public void setUp() {
+    feed = BenchmarkData.availabilityFeed();
+  }
+
+  @Benchmark
+  public AvailabilitySnapshot parse() {
+    return AvailabilityFeedParser.parse(feed);
+  }
+
+  @Benchmark
+  public AvailabilitySnapshot parseChunked() {
+    AvailabilityFeedParser parser = new AvailabilityFeedParser();
+    for (int offset = 0; offset < feed.length; offset += chunkSize) {
+      parser.feed(ByteBuffer.wrap(feed, offset, Math.min(chunkSize, feed.length - offset)));
+    }
+    return parser.finish();
+  }
+}
@@ -0,0 +1,67 @@
+package com.wego.carparkapi.util;
+
+import com.wego.carparkapi.BenchmarkData;
+import com.wego.carparkapi.model.CarparkCsv;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * SVY21 to WGS84 conversion of every coordinate in the HDB carpark CSV, one point
+ * at a time and through the bulk variant used by the import. Scores are per
+ * complete pass over the dataset.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CoordinateConversionBenchmark {
+
+  private CoordinateConversionUtility converter;
+  private double[] xs;
+  private double[] ys;
+  private double[] latitudes;
+  private double[] longitudes;
+
+  @Setup
+  public void setUp() {
+    converter = new CoordinateConversionUtility();
+    List<CarparkCsv> rows = BenchmarkData.csvRows();
+    xs = new double[rows.size()];
+    ys = new double[rows.size()];
+    for (int i = 0; i < rows.size(); i++) {
+      xs[i] = Double.parseDouble(rows.get(i).getXCoord());
+      ys[i] = Double.parseDouble(rows.get(i).getYCoord());
+    }
+    latitudes = new double[xs.length];
+    longitudes = new double[xs.length];
+  }
+
+  @Benchmark
+  public void perPoint(Blackhole blackhole) {
+    for (int i = 0; i < xs.length; i++) {
+      blackhole.consume(converter.convertSvy21ToWgs84(xs[i], ys[i]));
+    }
+  }
+
+  @Benchmark
+  public double[] bulk() {
+    converter.convertSvy21ToWgs84(xs, ys, xs.length, latitudes, longitudes);
+    return latitudes;
+  }
+}
@@ -0,0 +1,160 @@
+package com.wego.carparkapi.load;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Local stand-in for the data.gov.sg carpark availability API. Serves either a
+ * recorded response or a synthetic one in the API's format, after a fixed
+ * latency. Each synthetic response advances the feed timestamp by one minute and
+ * moves the lot counts of a share of the carparks, so the application's delta
+ * tracking sees the same kind of churn as in production.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Slf4j
+public class AvailabilityApiStub implements AutoCloseable {
+
+  public static final String PATH = "/v1/transport/carpark-availability";
+
+  private static final String CSV_RESOURCE = "/data/hdb-carpark-information.csv";
+  private static final DateTimeFormatter FEED_TIME =
+      DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ssxxx");
+
+  private final HttpServer server;
+  private final long latencyMillis;
+  private final byte[] recorded;
+  private final List<String> carparkNumbers;
+  private final int[] totalLots;
+  private final int[] availableLots;
+  private final Random random = new Random(42);
+  private final AtomicInteger requests = new AtomicInteger();
+  private OffsetDateTime feedTime = OffsetDateTime.of(2025, 7, 23, 10, 0, 0, 0, ZoneOffset.ofHours(8));
+
+  /**
+   * @param carparks number of carparks in synthetic responses; the CSV's carpark
+   *                 numbers are used first, then made-up ones
+   * @param recordedPayload recorded API response to serve verbatim, or null
+   */
+  public AvailabilityApiStub(int port, long latencyMillis, int carparks, Path recordedPayload)
+      throws IOException {
+    this.latencyMillis = latencyMillis;
+    this.recorded = recordedPayload == null ? null : Files.readAllBytes(recordedPayload);
+    this.carparkNumbers = carparkNumbers(carparks);
+    this.totalLots = new int[carparkNumbers.size()];
+    this.availableLots = new int[carparkNumbers.size()];
+    for (int i = 0; i < totalLots.length; i++) {
+      totalLots[i] = 50 + random.nextInt(600);
+      availableLots[i] = random.nextInt(totalLots[i] + 1);
+    }
+
+    server = HttpServer.create(new InetSocketAddress(port), 0);
+    server.createContext(PATH, this::handle);
+    server.setExecutor(Executors.newCachedThreadPool());
+    server.start();
+    log.info("Availability API stub listening on http://localhost:{}{} ({} carparks, {} ms latency{})",
+        getPort(), PATH, carparkNumbers.size(), latencyMillis,
+        recorded == null ? "" : ", recorded payload " + recordedPayload);
+  }
+
+  public int getPort() {
+    return server.getAddress().getPort();
+  }
+
+  public String getUrl() {
+    return "http://localhost:" + getPort() + PATH;
+  }
+
+  public int getRequests() {
+    return requests.get();
+  }
+
+  private void handle(HttpExchange exchange) throws IOException {
+    requests.incrementAndGet();
+    try (exchange) {
+      Thread.sleep(latencyMillis);
+      byte[] body = recorded != null ? recorded : nextPayload();
+      exchange.getResponseHeaders().set("Content-Type", "application/json");
+      exchange.sendResponseHeaders(200, body.length);
+      try (OutputStream out = exchange.getResponseBody()) {
+        out.write(body);
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  /**
+   * The next synthetic response: one minute later, with a tenth of the carparks'
+   * available lots moved.
+   */
+  synchronized byte[] nextPayload() {
+    feedTime = feedTime.plus(1, ChronoUnit.MINUTES);
+    for (int i = 0; i < availableLots.length; i++) {
+      if (random.nextInt(10) == 0) {
+        availableLots[i] = Math.max(0, Math.min(totalLots[i],
+            availableLots[i] + random.nextInt(21) - 10));
+      }
+    }
+
+    String timestamp = FEED_TIME.format(feedTime);
+    StringBuilder json = new StringBuilder(carparkNumbers.size() * 160)
+        .append("{\"items\":[{\"timestamp\":\"").append(timestamp)
+        .append("\",\"carpark_data\":[");
+    for (int i = 0; i < carparkNumbers.size(); i++) {
+      if (i > 0) {
+        json.append(',');
+      }
+      json.append("{\"carpark_info\":[{\"total_lots\":\"").append(totalLots[i])
+          .append("\",\"lot_type\":\"C\",\"lots_available\":\"").append(availableLots[i])
+          .append("\"}],\"carpark_number\":\"").append(carparkNumbers.get(i))
+          .append("\",\"update_datetime\":\"").append(timestamp, 0, 19)
+          .append("\"}");
+    }
+    return json.append("]}]}").toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  private static List<String> carparkNumbers(int count) {
+    List<String> numbers = new ArrayList<>(count);
+    try (InputStream in = AvailabilityApiStub.class.getResourceAsStream(CSV_RESOURCE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      reader.readLine();
+      String line;
+      while (numbers.size() < count && (line = reader.readLine()) != null) {
+        numbers.add(line.substring(0, line.indexOf(',')));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    for (int i = numbers.size(); i < count; i++) {
+      numbers.add("LT" + i);
+    }
+    return numbers;
+  }
+
+  @Override
+  public void close() {
+    server.stop(0);
+  }
+}
@@ -0,0 +1,261 @@
+package com.wego.carparkapi.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+/**
+ * Closed-loop load test of {@code /carparks/nearest} against a running instance.
+ * Starts an {@link AvailabilityApiStub} for the instance to poll, drives
+ * {@code load.concurrency} clients replaying {@link NearestWorkload} queries for
+ * {@code load.duration} seconds after a warm-up, and reports throughput and
+ * latency percentiles.
+ *
+ * <p>Scenarios, selected with {@code load.scenario}:
+ * <ul>
+ *   <li>{@code read-only}: queries only</li>
+ *   <li>{@code refresh}: queries while an availability refresh is triggered every
+ *   {@code load.refresh-interval} seconds</li>
+ *   <li>{@code import}: queries while a CSV import is triggered every
+ *   {@code load.import-interval} seconds</li>
+ * </ul>
+ *
+ * <p>The instance must poll the stub, e.g. started with
+ * {@code APP_CARPARK_API_URL=http://localhost:8089/v1/transport/carpark-availability}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Slf4j
+public class LoadTest {
+
+  private static final long MAX_LATENCY_NANOS = TimeUnit.SECONDS.toNanos(60);
+
+  private final String target;
+  private final String scenario;
+  private final int concurrency;
+  private final Duration warmUp;
+  private final Duration duration;
+  private final Duration backgroundInterval;
+  private final NearestWorkload workload = new NearestWorkload();
+  private final HttpClient client;
+
+  private final Recorder latencies = new Recorder(MAX_LATENCY_NANOS, 3);
+  private final Histogram backgroundLatencies = new Histogram(MAX_LATENCY_NANOS, 3);
+  private final LongAdder ok = new LongAdder();
+  private final LongAdder notModified = new LongAdder();
+  private final LongAdder errors = new LongAdder();
+  private final AtomicLong backgroundErrors = new AtomicLong();
+  private volatile boolean measuring;
+  private volatile boolean running = true;
+
+  LoadTest(String target, String scenario, int concurrency, Duration warmUp, Duration duration,
+      Duration backgroundInterval) {
+    this.target = target;
+    this.scenario = scenario;
+    this.concurrency = concurrency;
+    this.warmUp = warmUp;
+    this.duration = duration;
+    this.backgroundInterval = backgroundInterval;
+    this.client = HttpClient.newBuilder()
+        .executor(Executors.newFixedThreadPool(Math.max(4, concurrency / 4)))
+        .connectTimeout(Duration.ofSeconds(5))
+        .build();
+  }
+
+  public static void main(String[] args) throws Exception {
+    String scenario = System.getProperty("load.scenario", "read-only");
+    String backgroundInterval = switch (scenario) {
+      case "read-only" -> "0";
+      case "refresh" -> System.getProperty("load.refresh-interval", "5");
+      case "import" -> System.getProperty("load.import-interval", "30");
+      default -> throw new IllegalArgumentException("Unknown scenario: " + scenario
+          + " (expected read-only, refresh or import)");
+    };
+    String payload = System.getProperty("load.stub.payload", "");
+
+    try (AvailabilityApiStub stub = new AvailabilityApiStub(
+        Integer.getInteger("load.stub.port", 8089),
+        Long.getLong("load.stub.latency-ms", 150),
+        Integer.getInteger("load.stub.carparks", 2200),
+        payload.isBlank() ? null : Path.of(payload))) {
+
+      LoadTest loadTest = new LoadTest(
+          System.getProperty("load.target", "http://localhost:8080"),
+          scenario,
+          Integer.getInteger("load.concurrency", 64),
+          Duration.ofSeconds(Long.getLong("load.warm-up", 15)),
+          Duration.ofSeconds(Long.getLong("load.duration", 60)),
+          Duration.ofSeconds(Long.parseLong(backgroundInterval)));
+      String report = loadTest.run(stub);
+
+      Path result = Path.of(System.getProperty("load.result", "target/load-result.json"));
+      Files.createDirectories(result.toAbsolutePath().getParent());
+      Files.writeString(result, report, StandardCharsets.UTF_8);
+      log.info("Results written to {}", result);
+    }
+    System.exit(0);
+  }
+
+  String run(AvailabilityApiStub stub) throws InterruptedException {
+    log.info("Scenario {} against {}: {} clients, {} s warm-up, {} s measured",
+        scenario, target, concurrency, warmUp.toSeconds(), duration.toSeconds());
+
+    List<Thread> clients = new ArrayList<>(concurrency);
+    for (int i = 0; i < concurrency; i++) {
+      Thread thread = new Thread(this::clientLoop, "load-client-" + i);
+      thread.setDaemon(true);
+      thread.start();
+      clients.add(thread);
+    }
+
+    ScheduledExecutorService background = Executors.newSingleThreadScheduledExecutor();
+    if (!backgroundInterval.isZero()) {
+      // An unchanged CSV is skipped, so the import is forced to rewrite every row
+      String path = "import".equals(scenario)
+          ? "/carparks/import/csv?force=true" : "/carparks/import/availability";
+      background.scheduleWithFixedDelay(() -> trigger(path), warmUp.toMillis(),
+          backgroundInterval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    Thread.sleep(warmUp.toMillis());
+    latencies.reset();
+    measuring = true;
+    int stubRequestsBefore = stub.getRequests();
+    long start = System.nanoTime();
+    Thread.sleep(duration.toMillis());
+    measuring = false;
+    long elapsed = System.nanoTime() - start;
+    Histogram histogram = latencies.getIntervalHistogram();
+
+    running = false;
+    background.shutdownNow();
+    for (Thread thread : clients) {
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+
+    return report(histogram, elapsed, stub.getRequests() - stubRequestsBefore);
+  }
+
+  private void clientLoop() {
+    while (running) {
+      HttpRequest request = HttpRequest.newBuilder(URI.create(target + workload.nextQuery()))
+          .timeout(Duration.ofSeconds(30))
+          .GET()
+          .build();
+      long start = System.nanoTime();
+      int status;
+      try {
+        status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      } catch (IOException e) {
+        status = -1;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      long latency = System.nanoTime() - start;
+      if (!measuring) {
+        continue;
+      }
+      latencies.recordValue(Math.min(latency, MAX_LATENCY_NANOS));
+      if (status == 200) {
+        ok.increment();
+      } else if (status == 304) {
+        notModified.increment();
+      } else {
+        errors.increment();
+      }
+    }
+  }
+
+  private void trigger(String path) {
+    HttpRequest request = HttpRequest.newBuilder(URI.create(target + path))
+        .timeout(Duration.ofMinutes(2))
+        .GET()
+        .build();
+    long start = System.nanoTime();
+    try {
+      int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+      if (status != 200) {
+        backgroundErrors.incrementAndGet();
+      }
+    } catch (IOException e) {
+      backgroundErrors.incrementAndGet();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return;
+    }
+    synchronized (backgroundLatencies) {
+      backgroundLatencies.recordValue(Math.min(System.nanoTime() - start, MAX_LATENCY_NANOS));
+    }
+  }
+
+  private String report(Histogram histogram, long elapsedNanos, int stubRequests) {
+    double seconds = elapsedNanos / 1e9;
+    long requests = histogram.getTotalCount();
+    log.info("{}: {} requests in {} s, {} req/s ({} 200, {} 304, {} errors)", scenario, requests,
+        format(seconds), format(requests / seconds), ok.sum(), notModified.sum(), errors.sum());
+    log.info("{}: latency p50 {} ms, p90 {} ms, p99 {} ms, p99.9 {} ms, max {} ms", scenario,
+        millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+        millis(histogram, 99.9), format(histogram.getMaxValue() / 1e6));
+
+    long backgroundCount;
+    String backgroundMean;
+    synchronized (backgroundLatencies) {
+      backgroundCount = backgroundLatencies.getTotalCount();
+      backgroundMean = backgroundCount == 0 ? format(0) : format(backgroundLatencies.getMean() / 1e6);
+    }
+    if (backgroundCount > 0) {
+      log.info("{}: {} background triggers, mean {} ms, {} failed; stub served {} requests",
+          scenario, backgroundCount, backgroundMean, backgroundErrors.get(), stubRequests);
+    }
+
+    return String.format(Locale.ROOT, """
+        {
+          "scenario": "%s",
+          "target": "%s",
+          "concurrency": %d,
+          "durationSeconds": %s,
+          "requests": %d,
+          "throughput": %s,
+          "ok": %d,
+          "notModified": %d,
+          "errors": %d,
+          "latencyMillis": {"p50": %s, "p90": %s, "p99": %s, "p99.9": %s, "max": %s},
+          "backgroundTriggers": %d,
+          "backgroundMeanMillis": %s,
+          "backgroundErrors": %d,
+          "stubRequests": %d
+        }
+        """, scenario, target, concurrency, format(seconds), requests, format(requests / seconds),
+        ok.sum(), notModified.sum(), errors.sum(),
+        millis(histogram, 50), millis(histogram, 90), millis(histogram, 99),
+        millis(histogram, 99.9), format(histogram.getMaxValue() / 1e6),
+        backgroundCount, backgroundMean, backgroundErrors.get(), stubRequests);
+  }
+
+  private static String millis(Histogram histogram, double percentile) {
+    return format(histogram.getValueAtPercentile(percentile) / 1e6);
+  }
+
+  private static String format(double value) {
+    return String.format(Locale.ROOT, "%.2f", value);
+  }
+}
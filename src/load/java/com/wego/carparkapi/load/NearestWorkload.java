@@ -0,0 +1,94 @@
+package com.wego.carparkapi.load;
+
+import com.wego.carparkapi.util.CoordinateConversionUtility;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates {@code /carparks/nearest} queries the way the mobile clients send them.
+ * Most users stand near an HDB estate, so nine in ten queries are drawn within a
+ * few hundred metres of a carpark from the CSV, the rest uniformly over the
+ * island. Coordinates carry GPS noise down to the 5th decimal, most requests ask
+ * for the first page, and page sizes follow the clients' defaults.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+public class NearestWorkload {
+
+  private static final String CSV_RESOURCE = "/data/hdb-carpark-information.csv";
+
+  // Singapore bounding box
+  private static final double MIN_LATITUDE = 1.24;
+  private static final double MAX_LATITUDE = 1.47;
+  private static final double MIN_LONGITUDE = 103.60;
+  private static final double MAX_LONGITUDE = 104.00;
+
+  // ~300 m standard deviation around a carpark
+  private static final double SPREAD_DEGREES = 0.0027;
+
+  private final double[] latitudes;
+  private final double[] longitudes;
+
+  public NearestWorkload() {
+    List<double[]> points = carparkCoordinates();
+    latitudes = new double[points.size()];
+    longitudes = new double[points.size()];
+    for (int i = 0; i < points.size(); i++) {
+      latitudes[i] = points.get(i)[0];
+      longitudes[i] = points.get(i)[1];
+    }
+  }
+
+  /**
+   * Path and query of the next request.
+   */
+  public String nextQuery() {
+    ThreadLocalRandom random = ThreadLocalRandom.current();
+    double latitude;
+    double longitude;
+    if (random.nextInt(10) < 9) {
+      int carpark = random.nextInt(latitudes.length);
+      latitude = latitudes[carpark] + random.nextGaussian() * SPREAD_DEGREES;
+      longitude = longitudes[carpark] + random.nextGaussian() * SPREAD_DEGREES;
+    } else {
+      latitude = random.nextDouble(MIN_LATITUDE, MAX_LATITUDE);
+      longitude = random.nextDouble(MIN_LONGITUDE, MAX_LONGITUDE);
+    }
+
+    int roll = random.nextInt(100);
+    int page = roll < 80 ? 1 : roll < 95 ? 2 : 3;
+    roll = random.nextInt(100);
+    int perPage = roll < 70 ? 10 : roll < 90 ? 20 : 50;
+
+    return String.format(Locale.ROOT, "/carparks/nearest?latitude=%.5f&longitude=%.5f&page=%d&per_page=%d",
+        latitude, longitude, page, perPage);
+  }
+
+  private static List<double[]> carparkCoordinates() {
+    CoordinateConversionUtility converter = new CoordinateConversionUtility();
+    List<double[]> points = new ArrayList<>();
+    try (InputStream in = NearestWorkload.class.getResourceAsStream(CSV_RESOURCE);
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+      reader.readLine();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        // x_coord and y_coord follow the address, which may itself be quoted
+        String[] columns = line.split(",(?=(?:[^\"]*\"[^\"]*\")*[^\"]*$)");
+        points.add(converter.convertSvy21ToWgs84(
+            Double.parseDouble(columns[2]), Double.parseDouble(columns[3])));
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return points;
+  }
+}
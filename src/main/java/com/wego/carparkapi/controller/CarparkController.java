@@ -1,23 +1,43 @@
 package com.wego.carparkapi.controller;
 
-import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchRequestDto;
 import com.wego.carparkapi.service.CarparkService;
+import com.wego.carparkapi.service.NearestCarparkPage;
+import com.wego.carparkapi.util.AvailabilityUpdateService;
+import jakarta.validation.Valid;
 import jakarta.validation.constraints.Max;
-import java.util.List;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 import lombok.RequiredArgsConstructor;
 import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
 /**
+ * Servlet MVC endpoints, the default deployment mode. See
+ * {@link ReactiveCarparkController} for the WebFlux mode.
+ *
  * @author chesterjavier
  * @Date 7/23/25
  */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RestController
 @RequestMapping("/carparks")
 @RequiredArgsConstructor
@@ -26,9 +46,18 @@ import org.springframework.web.bind.annotation.RestController;
 public class CarparkController {
 
   private final CarparkService carparkService;
+  private final AvailabilityUpdateService availabilityUpdateService;
 
+  /**
+   * Responses carry a strong ETag built from the availability snapshot version and
+   * the query. A matching {@code If-None-Match} is answered with 304 before any
+   * search runs.
+   *
+   * <p>Optional filters narrow the results to carparks with the given attributes
+   * within {@code radius_km}; see {@link CarparkFilter}.
+   */
   @GetMapping("/nearest")
-  public ResponseEntity<List<CarparkResponseDto>> getNearestCarparks(
+  public ResponseEntity<NearestCarparkPage> getNearestCarparks(
       @RequestParam(value = "latitude") Double latitude,
       @RequestParam(value = "longitude") Double longitude,
       @RequestParam(value = "page", defaultValue = "1")
@@ -36,27 +65,117 @@ public class CarparkController {
       Integer page,
       @RequestParam(value = "per_page", defaultValue = "10")
       @Min(value = 1, message = "Per page must be at least 1")
-      @Max(value = 1000, message = "Per page must not exceed 100")
-      Integer perPage) {
+      @Max(value = 1000, message = "Per page must not exceed 1000")
+      Integer perPage,
+      @RequestParam(value = "car_park_type", required = false) String carparkType,
+      @RequestParam(value = "parking_system", required = false) String parkingSystem,
+      @RequestParam(value = "short_term_parking", required = false) String shortTermParking,
+      @RequestParam(value = "free_parking", required = false) String freeParking,
+      @RequestParam(value = "night_parking", required = false) Boolean nightParking,
+      @RequestParam(value = "basement", required = false) Boolean basement,
+      @RequestParam(value = "min_gantry_height", required = false)
+      @PositiveOrZero(message = "Minimum gantry height must not be negative")
+      Double minGantryHeight,
+      @RequestParam(value = "radius_km", required = false)
+      @Positive(message = "Radius must be positive")
+      Double radiusKm,
+      WebRequest webRequest) {
+
+    CarparkFilter filter = CarparkFilter.builder()
+        .carparkType(carparkType)
+        .parkingSystem(parkingSystem)
+        .shortTermParking(shortTermParking)
+        .freeParking(freeParking)
+        .nightParking(nightParking)
+        .basement(basement)
+        .minGantryHeight(minGantryHeight)
+        .radiusKm(radiusKm)
+        .build();
+    String etag = nearestCarparksETag(carparkService.getNearestCarparksVersion(),
+        latitude, longitude, page, perPage, filter);
+    if (webRequest.checkNotModified(etag)) {
+      log.debug("Nearest carparks for {}, {} not modified since {}", latitude, longitude, etag);
+      return null;
+    }
 
     log.info("Finding nearest carparks for location: {}, {}, page: {}, perPage: {}",
         latitude, longitude, page, perPage);
 
-    List<CarparkResponseDto> result = carparkService.findNearestCarparks(
-        latitude, longitude, page, perPage);
+    NearestCarparkPage result = carparkService.findNearestCarparks(
+        latitude, longitude, page, perPage, filter);
 
     return ResponseEntity.ok(result);
   }
 
+  /**
+   * The snapshot version followed by a SHA-256 of every query parameter, so two
+   * different queries never share a tag within one version.
+   */
+  static String nearestCarparksETag(String version, Double latitude, Double longitude,
+      Integer page, Integer perPage, CarparkFilter filter) {
+    MessageDigest digest;
+    try {
+      digest = MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+    for (Object parameter : new Object[]{latitude, longitude, page, perPage,
+        filter.getCarparkType(), filter.getParkingSystem(), filter.getShortTermParking(),
+        filter.getFreeParking(), filter.getNightParking(), filter.getBasement(),
+        filter.getMinGantryHeight(), filter.getRadiusKm()}) {
+      // Length-prefixed, so no value can run into the next; null has length -1
+      byte[] bytes = parameter == null
+          ? new byte[0] : parameter.toString().getBytes(StandardCharsets.UTF_8);
+      digest.update(ByteBuffer.allocate(Integer.BYTES)
+          .putInt(parameter == null ? -1 : bytes.length).array());
+      digest.update(bytes);
+    }
+    return version + "-" + HexFormat.of().formatHex(digest.digest());
+  }
+
+  /**
+   * Nearest carparks for many origins in one request, e.g. every stop of an
+   * itinerary. All results reflect the same availability snapshot.
+   */
+  @PostMapping("/nearest/batch")
+  public ResponseEntity<NearestCarparkBatchDto> getNearestCarparksBatch(
+      @Valid @RequestBody NearestCarparkBatchRequestDto request) {
+    log.info("Finding nearest carparks for a batch of {} origins", request.getOrigins().size());
+    return ResponseEntity.ok(carparkService.findNearestCarparksBatch(request.getOrigins()));
+  }
+
+  /**
+   * Cursor-paginated nearest carparks. Pass the {@code next} token of the previous
+   * response as {@code cursor} to fetch the following page.
+   */
+  @GetMapping("/nearest/cursor")
+  public ResponseEntity<CarparkCursorPageDto> getNearestCarparksByCursor(
+      @RequestParam(value = "latitude") Double latitude,
+      @RequestParam(value = "longitude") Double longitude,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "per_page", defaultValue = "10")
+      @Min(value = 1, message = "Per page must be at least 1")
+      @Max(value = 1000, message = "Per page must not exceed 1000")
+      Integer perPage) {
+
+    log.info("Finding nearest carparks for location: {}, {}, cursor: {}, perPage: {}",
+        latitude, longitude, cursor, perPage);
+
+    return ResponseEntity.ok(carparkService.findNearestCarparksByCursor(
+        latitude, longitude, cursor, perPage));
+  }
+
   /**
    * Manual trigger for importing data from CSV
-   * for development/testing
+   * for development/testing. {@code force} rewrites every row even when the
+   * CSV is unchanged.
    */
   @GetMapping("/import/csv")
-  public ResponseEntity<String> importCarparkDataFromCsv() {
+  public ResponseEntity<String> importCarparkDataFromCsv(
+      @RequestParam(value = "force", defaultValue = "false") boolean force) {
     log.info("Manual CSV import triggered...");
     try {
-      carparkService.importCarparkDataFromCsv();
+      carparkService.importCarparkDataFromCsv(force);
       return ResponseEntity.ok("CSV import completed successfully");
     } catch (Exception e) {
       return ResponseEntity.internalServerError()
@@ -64,11 +183,15 @@ public class CarparkController {
     }
   }
 
+  /**
+   * Manual trigger for an availability refresh. Joins the refresh already in
+   * progress, if any, and reports its outcome.
+   */
   @GetMapping("/import/availability")
   public ResponseEntity<String> updateAvailability() {
     log.info("Manual availability update triggered");
     try {
-      carparkService.updateCarparkAvailability();
+      availabilityUpdateService.refresh();
       return ResponseEntity.ok("Availability update completed successfully");
     } catch (Exception e) {
       log.error("Availability update failed: {}", e.getMessage());
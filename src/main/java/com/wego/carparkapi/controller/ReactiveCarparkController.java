@@ -0,0 +1,194 @@
+package com.wego.carparkapi.controller;
+
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchRequestDto;
+import com.wego.carparkapi.service.CarparkService;
+import com.wego.carparkapi.service.NearestCarparkPage;
+import com.wego.carparkapi.util.AvailabilityUpdateService;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * WebFlux variant of {@link CarparkController}, active when the application runs
+ * as a reactive web application ({@code reactive} profile). No handler blocks an
+ * event-loop thread:
+ * <ul>
+ *   <li>with the memory search engine an unfiltered nearest-carpark request is
+ *   ranked on the event loop from the spatial index, and a request for a page
+ *   already being computed waits on that search's future, not on a thread</li>
+ *   <li>filtered searches and batches are CPU-bound and run on the parallel
+ *   scheduler and the batch pool respectively</li>
+ *   <li>work that needs a JDBC connection (sql engine, cursor pages, which run in
+ *   a transaction, and the CSV import) runs on the bounded elastic scheduler</li>
+ *   <li>an availability refresh is a WebClient pipeline whose future the
+ *   response completes from</li>
+ * </ul>
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@RestController
+@RequestMapping("/carparks")
+@RequiredArgsConstructor
+@Validated
+@Slf4j
+public class ReactiveCarparkController {
+
+  private final CarparkService carparkService;
+  private final AvailabilityUpdateService availabilityUpdateService;
+
+  /**
+   * Same contract as {@link CarparkController#getNearestCarparks}, including the
+   * filters and the ETag and 304 handling.
+   */
+  @GetMapping("/nearest")
+  public Mono<ResponseEntity<NearestCarparkPage>> getNearestCarparks(
+      @RequestParam(value = "latitude") Double latitude,
+      @RequestParam(value = "longitude") Double longitude,
+      @RequestParam(value = "page", defaultValue = "1")
+      @Min(value = 1, message = "Page must be at least 1")
+      Integer page,
+      @RequestParam(value = "per_page", defaultValue = "10")
+      @Min(value = 1, message = "Per page must be at least 1")
+      @Max(value = 1000, message = "Per page must not exceed 1000")
+      Integer perPage,
+      @RequestParam(value = "car_park_type", required = false) String carparkType,
+      @RequestParam(value = "parking_system", required = false) String parkingSystem,
+      @RequestParam(value = "short_term_parking", required = false) String shortTermParking,
+      @RequestParam(value = "free_parking", required = false) String freeParking,
+      @RequestParam(value = "night_parking", required = false) Boolean nightParking,
+      @RequestParam(value = "basement", required = false) Boolean basement,
+      @RequestParam(value = "min_gantry_height", required = false)
+      @PositiveOrZero(message = "Minimum gantry height must not be negative")
+      Double minGantryHeight,
+      @RequestParam(value = "radius_km", required = false)
+      @Positive(message = "Radius must be positive")
+      Double radiusKm,
+      ServerWebExchange exchange) {
+
+    CarparkFilter filter = CarparkFilter.builder()
+        .carparkType(carparkType)
+        .parkingSystem(parkingSystem)
+        .shortTermParking(shortTermParking)
+        .freeParking(freeParking)
+        .nightParking(nightParking)
+        .basement(basement)
+        .minGantryHeight(minGantryHeight)
+        .radiusKm(radiusKm)
+        .build();
+    String etag = CarparkController.nearestCarparksETag(carparkService.getNearestCarparksVersion(),
+        latitude, longitude, page, perPage, filter);
+    if (exchange.checkNotModified(etag)) {
+      log.debug("Nearest carparks for {}, {} not modified since {}", latitude, longitude, etag);
+      return Mono.empty();
+    }
+
+    log.info("Finding nearest carparks for location: {}, {}, page: {}, perPage: {}",
+        latitude, longitude, page, perPage);
+
+    Mono<NearestCarparkPage> result;
+    if (!filter.isEmpty()) {
+      // Always answered from the spatial index and its attribute bitmaps
+      result = Mono.fromCallable(() -> carparkService.findNearestCarparks(
+              latitude, longitude, page, perPage, filter))
+          .subscribeOn(Schedulers.parallel());
+    } else if (carparkService.isMemoryEngine()) {
+      // The future may be shared with other requests, so a disconnect must not cancel it
+      result = Mono.fromFuture(() -> carparkService.findNearestCarparksAsync(
+          latitude, longitude, page, perPage), true);
+    } else {
+      result = Mono.fromCallable(() -> carparkService.findNearestCarparks(
+              latitude, longitude, page, perPage))
+          .subscribeOn(Schedulers.boundedElastic());
+    }
+    return result.map(ResponseEntity::ok);
+  }
+
+  /**
+   * Batches are always ranked in memory. Small ones are answered inline, larger
+   * ones complete from the batch pool's workers.
+   */
+  @PostMapping("/nearest/batch")
+  public Mono<ResponseEntity<NearestCarparkBatchDto>> getNearestCarparksBatch(
+      @Valid @RequestBody NearestCarparkBatchRequestDto request) {
+    log.info("Finding nearest carparks for a batch of {} origins", request.getOrigins().size());
+    return Mono.fromFuture(() -> carparkService.findNearestCarparksBatchAsync(
+            request.getOrigins()), true)
+        .map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/nearest/cursor")
+  public Mono<ResponseEntity<CarparkCursorPageDto>> getNearestCarparksByCursor(
+      @RequestParam(value = "latitude") Double latitude,
+      @RequestParam(value = "longitude") Double longitude,
+      @RequestParam(value = "cursor", required = false) String cursor,
+      @RequestParam(value = "per_page", defaultValue = "10")
+      @Min(value = 1, message = "Per page must be at least 1")
+      @Max(value = 1000, message = "Per page must not exceed 1000")
+      Integer perPage) {
+
+    log.info("Finding nearest carparks for location: {}, {}, cursor: {}, perPage: {}",
+        latitude, longitude, cursor, perPage);
+
+    // Transactional, so it takes a pooled connection whichever engine ranks the page
+    return Mono.fromCallable(() -> carparkService.findNearestCarparksByCursor(
+            latitude, longitude, cursor, perPage))
+        .subscribeOn(Schedulers.boundedElastic())
+        .map(ResponseEntity::ok);
+  }
+
+  @GetMapping("/import/csv")
+  public Mono<ResponseEntity<String>> importCarparkDataFromCsv(
+      @RequestParam(value = "force", defaultValue = "false") boolean force) {
+    log.info("Manual CSV import triggered...");
+    return Mono.fromRunnable(() -> carparkService.importCarparkDataFromCsv(force))
+        .subscribeOn(Schedulers.boundedElastic())
+        .then(Mono.just(ResponseEntity.ok("CSV import completed successfully")))
+        .onErrorResume(e -> Mono.just(ResponseEntity.internalServerError()
+            .body("CSV import failed: " + e.getMessage())));
+  }
+
+  /**
+   * Joins the refresh already in progress, if any. Completes from the refresh's
+   * future, so no thread waits for it.
+   */
+  @GetMapping("/import/availability")
+  public Mono<ResponseEntity<String>> updateAvailability() {
+    log.info("Manual availability update triggered");
+    // Shared with every caller of the refresh, so a disconnect must not cancel it
+    return Mono.fromFuture(availabilityUpdateService::refreshAsync, true)
+        .then(Mono.just(ResponseEntity.ok("Availability update completed successfully")))
+        .onErrorResume(e -> {
+          log.error("Availability update failed: {}", e.getMessage());
+          return Mono.just(ResponseEntity.internalServerError()
+              .body("Availability update failed: " + e.getMessage()));
+        });
+  }
+
+  @GetMapping("/health")
+  public Mono<ResponseEntity<String>> health() {
+    long availableCarparks = carparkService.getCarparksWithAvailabilityCount();
+    return Mono.just(ResponseEntity.ok(
+        String.format("Service is healthy. %d carparks with availability found.", availableCarparks)));
+  }
+}
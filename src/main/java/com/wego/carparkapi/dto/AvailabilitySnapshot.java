@@ -0,0 +1,67 @@
+package com.wego.carparkapi.dto;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * Columnar lot counts of one availability feed item: one (carpark number, total,
+ * available) tuple per carpark, held in parallel primitive arrays. A carpark that
+ * appears more than once keeps its last reported counts.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+public class AvailabilitySnapshot {
+
+  @Getter
+  @Setter
+  private String timestamp;
+
+  private final Map<String, Integer> positions;
+  private String[] carparkNumbers;
+  private int[] totalLots;
+  private int[] availableLots;
+  private int size;
+
+  public AvailabilitySnapshot(String timestamp, int expectedSize) {
+    int capacity = Math.max(16, expectedSize);
+    this.timestamp = timestamp;
+    this.positions = new HashMap<>(capacity * 2);
+    this.carparkNumbers = new String[capacity];
+    this.totalLots = new int[capacity];
+    this.availableLots = new int[capacity];
+  }
+
+  public void add(String carparkNumber, int total, int available) {
+    Integer existing = positions.putIfAbsent(carparkNumber, size);
+    int i = existing == null ? size++ : existing;
+    if (i == carparkNumbers.length) {
+      int capacity = carparkNumbers.length * 2;
+      carparkNumbers = Arrays.copyOf(carparkNumbers, capacity);
+      totalLots = Arrays.copyOf(totalLots, capacity);
+      availableLots = Arrays.copyOf(availableLots, capacity);
+    }
+    carparkNumbers[i] = carparkNumber;
+    totalLots[i] = total;
+    availableLots[i] = available;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public String getCarparkNumber(int i) {
+    return carparkNumbers[i];
+  }
+
+  public int getTotalLots(int i) {
+    return totalLots[i];
+  }
+
+  public int getAvailableLots(int i) {
+    return availableLots[i];
+  }
+}
@@ -0,0 +1,28 @@
+package com.wego.carparkapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CarparkCursorPageDto {
+
+  @JsonProperty("data")
+  private List<CarparkResponseDto> data;
+
+  /**
+   * Token for the following page, or null when this is the last page.
+   */
+  @JsonProperty("next")
+  private String next;
+}
@@ -0,0 +1,46 @@
+package com.wego.carparkapi.dto;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Attribute filters and radius of a nearest-carpark search. Null fields do not
+ * filter. Text attributes match the dataset's labels ignoring case, e.g.
+ * {@code parkingSystem = "electronic parking"}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Value
+@Builder
+public class CarparkFilter {
+
+  public static final CarparkFilter NONE = CarparkFilter.builder().build();
+
+  String carparkType;
+  String parkingSystem;
+  String shortTermParking;
+  String freeParking;
+  Boolean nightParking;
+  Boolean basement;
+
+  /**
+   * Minimum gantry height in metres. Carparks without a gantry always qualify.
+   */
+  Double minGantryHeight;
+
+  /**
+   * Maximum distance from the origin in kilometres.
+   */
+  Double radiusKm;
+
+  public boolean hasAttributes() {
+    return carparkType != null || parkingSystem != null || shortTermParking != null
+        || freeParking != null || nightParking != null || basement != null
+        || minGantryHeight != null;
+  }
+
+  public boolean isEmpty() {
+    return !hasAttributes() && radiusKm == null;
+  }
+}
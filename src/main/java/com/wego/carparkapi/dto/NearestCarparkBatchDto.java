@@ -0,0 +1,42 @@
+package com.wego.carparkapi.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Response of {@code POST /carparks/nearest/batch}. Results are in the order of the
+ * request's origins and all reflect the same availability snapshot.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestCarparkBatchDto {
+
+  /**
+   * Version of the availability snapshot every result was answered from.
+   */
+  @JsonProperty("version")
+  private Long version;
+
+  @JsonProperty("results")
+  private List<Result> results;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Result {
+
+    private Double latitude;
+    private Double longitude;
+    private List<CarparkResponseDto> data;
+  }
+}
@@ -0,0 +1,50 @@
+package com.wego.carparkapi.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Body of {@code POST /carparks/nearest/batch}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class NearestCarparkBatchRequestDto {
+
+  @NotEmpty(message = "At least one origin is required")
+  @Valid
+  private List<@NotNull(message = "Origin must not be null") Origin> origins;
+
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Origin {
+
+    @NotNull(message = "Latitude is required")
+    private Double latitude;
+
+    @NotNull(message = "Longitude is required")
+    private Double longitude;
+
+    /**
+     * Number of nearest carparks to return for this origin. Defaults to 10 when
+     * omitted; an explicit null is rejected.
+     */
+    @Builder.Default
+    @NotNull(message = "k must not be null")
+    @Min(value = 1, message = "k must be at least 1")
+    private Integer k = 10;
+  }
+}
@@ -0,0 +1,57 @@
+package com.wego.carparkapi.dto;
+
+import java.nio.ByteBuffer;
+import java.util.Base64;
+import lombok.Value;
+
+/**
+ * Keyset position in a nearest-carpark listing: the origin of the search and the
+ * (distance, id) of the last carpark returned. Serialised as an opaque URL-safe token.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Value
+public class NearestCarparkCursor {
+
+  private static final byte VERSION = 1;
+  private static final int LENGTH = 1 + 4 * Double.BYTES;
+
+  double latitude;
+  double longitude;
+  double distance;
+  long id;
+
+  public String encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(LENGTH)
+        .put(VERSION)
+        .putDouble(latitude)
+        .putDouble(longitude)
+        .putDouble(distance)
+        .putLong(id);
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+  }
+
+  public static NearestCarparkCursor decode(String token) {
+    byte[] bytes;
+    try {
+      bytes = Base64.getUrlDecoder().decode(token);
+    } catch (IllegalArgumentException e) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    if (bytes.length != LENGTH || bytes[0] != VERSION) {
+      throw new IllegalArgumentException("Malformed cursor");
+    }
+    ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, LENGTH - 1);
+    return new NearestCarparkCursor(buffer.getDouble(), buffer.getDouble(),
+        buffer.getDouble(), buffer.getLong());
+  }
+
+  /**
+   * Whether this cursor was issued for a search from the given origin.
+   */
+  public boolean isFrom(double latitude, double longitude) {
+    return Double.compare(this.latitude, latitude) == 0
+        && Double.compare(this.longitude, longitude) == 0;
+  }
+}
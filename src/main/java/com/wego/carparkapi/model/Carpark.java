@@ -53,6 +53,20 @@ public class Carpark {
   @Column(name = "longitude", nullable = false)
   private Double longitude;
 
+  /**
+   * Unit vector of the position, see
+   * {@link com.wego.carparkapi.util.CoordinateConversionUtility#toUnitVector}.
+   * Lets the nearest-carpark query rank rows without trigonometry.
+   */
+  @Column(name = "unit_x")
+  private Double unitX;
+
+  @Column(name = "unit_y")
+  private Double unitY;
+
+  @Column(name = "unit_z")
+  private Double unitZ;
+
   @Column(name = "car_park_type")
   private String carparkType;
 
@@ -83,6 +97,12 @@ public class Carpark {
   @Column(name = "available_lots")
   private Integer availableLots;
 
+  /**
+   * Hash of the CSV row and projection parameters this carpark was imported from.
+   */
+  @Column(name = "source_hash")
+  private String sourceHash;
+
   @Column(name = "last_updated")
   private LocalDateTime lastUpdated;
 
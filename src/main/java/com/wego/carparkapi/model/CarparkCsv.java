@@ -31,7 +31,7 @@ public class CarparkCsv {
   @CsvBindByName(column = "short_term_parking")
   private String shortTermParking;
 
-  @CsvBindByName(column = "freeParking")
+  @CsvBindByName(column = "free_parking")
   private String freeParking;
 
   @CsvBindByName(column = "night_parking")
@@ -0,0 +1,37 @@
+package com.wego.carparkapi.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import java.time.LocalDateTime;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Content hash of the last successfully imported version of a dataset, written in
+ * the same transaction as the imported rows.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Entity
+@Table(name = "dataset_imports")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DatasetImport {
+
+  @Id
+  @Column(name = "name")
+  private String name;
+
+  @Column(name = "content_hash", nullable = false)
+  private String contentHash;
+
+  @Column(name = "imported_at")
+  private LocalDateTime importedAt;
+}
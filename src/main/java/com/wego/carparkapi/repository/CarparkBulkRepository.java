@@ -0,0 +1,155 @@
+package com.wego.carparkapi.repository;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.model.Carpark;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Set-based writes to the {@code carparks} table that bypass the persistence
+ * context. {@link Carpark} uses IDENTITY ids, so Hibernate cannot batch its
+ * inserts; these statements are sent as JDBC batches instead.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Repository
+@RequiredArgsConstructor
+public class CarparkBulkRepository {
+
+  private static final String UPSERT_CARPARK = """
+      INSERT INTO carparks (carpark_number, address, x_coord, y_coord, latitude, longitude,
+          unit_x, unit_y, unit_z, car_park_type, type_of_parking_system, short_term_parking,
+          free_parking, night_parking, car_park_decks, gantry_height, car_park_basement,
+          source_hash, total_lots, available_lots, created_at, updated_at)
+      VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, 0, 0, now(), now())
+      ON CONFLICT (carpark_number) DO UPDATE SET
+          address = EXCLUDED.address,
+          x_coord = EXCLUDED.x_coord,
+          y_coord = EXCLUDED.y_coord,
+          latitude = EXCLUDED.latitude,
+          longitude = EXCLUDED.longitude,
+          unit_x = EXCLUDED.unit_x,
+          unit_y = EXCLUDED.unit_y,
+          unit_z = EXCLUDED.unit_z,
+          car_park_type = EXCLUDED.car_park_type,
+          type_of_parking_system = EXCLUDED.type_of_parking_system,
+          short_term_parking = EXCLUDED.short_term_parking,
+          free_parking = EXCLUDED.free_parking,
+          night_parking = EXCLUDED.night_parking,
+          car_park_decks = EXCLUDED.car_park_decks,
+          gantry_height = EXCLUDED.gantry_height,
+          car_park_basement = EXCLUDED.car_park_basement,
+          source_hash = EXCLUDED.source_hash,
+          updated_at = now()
+      """;
+
+  /**
+   * Applies a whole availability snapshot in one statement: the three columns are
+   * bound as arrays and joined to {@code carparks} on {@code carpark_number}.
+   */
+  private static final String APPLY_AVAILABILITY = """
+      UPDATE carparks c
+      SET total_lots = v.total_lots,
+          available_lots = v.available_lots,
+          last_updated = ?
+      FROM unnest(?::text[], ?::int[], ?::int[]) AS v(carpark_number, total_lots, available_lots)
+      WHERE c.carpark_number = v.carpark_number
+      RETURNING c.carpark_number
+      """;
+
+  private static final String SELECT_SOURCE_HASHES =
+      "SELECT carpark_number, source_hash FROM carparks WHERE source_hash IS NOT NULL";
+
+  private final JdbcTemplate jdbcTemplate;
+
+  /**
+   * Source hash of every imported carpark, keyed by carpark number.
+   */
+  public Map<String, String> findSourceHashes() {
+    Map<String, String> hashes = new HashMap<>();
+    jdbcTemplate.query(SELECT_SOURCE_HASHES,
+        (RowCallbackHandler) rs -> hashes.put(rs.getString(1), rs.getString(2)));
+    return hashes;
+  }
+
+  /**
+   * Insert or update the static CSV attributes of the given carparks, keyed on
+   * {@code carpark_number}, as a single JDBC batch. Lot counts of existing rows
+   * are left untouched.
+   *
+   * @return number of carparks written
+   */
+  public int upsertCarparks(List<Carpark> carparks) {
+    if (carparks.isEmpty()) {
+      return 0;
+    }
+    jdbcTemplate.batchUpdate(UPSERT_CARPARK, carparks, carparks.size(), this::bindCarpark);
+    return carparks.size();
+  }
+
+  /**
+   * Set {@code total_lots}, {@code available_lots} and {@code last_updated} of every
+   * carpark in the snapshot with a single set-based update. No other column is
+   * touched and no entity is loaded.
+   *
+   * @return carpark numbers of the rows that were updated
+   */
+  public List<String> applyAvailability(AvailabilitySnapshot snapshot, LocalDateTime updateTime) {
+    int size = snapshot.size();
+    if (size == 0) {
+      return Collections.emptyList();
+    }
+
+    String[] carparkNumbers = new String[size];
+    Integer[] totalLots = new Integer[size];
+    Integer[] availableLots = new Integer[size];
+    for (int i = 0; i < size; i++) {
+      carparkNumbers[i] = snapshot.getCarparkNumber(i);
+      totalLots[i] = snapshot.getTotalLots(i);
+      availableLots[i] = snapshot.getAvailableLots(i);
+    }
+
+    return jdbcTemplate.query((Connection connection) -> {
+      PreparedStatement ps = connection.prepareStatement(APPLY_AVAILABILITY);
+      ps.setTimestamp(1, Timestamp.valueOf(updateTime));
+      ps.setArray(2, connection.createArrayOf("text", carparkNumbers));
+      ps.setArray(3, connection.createArrayOf("integer", totalLots));
+      ps.setArray(4, connection.createArrayOf("integer", availableLots));
+      return ps;
+    }, (rs, rowNum) -> rs.getString(1));
+  }
+
+  private void bindCarpark(PreparedStatement ps, Carpark carpark) throws SQLException {
+    ps.setString(1, carpark.getCarparkNumber());
+    ps.setString(2, carpark.getAddress());
+    ps.setObject(3, carpark.getXCoord(), Types.DOUBLE);
+    ps.setObject(4, carpark.getYCoord(), Types.DOUBLE);
+    ps.setDouble(5, carpark.getLatitude());
+    ps.setDouble(6, carpark.getLongitude());
+    ps.setObject(7, carpark.getUnitX(), Types.DOUBLE);
+    ps.setObject(8, carpark.getUnitY(), Types.DOUBLE);
+    ps.setObject(9, carpark.getUnitZ(), Types.DOUBLE);
+    ps.setString(10, carpark.getCarparkType());
+    ps.setString(11, carpark.getTypeOfParkingSystem());
+    ps.setString(12, carpark.getShortTermParking());
+    ps.setString(13, carpark.getFreeParking());
+    ps.setString(14, carpark.getNightParking());
+    ps.setObject(15, carpark.getCarparkDecks(), Types.INTEGER);
+    ps.setObject(16, carpark.getGantryHeight(), Types.DOUBLE);
+    ps.setString(17, carpark.getCarparkBasement());
+    ps.setString(18, carpark.getSourceHash());
+  }
+}
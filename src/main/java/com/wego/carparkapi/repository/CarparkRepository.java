@@ -1,9 +1,8 @@
 package com.wego.carparkapi.repository;
 
 import com.wego.carparkapi.model.Carpark;
+import java.util.List;
 import java.util.Optional;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
@@ -16,21 +15,77 @@ import org.springframework.stereotype.Repository;
 @Repository
 public interface CarparkRepository extends JpaRepository<Carpark, Long> {
 
+  /**
+   * Page of the nearest carparks with availability inside a latitude/longitude box,
+   * ranked by the dot product of each row's stored unit vector with the query's
+   * ({@code x}, {@code y}, {@code z}). No trigonometry is evaluated to rank, and the
+   * box predicate lets Postgres range-scan {@code idx_carpark_location} instead of
+   * ranking the whole table. Carparks outside the box are never returned, so the
+   * caller has to widen it until the page is known to be complete.
+   *
+   * <p>Only the response columns and the distance are selected, into a read-only
+   * projection, so no entity is hydrated or tracked by the persistence context.
+   */
   @Query(value = """
-      SELECT c.*,
-           (6371 * acos(cos(radians(:latitude))
-           * cos(radians(c.latitude))
-           * cos(radians(c.longitude) - radians(:longitude))
-           + sin(radians(:latitude))
-           * sin(radians(c.latitude)))) AS distance
-    FROM carparks c
-    WHERE c.available_lots > 0
-    ORDER BY distance
-    """, nativeQuery = true)
-  Page<Carpark> findNearestCarparksWithAvailability(@Param("latitude") Double latitude, @Param("longitude") Double longitude, Pageable pageable);
+      SELECT c.id AS "id",
+           c.carpark_number AS "carparkNumber",
+           c.address AS "address",
+           c.latitude AS "latitude",
+           c.longitude AS "longitude",
+           c.total_lots AS "totalLots",
+           c.available_lots AS "availableLots",
+           (6371 * acos(LEAST(1.0,
+               c.unit_x * :x + c.unit_y * :y + c.unit_z * :z))) AS "distance"
+      FROM carparks c
+      WHERE c.latitude BETWEEN :minLatitude AND :maxLatitude
+        AND c.longitude BETWEEN :minLongitude AND :maxLongitude
+        AND c.available_lots > 0
+      ORDER BY c.unit_x * :x + c.unit_y * :y + c.unit_z * :z DESC NULLS LAST, c.id
+      LIMIT :limit OFFSET :offset
+      """, nativeQuery = true)
+  List<NearestCarparkView> findNearestCarparksWithAvailability(@Param("x") double x,
+      @Param("y") double y, @Param("z") double z, @Param("minLatitude") double minLatitude,
+      @Param("maxLatitude") double maxLatitude, @Param("minLongitude") double minLongitude,
+      @Param("maxLongitude") double maxLongitude, @Param("offset") int offset,
+      @Param("limit") int limit);
 
-  Optional<Carpark> findByCarparkNumber(String carparkNumber);
+  /**
+   * Keyset page of the nearest carparks with availability inside a latitude/longitude
+   * box: rows strictly after ({@code afterDistance}, {@code afterId}) in (distance, id)
+   * order. Pass a negative distance for the first page. No count query and no OFFSET,
+   * and as in {@link #findNearestCarparksWithAvailability} the box lets Postgres
+   * range-scan {@code idx_carpark_location}, so the distance, one {@code acos} of the
+   * stored unit vectors and the query's ({@code x}, {@code y}, {@code z}), is only
+   * derived and sorted for rows inside it. The caller widens the box until the page
+   * is known to be complete.
+   */
+  @Query(value = """
+      SELECT n.*
+      FROM (
+        SELECT c.id AS "id",
+             c.carpark_number AS "carparkNumber",
+             c.address AS "address",
+             c.latitude AS "latitude",
+             c.longitude AS "longitude",
+             c.total_lots AS "totalLots",
+             c.available_lots AS "availableLots",
+             (6371 * acos(LEAST(1.0,
+                 c.unit_x * :x + c.unit_y * :y + c.unit_z * :z))) AS "distance"
+        FROM carparks c
+        WHERE c.latitude BETWEEN :minLatitude AND :maxLatitude
+          AND c.longitude BETWEEN :minLongitude AND :maxLongitude
+          AND c.available_lots > 0
+      ) n
+      WHERE n."distance" > :afterDistance
+         OR (n."distance" = :afterDistance AND n."id" > :afterId)
+      ORDER BY n."distance", n."id"
+      LIMIT :limit
+      """, nativeQuery = true)
+  List<NearestCarparkView> findNearestCarparksAfter(@Param("x") double x, @Param("y") double y,
+      @Param("z") double z, @Param("minLatitude") double minLatitude,
+      @Param("maxLatitude") double maxLatitude, @Param("minLongitude") double minLongitude,
+      @Param("maxLongitude") double maxLongitude, @Param("afterDistance") Double afterDistance,
+      @Param("afterId") Long afterId, @Param("limit") int limit);
 
-  @Query("SELECT c FROM Carpark c WHERE c.availableLots > 0")
-  Page<Carpark> findAllWithAvailableLots(Pageable pageable);
+  Optional<Carpark> findByCarparkNumber(String carparkNumber);
 }
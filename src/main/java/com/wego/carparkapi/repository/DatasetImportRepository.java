@@ -0,0 +1,14 @@
+package com.wego.carparkapi.repository;
+
+import com.wego.carparkapi.model.DatasetImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Repository
+public interface DatasetImportRepository extends JpaRepository<DatasetImport, String> {
+
+}
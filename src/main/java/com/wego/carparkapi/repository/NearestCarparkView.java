@@ -0,0 +1,26 @@
+package com.wego.carparkapi.repository;
+
+/**
+ * Read-only projection of a nearest-carpark row together with its computed distance.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+public interface NearestCarparkView {
+
+  Long getId();
+
+  String getCarparkNumber();
+
+  String getAddress();
+
+  Double getLatitude();
+
+  Double getLongitude();
+
+  Integer getTotalLots();
+
+  Integer getAvailableLots();
+
+  Double getDistance();
+}
@@ -0,0 +1,115 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import org.springframework.stereotype.Component;
+
+/**
+ * Remembers the last applied (total, available) pair of every carpark, packed into
+ * a single long, and the timestamp of the last applied feed item. Lets the
+ * availability refresh write only the carparks whose counts actually changed and
+ * skip feed items it has already ingested.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+public class AvailabilityDeltaTracker {
+
+  private final Map<String, Long> fingerprints = new ConcurrentHashMap<>();
+  private volatile String lastTimestamp;
+  // Bumped by every reset, so changes diffed before it are not recorded after it
+  private volatile long generation;
+
+  private final Counter changedCarparks;
+  private final Counter unchangedCarparks;
+  private final Counter skippedSnapshots;
+
+  public AvailabilityDeltaTracker(MeterRegistry meterRegistry) {
+    this.changedCarparks = Counter.builder("carpark.availability.carparks")
+        .description("Carparks in applied availability snapshots")
+        .tag("result", "changed")
+        .register(meterRegistry);
+    this.unchangedCarparks = Counter.builder("carpark.availability.carparks")
+        .description("Carparks in applied availability snapshots")
+        .tag("result", "unchanged")
+        .register(meterRegistry);
+    this.skippedSnapshots = Counter.builder("carpark.availability.snapshots.skipped")
+        .description("Availability snapshots skipped because their timestamp was already applied")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Whether a feed item with this timestamp still needs to be applied. Counts a
+   * skipped snapshot when it does not.
+   */
+  public boolean isNewSnapshot(String timestamp) {
+    if (timestamp != null && Objects.equals(timestamp, lastTimestamp)) {
+      skippedSnapshots.increment();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * The subset of {@code snapshot} whose lot counts differ from the last applied ones.
+   */
+  public AvailabilitySnapshot changedSince(AvailabilitySnapshot snapshot) {
+    AvailabilitySnapshot changes = new AvailabilitySnapshot(snapshot.getTimestamp(), 0);
+    for (int i = 0; i < snapshot.size(); i++) {
+      Long previous = fingerprints.get(snapshot.getCarparkNumber(i));
+      if (previous == null
+          || previous != fingerprint(snapshot.getTotalLots(i), snapshot.getAvailableLots(i))) {
+        changes.add(snapshot.getCarparkNumber(i), snapshot.getTotalLots(i),
+            snapshot.getAvailableLots(i));
+      }
+    }
+    changedCarparks.increment(changes.size());
+    unchangedCarparks.increment(snapshot.size() - changes.size());
+    return changes;
+  }
+
+  /**
+   * Tag for changes about to be diffed, to hand back to {@link #recordApplied}.
+   */
+  public long getGeneration() {
+    return generation;
+  }
+
+  /**
+   * Record the given changes as applied. Call only once they are durable, that is
+   * once their write to Postgres has committed: changes never recorded are diffed
+   * again, and so written again, by the next snapshot. Changes diffed before a
+   * {@link #reset()} are dropped, since the reset asked for a full reapply.
+   *
+   * @param generation {@link #getGeneration()} as of before the changes were diffed
+   */
+  public synchronized void recordApplied(AvailabilitySnapshot changes, long generation) {
+    if (generation != this.generation) {
+      return;
+    }
+    for (int i = 0; i < changes.size(); i++) {
+      fingerprints.put(changes.getCarparkNumber(i),
+          fingerprint(changes.getTotalLots(i), changes.getAvailableLots(i)));
+    }
+    lastTimestamp = changes.getTimestamp();
+  }
+
+  /**
+   * Forget everything, so the next snapshot is applied in full. Needed whenever
+   * the carparks table is rewritten outside the availability refresh.
+   */
+  public synchronized void reset() {
+    generation++;
+    fingerprints.clear();
+    lastTimestamp = null;
+  }
+
+  private static long fingerprint(int totalLots, int availableLots) {
+    return ((long) totalLots << 32) | (availableLots & 0xFFFFFFFFL);
+  }
+}
@@ -0,0 +1,94 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.repository.CarparkBulkRepository;
+import jakarta.annotation.PreDestroy;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Writes applied availability snapshots to the {@code carparks} table in the
+ * background. Writes run one at a time on a dedicated thread, so they reach
+ * Postgres in the order the snapshots were applied, and each one is a short
+ * transaction of its own.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@Slf4j
+public class AvailabilityPersister {
+
+  private final CarparkBulkRepository carparkBulkRepository;
+  private final TransactionTemplate transactionTemplate;
+  private final ExecutorService executor;
+  private final AtomicLong writtenSnapshots = new AtomicLong();
+
+  public AvailabilityPersister(CarparkBulkRepository carparkBulkRepository,
+      TransactionTemplate transactionTemplate) {
+    this.carparkBulkRepository = carparkBulkRepository;
+    this.transactionTemplate = transactionTemplate;
+    this.executor = Executors.newSingleThreadExecutor(runnable -> {
+      Thread thread = new Thread(runnable, "availability-persister");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  /**
+   * Queue the changes of an applied snapshot for writing.
+   *
+   * @return completes once the write has committed, or exceptionally if it failed
+   */
+  public CompletableFuture<Void> persist(AvailabilitySnapshot changes, LocalDateTime updateTime) {
+    if (changes.size() == 0) {
+      return CompletableFuture.completedFuture(null);
+    }
+    return CompletableFuture.runAsync(() -> write(changes, updateTime), executor);
+  }
+
+  private void write(AvailabilitySnapshot changes, LocalDateTime updateTime) {
+    long start = System.nanoTime();
+    try {
+      List<String> updated = transactionTemplate.execute(
+          status -> carparkBulkRepository.applyAvailability(changes, updateTime));
+      int updatedCount = updated == null ? 0 : updated.size();
+      writtenSnapshots.incrementAndGet();
+      log.info("Persisted availability snapshot {}: {} carparks updated, {} not found in {} ms",
+          changes.getTimestamp(), updatedCount, changes.size() - updatedCount,
+          (System.nanoTime() - start) / 1_000_000);
+    } catch (RuntimeException e) {
+      log.error("Failed to persist availability snapshot {}: {}", changes.getTimestamp(),
+          e.getMessage(), e);
+      throw e;
+    }
+  }
+
+  /**
+   * Number of snapshots written to Postgres so far; changes whenever the persisted
+   * lot counts do.
+   */
+  public long getWrittenSnapshots() {
+    return writtenSnapshots.get();
+  }
+
+  /**
+   * Let queued writes finish before the datasource is closed.
+   */
+  @PreDestroy
+  public void shutdown() throws InterruptedException {
+    executor.shutdown();
+    if (!executor.awaitTermination(30, TimeUnit.SECONDS)) {
+      log.warn("Availability writes still pending at shutdown were dropped");
+      executor.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,108 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.model.Carpark;
+import java.util.Collection;
+import lombok.Getter;
+
+/**
+ * Latitude/longitude box containing every point within a radius of a centre. A
+ * point outside the box is always further than the radius from the centre, which
+ * is what lets a search limited to the box prove its page complete: once the
+ * furthest carpark returned is within the radius, nothing outside can rank ahead
+ * of it.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Getter
+final class BoundingBox {
+
+  // Beyond this a box saves little over reading every row
+  static final double MAX_RADIUS_KM = 200;
+
+  static final BoundingBox UNBOUNDED = new BoundingBox(-90, 90, -180, 180, Double.POSITIVE_INFINITY);
+
+  private final double minLatitude;
+  private final double maxLatitude;
+  private final double minLongitude;
+  private final double maxLongitude;
+  private final double radiusKm;
+
+  private BoundingBox(double minLatitude, double maxLatitude, double minLongitude,
+      double maxLongitude, double radiusKm) {
+    this.minLatitude = minLatitude;
+    this.maxLatitude = maxLatitude;
+    this.minLongitude = minLongitude;
+    this.maxLongitude = maxLongitude;
+    this.radiusKm = radiusKm;
+  }
+
+  /**
+   * Box around the circle of {@code radiusKm} centred on the given position, or
+   * {@link #UNBOUNDED} when the radius exceeds {@link #MAX_RADIUS_KM} or the circle
+   * reaches a pole or the antimeridian.
+   */
+  static BoundingBox around(double latitude, double longitude, double radiusKm) {
+    if (radiusKm > MAX_RADIUS_KM) {
+      return UNBOUNDED;
+    }
+    double deltaLatitude = Math.toDegrees(radiusKm / CarparkSpatialIndex.EARTH_RADIUS_KM);
+    double minLatitude = latitude - deltaLatitude;
+    double maxLatitude = latitude + deltaLatitude;
+    if (minLatitude <= -90 || maxLatitude >= 90) {
+      return UNBOUNDED;
+    }
+
+    // Meridians converge, so the longitude span is taken at the box's most polar edge
+    double maxAbsLatitudeCos = Math.cos(Math.toRadians(
+        Math.max(Math.abs(minLatitude), Math.abs(maxLatitude))));
+    double s = Math.sin(radiusKm / (2 * CarparkSpatialIndex.EARTH_RADIUS_KM)) / maxAbsLatitudeCos;
+    if (s >= 1) {
+      return UNBOUNDED;
+    }
+    double deltaLongitude = Math.toDegrees(2 * Math.asin(s));
+    double minLongitude = longitude - deltaLongitude;
+    double maxLongitude = longitude + deltaLongitude;
+    if (minLongitude < -180 || maxLongitude > 180) {
+      return UNBOUNDED;
+    }
+    return new BoundingBox(minLatitude, maxLatitude, minLongitude, maxLongitude, radiusKm);
+  }
+
+  /**
+   * Smallest box holding every carpark with coordinates, or null when none has
+   * them. It bounds positions only, so its radius is NaN.
+   */
+  static BoundingBox enclosing(Collection<Carpark> carparks) {
+    double minLatitude = Double.POSITIVE_INFINITY;
+    double maxLatitude = Double.NEGATIVE_INFINITY;
+    double minLongitude = Double.POSITIVE_INFINITY;
+    double maxLongitude = Double.NEGATIVE_INFINITY;
+    for (Carpark carpark : carparks) {
+      if (carpark.getLatitude() == null || carpark.getLongitude() == null) {
+        continue;
+      }
+      minLatitude = Math.min(minLatitude, carpark.getLatitude());
+      maxLatitude = Math.max(maxLatitude, carpark.getLatitude());
+      minLongitude = Math.min(minLongitude, carpark.getLongitude());
+      maxLongitude = Math.max(maxLongitude, carpark.getLongitude());
+    }
+    if (minLatitude > maxLatitude) {
+      return null;
+    }
+    return new BoundingBox(minLatitude, maxLatitude, minLongitude, maxLongitude, Double.NaN);
+  }
+
+  /**
+   * Whether {@code other} lies entirely within this box; false for null.
+   */
+  boolean contains(BoundingBox other) {
+    return other != null
+        && minLatitude <= other.minLatitude && maxLatitude >= other.maxLatitude
+        && minLongitude <= other.minLongitude && maxLongitude >= other.maxLongitude;
+  }
+
+  boolean isUnbounded() {
+    return this == UNBOUNDED;
+  }
+}
@@ -0,0 +1,153 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.model.Carpark;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Bitmap indexes over the categorical attributes of the carparks in a
+ * {@link CarparkSpatialIndex} grid. Bit {@code i} of every bitmap stands for the
+ * grid's entry {@code i}. Each text attribute has one bitmap per distinct label.
+ * Gantry heights are kept as one cumulative bitmap per distinct height, holding
+ * every carpark at least that tall, so a minimum height is one binary search away.
+ * A filter is answered by intersecting the bitmaps of its criteria, and the
+ * result narrows the spatial search to the matching carparks.
+ *
+ * <p>The dataset records a gantry height of 0 for surface carparks, which have no
+ * gantry; they match every minimum height.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+final class CarparkAttributeIndex {
+
+  static final CarparkAttributeIndex EMPTY = new CarparkAttributeIndex(List.of());
+
+  private final int size;
+  private final Map<String, BitSet> carparkTypes;
+  private final Map<String, BitSet> parkingSystems;
+  private final Map<String, BitSet> shortTermParking;
+  private final Map<String, BitSet> freeParking;
+  private final Map<String, BitSet> nightParking;
+  private final Map<String, BitSet> basement;
+  // Ascending distinct heights; gantryAtLeast[i] holds carparks at least gantryHeights[i] tall
+  private final double[] gantryHeights;
+  private final BitSet[] gantryAtLeast;
+  private final BitSet withoutGantry;
+
+  /**
+   * @param carparks carparks in grid entry order
+   */
+  CarparkAttributeIndex(List<Carpark> carparks) {
+    size = carparks.size();
+    carparkTypes = byLabel(carparks, Carpark::getCarparkType);
+    parkingSystems = byLabel(carparks, Carpark::getTypeOfParkingSystem);
+    shortTermParking = byLabel(carparks, Carpark::getShortTermParking);
+    freeParking = byLabel(carparks, Carpark::getFreeParking);
+    nightParking = byLabel(carparks, Carpark::getNightParking);
+    basement = byLabel(carparks, Carpark::getCarparkBasement);
+
+    double[] heights = carparks.stream()
+        .map(Carpark::getGantryHeight)
+        .filter(height -> height != null && height > 0)
+        .mapToDouble(Double::doubleValue)
+        .distinct()
+        .sorted()
+        .toArray();
+    BitSet[] atLeast = new BitSet[heights.length];
+    for (int h = 0; h < heights.length; h++) {
+      atLeast[h] = new BitSet(size);
+    }
+    BitSet noGantry = new BitSet(size);
+    for (int i = 0; i < size; i++) {
+      Double height = carparks.get(i).getGantryHeight();
+      if (height == null) {
+        continue;
+      }
+      if (height <= 0) {
+        noGantry.set(i);
+        continue;
+      }
+      int tallest = Arrays.binarySearch(heights, height);
+      for (int h = 0; h <= tallest; h++) {
+        atLeast[h].set(i);
+      }
+    }
+    for (BitSet bitmap : atLeast) {
+      bitmap.or(noGantry);
+    }
+    gantryHeights = heights;
+    gantryAtLeast = atLeast;
+    withoutGantry = noGantry;
+  }
+
+  /**
+   * Carparks matching every attribute criterion of {@code filter}, or null when it
+   * has none. The returned bitmap is owned by the caller.
+   */
+  BitSet match(CarparkFilter filter) {
+    if (!filter.hasAttributes()) {
+      return null;
+    }
+    BitSet result = new BitSet(size);
+    result.set(0, size);
+    and(result, carparkTypes, filter.getCarparkType());
+    and(result, parkingSystems, filter.getParkingSystem());
+    and(result, shortTermParking, filter.getShortTermParking());
+    and(result, freeParking, filter.getFreeParking());
+    if (filter.getNightParking() != null) {
+      and(result, nightParking, filter.getNightParking() ? "YES" : "NO");
+    }
+    if (filter.getBasement() != null) {
+      and(result, basement, filter.getBasement() ? "Y" : "N");
+    }
+    if (filter.getMinGantryHeight() != null) {
+      andGantryAtLeast(result, filter.getMinGantryHeight());
+    }
+    return result;
+  }
+
+  private void andGantryAtLeast(BitSet result, double minHeight) {
+    if (minHeight <= 0) {
+      return;
+    }
+    int index = Arrays.binarySearch(gantryHeights, minHeight);
+    int first = index >= 0 ? index : -index - 1;
+    // Taller than every gantry: only carparks without one qualify
+    result.and(first < gantryHeights.length ? gantryAtLeast[first] : withoutGantry);
+  }
+
+  private static void and(BitSet result, Map<String, BitSet> bitmaps, String label) {
+    if (label == null) {
+      return;
+    }
+    BitSet bitmap = bitmaps.get(normalise(label));
+    if (bitmap == null) {
+      result.clear();
+    } else {
+      result.and(bitmap);
+    }
+  }
+
+  private static Map<String, BitSet> byLabel(List<Carpark> carparks,
+      Function<Carpark, String> attribute) {
+    Map<String, BitSet> bitmaps = new HashMap<>();
+    for (int i = 0; i < carparks.size(); i++) {
+      String label = attribute.apply(carparks.get(i));
+      if (label != null && !label.isBlank()) {
+        bitmaps.computeIfAbsent(normalise(label), key -> new BitSet(carparks.size())).set(i);
+      }
+    }
+    return bitmaps;
+  }
+
+  private static String normalise(String label) {
+    return label.trim().toUpperCase(Locale.ROOT);
+  }
+}
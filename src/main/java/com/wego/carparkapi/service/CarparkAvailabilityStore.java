@@ -0,0 +1,201 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.model.Carpark;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * Live lot counts of every known carpark, held apart from the JPA entity. Each
+ * carpark is given a dense ordinal that stays fixed for the lifetime of the
+ * process, and its counts live in primitive int arrays at that ordinal. Writers
+ * copy the arrays and publish them with a single volatile write, so readers take
+ * no lock and always see the counts of one whole snapshot. Writers are serialised
+ * by a {@link ReentrantLock} rather than a monitor, so a virtual thread waiting to
+ * write parks instead of pinning its carrier.
+ *
+ * <p>Postgres is only the durable copy: it is written asynchronously by
+ * {@link AvailabilityPersister} and read back here on startup.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@Slf4j
+public class CarparkAvailabilityStore {
+
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private volatile LotCounts lotCounts = LotCounts.EMPTY;
+
+  /**
+   * Counts of the latest applied snapshot. Hold on to the returned instance to read
+   * several carparks consistently.
+   */
+  public LotCounts current() {
+    return lotCounts;
+  }
+
+  /**
+   * Give an ordinal to every carpark not seen before, seeding its counts from the
+   * entity. Known carparks keep their ordinal and live counts. Always publishes a
+   * new version, since the carparks behind the counts may have changed.
+   */
+  public LotCounts register(Collection<Carpark> carparks) {
+    LotCounts registered;
+    LotCounts current;
+    writeLock.lock();
+    try {
+      current = lotCounts;
+      registered = registerAll(current, carparks);
+      lotCounts = registered;
+    } finally {
+      writeLock.unlock();
+    }
+    log.info("Availability store holds {} carparks ({} new)", registered.size,
+        registered.size - current.size);
+    return registered;
+  }
+
+  private static LotCounts registerAll(LotCounts current, Collection<Carpark> carparks) {
+    Map<String, Integer> ordinals = new HashMap<>(current.ordinals);
+    int size = current.size;
+    int[] totalLots = Arrays.copyOf(current.totalLots, Math.max(size, 16));
+    int[] availableLots = Arrays.copyOf(current.availableLots, totalLots.length);
+
+    for (Carpark carpark : carparks) {
+      if (ordinals.putIfAbsent(carpark.getCarparkNumber(), size) != null) {
+        continue;
+      }
+      if (size == totalLots.length) {
+        totalLots = Arrays.copyOf(totalLots, size * 2);
+        availableLots = Arrays.copyOf(availableLots, size * 2);
+      }
+      totalLots[size] = valueOrZero(carpark.getTotalLots());
+      availableLots[size] = valueOrZero(carpark.getAvailableLots());
+      size++;
+    }
+
+    return new LotCounts(Collections.unmodifiableMap(ordinals),
+        totalLots, availableLots, size, current.version + 1, current.feedTimestamp);
+  }
+
+  /**
+   * Publish the counts of an availability snapshot. Carparks without an ordinal are
+   * ignored. An empty snapshot changes nothing and keeps the current version.
+   */
+  public LotCounts apply(AvailabilitySnapshot availability) {
+    if (availability.size() == 0) {
+      return lotCounts;
+    }
+    writeLock.lock();
+    try {
+      LotCounts applied = applyAll(lotCounts, availability);
+      lotCounts = applied;
+      return applied;
+    } finally {
+      writeLock.unlock();
+    }
+  }
+
+  private static LotCounts applyAll(LotCounts current, AvailabilitySnapshot availability) {
+    int[] totalLots = current.totalLots.clone();
+    int[] availableLots = current.availableLots.clone();
+    for (int i = 0; i < availability.size(); i++) {
+      Integer ordinal = current.ordinals.get(availability.getCarparkNumber(i));
+      if (ordinal != null) {
+        totalLots[ordinal] = availability.getTotalLots(i);
+        availableLots[ordinal] = availability.getAvailableLots(i);
+      }
+    }
+
+    return new LotCounts(current.ordinals, totalLots, availableLots,
+        current.size, current.version + 1, availability.getTimestamp());
+  }
+
+  private static int valueOrZero(Integer value) {
+    return value == null ? 0 : value;
+  }
+
+  /**
+   * Immutable lot counts of one snapshot, indexed by carpark ordinal.
+   */
+  public static final class LotCounts {
+
+    static final LotCounts EMPTY = new LotCounts(Map.of(), new int[0], new int[0], 0, 0, null);
+
+    private final Map<String, Integer> ordinals;
+    final int[] totalLots;
+    final int[] availableLots;
+    private final int size;
+    private final long version;
+    private final String feedTimestamp;
+    private final int availableCount;
+
+    private LotCounts(Map<String, Integer> ordinals, int[] totalLots, int[] availableLots,
+        int size, long version, String feedTimestamp) {
+      this.ordinals = ordinals;
+      this.totalLots = totalLots;
+      this.availableLots = availableLots;
+      this.size = size;
+      this.version = version;
+      this.feedTimestamp = feedTimestamp;
+      int count = 0;
+      for (int i = 0; i < size; i++) {
+        if (availableLots[i] > 0) {
+          count++;
+        }
+      }
+      this.availableCount = count;
+    }
+
+    /**
+     * @return the carpark's ordinal, or -1 when it is not known
+     */
+    public int ordinalOf(String carparkNumber) {
+      if (carparkNumber == null) {
+        return -1;
+      }
+      Integer ordinal = ordinals.get(carparkNumber);
+      return ordinal == null ? -1 : ordinal;
+    }
+
+    public int getTotalLots(int ordinal) {
+      return totalLots[ordinal];
+    }
+
+    public int getAvailableLots(int ordinal) {
+      return availableLots[ordinal];
+    }
+
+    public int size() {
+      return size;
+    }
+
+    /**
+     * Incremented whenever published counts or the set of carparks change.
+     */
+    public long getVersion() {
+      return version;
+    }
+
+    /**
+     * @return feed timestamp of the last applied availability snapshot, or null
+     */
+    public String getFeedTimestamp() {
+      return feedTimestamp;
+    }
+
+    /**
+     * Number of carparks with at least one available lot.
+     */
+    public int getAvailableCount() {
+      return availableCount;
+    }
+  }
+}
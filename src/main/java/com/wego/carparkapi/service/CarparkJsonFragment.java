@@ -0,0 +1,45 @@
+package com.wego.carparkapi.service;
+
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.util.Objects;
+import lombok.Getter;
+
+/**
+ * The static fields of a carpark response, {@code "address":…,"latitude":…,"longitude":…,},
+ * encoded to UTF-8 once and copied into every response that carries the carpark.
+ * See {@link NearestCarparkPageSerializer}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Getter
+public final class CarparkJsonFragment {
+
+  private final String address;
+  private final Double latitude;
+  private final Double longitude;
+  /**
+   * The encoded fields, ending with the comma before {@code distance}.
+   */
+  private final SerializableString json;
+
+  public CarparkJsonFragment(String address, Double latitude, Double longitude, String json) {
+    this.address = address;
+    this.latitude = latitude;
+    this.longitude = longitude;
+    this.json = new SerializedString(json);
+    // Encode now rather than on the first response
+    this.json.asUnquotedUTF8();
+  }
+
+  /**
+   * Whether the fragment still encodes the static fields of {@code entry}. An index
+   * built before the latest import may outlive the fragments of its carparks.
+   */
+  public boolean matches(CarparkSpatialIndex.Entry entry) {
+    return Objects.equals(address, entry.getAddress())
+        && latitude != null && Double.compare(latitude, entry.getLatitude()) == 0
+        && longitude != null && Double.compare(longitude, entry.getLongitude()) == 0;
+  }
+}
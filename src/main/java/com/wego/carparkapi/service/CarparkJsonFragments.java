@@ -0,0 +1,68 @@
+package com.wego.carparkapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wego.carparkapi.model.Carpark;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * A {@link CarparkJsonFragment} for every imported carpark, keyed by carpark
+ * number and rebuilt with the carparks on every CSV import. Fragments are encoded
+ * by a generator of the application's {@link ObjectMapper}, so escaping and number
+ * formatting are exactly those of the responses they end up in.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@Slf4j
+public class CarparkJsonFragments {
+
+  private final ObjectMapper objectMapper;
+  private volatile Map<String, CarparkJsonFragment> fragments = Map.of();
+
+  public CarparkJsonFragments(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  public void rebuild(Collection<Carpark> carparks) {
+    long start = System.nanoTime();
+    Map<String, CarparkJsonFragment> rebuilt = new HashMap<>(carparks.size() * 2);
+    for (Carpark carpark : carparks) {
+      rebuilt.put(carpark.getCarparkNumber(),
+          encode(carpark.getAddress(), carpark.getLatitude(), carpark.getLongitude()));
+    }
+    fragments = rebuilt;
+    log.info("Encoded JSON fragments of {} carparks in {} ms",
+        rebuilt.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * @return the carpark's fragment, or null when it was not imported
+   */
+  public CarparkJsonFragment get(String carparkNumber) {
+    return carparkNumber == null ? null : fragments.get(carparkNumber);
+  }
+
+  CarparkJsonFragment encode(String address, Double latitude, Double longitude) {
+    StringWriter out = new StringWriter(64);
+    try (JsonGenerator gen = objectMapper.createGenerator(out)) {
+      gen.writeStartObject();
+      NearestCarparkPageSerializer.writeStaticFields(gen, address, latitude, longitude);
+      gen.writeEndObject();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    // {"address":…,"longitude":…} becomes "address":…,"longitude":…,
+    String json = out.toString();
+    return new CarparkJsonFragment(address, latitude, longitude,
+        json.substring(1, json.length() - 1) + ',');
+  }
+}
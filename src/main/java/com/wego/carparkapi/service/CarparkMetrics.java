@@ -0,0 +1,122 @@
+package com.wego.carparkapi.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Timers and counters of the nearest-carpark search, the CSV import and the
+ * availability refresh. Stages of one operation share a meter name and are told
+ * apart by a {@code phase} tag; outcomes use an {@code outcome} tag and row counts
+ * a {@code result} tag, as {@link AvailabilityDeltaTracker} does.
+ *
+ * <pre>
+ * carpark.nearest.query{engine}                   ranking, cache misses only
+ * carpark.nearest.mapping{engine}                 mapping a page to DTOs
+ * carpark.import{outcome}                         whole CSV import
+ * carpark.import.phase{phase}                     parse, convert, write, index
+ * carpark.import.rows{result}                     written, unchanged, skipped
+ * carpark.availability.refresh{outcome}           whole availability refresh
+ * carpark.availability.refresh.phase{phase}       fetch, parse, diff, apply
+ * carpark.availability.api.requests{outcome}      upstream call: success, timeout, error
+ * carpark.availability.api.response.size         upstream response bytes
+ * </pre>
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+public class CarparkMetrics {
+
+  private final MeterRegistry meterRegistry;
+  private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+  private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+  private final DistributionSummary apiResponseSize;
+
+  public CarparkMetrics(MeterRegistry meterRegistry) {
+    this.meterRegistry = meterRegistry;
+    this.apiResponseSize = DistributionSummary.builder("carpark.availability.api.response.size")
+        .description("Size of availability API responses")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+  }
+
+  public void recordNearestQuery(String engine, long nanos) {
+    timer("carpark.nearest.query", "engine", engine,
+        "Ranking of nearest carparks on a cache miss", true).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordNearestMapping(String engine, long nanos) {
+    timer("carpark.nearest.mapping", "engine", engine,
+        "Mapping a page of nearest carparks to responses", true).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param outcome {@code changed}, {@code unchanged} or {@code failed}
+   */
+  public void recordImport(String outcome, long nanos) {
+    timer("carpark.import", "outcome", outcome, "CSV imports", false)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordImportPhase(String phase, long nanos) {
+    timer("carpark.import.phase", "phase", phase, "Time spent in each CSV import phase", false)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param result {@code written}, {@code unchanged} or {@code skipped}
+   */
+  public void recordImportRows(String result, long rows) {
+    if (rows > 0) {
+      counter("carpark.import.rows", "result", result, "CSV rows processed by imports")
+          .increment(rows);
+    }
+  }
+
+  /**
+   * @param outcome {@code applied}, {@code skipped}, {@code empty} or {@code failed}
+   */
+  public void recordRefresh(String outcome, long nanos) {
+    timer("carpark.availability.refresh", "outcome", outcome, "Availability refreshes", false)
+        .record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  public void recordRefreshPhase(String phase, long nanos) {
+    timer("carpark.availability.refresh.phase", "phase", phase,
+        "Time spent in each availability refresh phase", false).record(nanos, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * @param outcome {@code success}, {@code timeout} or {@code error}
+   * @param responseBytes bytes received before the call ended
+   */
+  public void recordApiRequest(String outcome, long nanos, long responseBytes) {
+    timer("carpark.availability.api.requests", "outcome", outcome,
+        "Calls to the availability API", true).record(nanos, TimeUnit.NANOSECONDS);
+    if (responseBytes > 0) {
+      apiResponseSize.record(responseBytes);
+    }
+  }
+
+  private Timer timer(String name, String tag, String value, String description,
+      boolean histogram) {
+    return timers.computeIfAbsent(name + ':' + value, key -> Timer.builder(name)
+        .description(description)
+        .tag(tag, value)
+        .publishPercentileHistogram(histogram)
+        .register(meterRegistry));
+  }
+
+  private Counter counter(String name, String tag, String value, String description) {
+    return counters.computeIfAbsent(name + ':' + value, key -> Counter.builder(name)
+        .description(description)
+        .tag(tag, value)
+        .register(meterRegistry));
+  }
+}
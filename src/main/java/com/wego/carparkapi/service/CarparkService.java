@@ -1,31 +1,54 @@
 package com.wego.carparkapi.service;
 
 import com.opencsv.bean.CsvToBeanBuilder;
-import com.wego.carparkapi.dto.CarparkAvailabilityResponseDto;
-import com.wego.carparkapi.dto.CarparkAvailabilityResponseDto.AvailabilityItem;
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
 import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchRequestDto;
+import com.wego.carparkapi.dto.NearestCarparkCursor;
 import com.wego.carparkapi.model.Carpark;
 import com.wego.carparkapi.model.CarparkCsv;
+import com.wego.carparkapi.model.DatasetImport;
+import com.wego.carparkapi.repository.CarparkBulkRepository;
 import com.wego.carparkapi.repository.CarparkRepository;
+import com.wego.carparkapi.repository.DatasetImportRepository;
+import com.wego.carparkapi.repository.NearestCarparkView;
+import com.wego.carparkapi.util.AvailabilityFeedParser;
 import com.wego.carparkapi.util.CoordinateConversionUtility;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.Duration;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
 import org.springframework.web.reactive.function.client.WebClient;
 import reactor.core.publisher.Mono;
 
@@ -39,215 +62,783 @@ import reactor.core.publisher.Mono;
 public class CarparkService {
 
   private final CarparkRepository carparkRepository;
+  private final CarparkBulkRepository carparkBulkRepository;
   private final CoordinateConversionUtility coordinateConversionUtility;
   private final WebClient webClient;
+  private final CarparkSpatialIndex carparkSpatialIndex;
+  private final AvailabilityDeltaTracker availabilityDeltaTracker;
+  private final CarparkAvailabilityStore availabilityStore;
+  private final AvailabilityPersister availabilityPersister;
+  private final NearestCarparkCache nearestCarparkCache;
+  private final NearestCarparkBatchSearch nearestCarparkBatchSearch;
+  private final CarparkStatistics carparkStatistics;
+  private final CarparkMetrics carparkMetrics;
+  private final CarparkJsonFragments carparkJsonFragments;
+  private final DatasetImportRepository datasetImportRepository;
+
+  /**
+   * Key of the CSV dataset in {@code dataset_imports}.
+   */
+  static final String CSV_DATASET = "hdb-carpark-information";
+
+  private static final String ENGINE_SQL = "sql";
+  private static final String ENGINE_MEMORY = "memory";
+
+  /**
+   * Identifies the columns derived from each row besides the projection. It is
+   * hashed with the dataset and every row, so changing it rewrites every carpark
+   * on the next import.
+   */
+  private static final String DERIVED_COLUMNS = "unit-vector";
+
+  /**
+   * Version of how CSV columns are bound by {@link CarparkCsv} and copied onto
+   * {@link Carpark}. It is hashed with the dataset and every row like
+   * {@link #DERIVED_COLUMNS}. Bump it whenever a column is bound, unbound or mapped
+   * differently. Otherwise an unchanged CSV skips the import and the existing rows
+   * keep the old mapping.
+   * <ul>
+   *   <li>2: {@code free_parking} bound to its real header, it was always null</li>
+   * </ul>
+   */
+  static final int CSV_MAPPING_VERSION = 2;
+
+  // Each widening of the sql engine's search box multiplies its radius by this
+  private static final double BOX_GROWTH = 4;
+
+  // Box around every imported carpark, published with the index; null before the first import
+  private volatile BoundingBox carparkExtent;
 
   @Value("${app.carpark.csv.file-path}")
   private String csvFilePath;
 
+  @Value("${app.carpark.csv.batch-size:500}")
+  private int importBatchSize = 500;
+
   @Value("${app.carpark.api.url}")
   private String carparkApiUrl;
 
   @Value("${app.carpark.api.timeout:1000}")
   private int apiTimeout;
 
-  @Transactional(readOnly = true)
-  public List<CarparkResponseDto> findNearestCarparks(Double latitude, Double longitude,
+  /**
+   * Nearest-carpark search engine: {@code sql} ranks in Postgres,
+   * {@code memory} ranks against the in-process spatial index.
+   */
+  @Value("${app.carpark.search.engine:sql}")
+  private String searchEngine;
+
+  /**
+   * Radius of the first box the sql engine searches, widened until the page is complete.
+   */
+  @Value("${app.carpark.search.sql-box-radius-km:2}")
+  private double searchBoxRadiusKm = 2;
+
+  /**
+   * Served from {@link NearestCarparkCache}, so nearby requests for the same page
+   * share one search until the next availability snapshot is applied.
+   */
+  public NearestCarparkPage findNearestCarparks(Double latitude, Double longitude,
       @Min(value = 1, message = "Page must be at least 1") Integer page,
       @Min(value = 1, message = "Per page must be at least 1")
-      @Max(value = 100, message = "Per page must not exceed 100")
+      @Max(value = 1000, message = "Per page must not exceed 1000")
       Integer perPage) {
     log.debug("Finding nearest carparks for location: {}, {}, page: {}, perPage: {}",
         latitude, longitude, page, perPage);
 
-    Pageable pageable = PageRequest.of(page - 1, perPage);
+    return nearestCarparkCache.get(latitude, longitude, page, perPage,
+        (cellLatitude, cellLongitude) -> searchNearestCarparks(cellLatitude, cellLongitude,
+            page, perPage, true));
+  }
+
+  /**
+   * Non-blocking form of {@link #findNearestCarparks(Double, Double, Integer, Integer)}
+   * for the memory engine. A miss is ranked on the calling thread; a request for a
+   * page already being computed gets that search's future instead of waiting on it.
+   */
+  public CompletableFuture<NearestCarparkPage> findNearestCarparksAsync(Double latitude,
+      Double longitude, Integer page, Integer perPage) {
+    return nearestCarparkCache.getAsync(latitude, longitude, page, perPage,
+        (cellLatitude, cellLongitude) -> searchNearestCarparks(cellLatitude, cellLongitude,
+            page, perPage, true));
+  }
+
+  /**
+   * Run the nearest and cursor searches for a synthetic location, so the JIT has
+   * compiled them before the first real request. Bypasses {@link NearestCarparkCache}
+   * and records no search metrics, so warm-up neither fills the cache with synthetic
+   * cells nor shows up in its statistics or the {@code carpark.nearest.*} timers.
+   */
+  public void warmUpNearestCarparks(double latitude, double longitude, int perPage) {
+    searchNearestCarparks(latitude, longitude, 1, perPage, false);
+    findNearestCarparksByCursor(latitude, longitude, null, perPage);
+  }
+
+  /**
+   * Nearest carparks matching {@code filter}. Unfiltered searches take the cached
+   * path of {@link #findNearestCarparks(Double, Double, Integer, Integer)}. Filtered
+   * ones are always answered from the spatial index and its attribute bitmaps, which
+   * narrow the search instead of adding to it, and are not cached.
+   */
+  public NearestCarparkPage findNearestCarparks(Double latitude, Double longitude,
+      Integer page, Integer perPage, CarparkFilter filter) {
+    if (filter.isEmpty()) {
+      return findNearestCarparks(latitude, longitude, page, perPage);
+    }
+    log.debug("Finding nearest carparks for location: {}, {}, page: {}, perPage: {}, filter: {}",
+        latitude, longitude, page, perPage, filter);
+
+    long queryStart = System.nanoTime();
+    int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * perPage);
+    List<CarparkSpatialIndex.Neighbour> neighbours =
+        carparkSpatialIndex.findNearest(latitude, longitude, offset, perPage, filter);
+    long mappingStart = System.nanoTime();
+    carparkMetrics.recordNearestQuery(ENGINE_MEMORY, mappingStart - queryStart);
+
+    NearestCarparkPage result = NearestCarparkPage.of(neighbours, carparkJsonFragments);
+    carparkMetrics.recordNearestMapping(ENGINE_MEMORY, System.nanoTime() - mappingStart);
+    return result;
+  }
+
+  /**
+   * Nearest carparks for every origin, all answered from the in-process spatial
+   * index against one availability snapshot. See {@link NearestCarparkBatchSearch}.
+   */
+  public NearestCarparkBatchDto findNearestCarparksBatch(
+      List<NearestCarparkBatchRequestDto.Origin> origins) {
+    log.debug("Finding nearest carparks for a batch of {} origins", origins.size());
+    return nearestCarparkBatchSearch.search(origins);
+  }
+
+  /**
+   * Non-blocking form of {@link #findNearestCarparksBatch}.
+   */
+  public CompletableFuture<NearestCarparkBatchDto> findNearestCarparksBatchAsync(
+      List<NearestCarparkBatchRequestDto.Origin> origins) {
+    log.debug("Finding nearest carparks for a batch of {} origins", origins.size());
+    return nearestCarparkBatchSearch.searchAsync(origins);
+  }
+
+  /**
+   * Version of the data behind {@link #findNearestCarparks} results. Changes whenever
+   * an availability snapshot is applied or the carparks are re-imported; the sql
+   * engine filters on persisted counts, so for it the version also changes when a
+   * snapshot reaches Postgres.
+   */
+  public String getNearestCarparksVersion() {
+    long version = availabilityStore.current().getVersion();
+    if (isMemoryEngine()) {
+      return Long.toString(version);
+    }
+    return version + "." + availabilityPersister.getWrittenSnapshots();
+  }
+
+  /**
+   * Ranking and mapping are timed separately, per engine, unless {@code timed} is false.
+   */
+  private NearestCarparkPage searchNearestCarparks(double latitude, double longitude,
+      int page, int perPage, boolean timed) {
+    if (isMemoryEngine()) {
+      long queryStart = System.nanoTime();
+      int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * perPage);
+      List<CarparkSpatialIndex.Neighbour> neighbours =
+          carparkSpatialIndex.findNearest(latitude, longitude, offset, perPage);
+      long mappingStart = System.nanoTime();
+      if (timed) {
+        carparkMetrics.recordNearestQuery(ENGINE_MEMORY, mappingStart - queryStart);
+      }
+
+      NearestCarparkPage result = NearestCarparkPage.of(neighbours, carparkJsonFragments);
+      if (timed) {
+        carparkMetrics.recordNearestMapping(ENGINE_MEMORY, System.nanoTime() - mappingStart);
+      }
+      return result;
+    }
+
+    long queryStart = System.nanoTime();
+    int offset = (int) Math.min(Integer.MAX_VALUE, (long) (page - 1) * perPage);
+    double[] unit = CoordinateConversionUtility.toUnitVector(latitude, longitude);
+
+    List<NearestCarparkView> carparks = searchWithinBoxes(latitude, longitude, searchBoxRadiusKm,
+        perPage, box -> carparkRepository.findNearestCarparksWithAvailability(unit[0], unit[1],
+            unit[2], box.getMinLatitude(), box.getMaxLatitude(), box.getMinLongitude(),
+            box.getMaxLongitude(), offset, perPage));
+    long mappingStart = System.nanoTime();
+    if (timed) {
+      carparkMetrics.recordNearestQuery(ENGINE_SQL, mappingStart - queryStart);
+    }
+
+    log.debug("Found {} carparks on page {}", carparks.size(), page);
+
+    CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.current();
+    NearestCarparkPage result = NearestCarparkPage.of(carparks.stream()
+        .map(carpark -> convertToResponseDto(carpark, lotCounts))
+        .collect(Collectors.toList()));
+    if (timed) {
+      carparkMetrics.recordNearestMapping(ENGINE_SQL, System.nanoTime() - mappingStart);
+    }
+    return result;
+  }
+
+  /**
+   * Runs {@code query} on boxes around the position, starting at {@code radiusKm},
+   * until the rows it returns are known to be the nearest: the box holds every
+   * carpark, or the query filled all {@code limit} rows within the box's radius.
+   */
+  private List<NearestCarparkView> searchWithinBoxes(double latitude, double longitude,
+      double radiusKm, int limit, Function<BoundingBox, List<NearestCarparkView>> query) {
+    BoundingBox extent = carparkExtent;
+    BoundingBox box = BoundingBox.around(latitude, longitude, radiusKm);
+    List<NearestCarparkView> carparks;
+    int queries = 0;
+    while (true) {
+      carparks = query.apply(box);
+      queries++;
+      if (box.isUnbounded() || box.contains(extent) || isCompleteWithin(carparks, limit, box)) {
+        break;
+      }
+      box = widen(latitude, longitude, box, extent, carparks.size() < limit);
+    }
+    log.debug("Searched {} boxes for {} carparks", queries, carparks.size());
+    return carparks;
+  }
+
+  /**
+   * The next, larger box to search. A page the box could not fill goes straight to
+   * the first box holding every carpark, which ranks them all: a short page is
+   * usually the last one, and no box beyond that one can add rows. Without an
+   * imported extent, boxes widen until unbounded.
+   */
+  private static BoundingBox widen(double latitude, double longitude, BoundingBox box,
+      BoundingBox extent, boolean partial) {
+    BoundingBox wider = BoundingBox.around(latitude, longitude, box.getRadiusKm() * BOX_GROWTH);
+    while (partial && extent != null && !wider.isUnbounded() && !wider.contains(extent)) {
+      wider = BoundingBox.around(latitude, longitude, wider.getRadiusKm() * BOX_GROWTH);
+    }
+    return wider;
+  }
+
+  /**
+   * A page searched within a box is complete when it is full and its furthest
+   * carpark lies within the box's radius: everything outside the box is further.
+   */
+  private static boolean isCompleteWithin(List<NearestCarparkView> carparks, int perPage,
+      BoundingBox box) {
+    if (carparks.size() < perPage) {
+      return false;
+    }
+    Double furthest = carparks.get(carparks.size() - 1).getDistance();
+    return furthest != null && furthest <= box.getRadiusKm();
+  }
+
+  /**
+   * Keyset-paginated variant of {@link #findNearestCarparks}. Pages are keyed on
+   * (distance, id) of the last carpark returned, so a page never re-ranks earlier
+   * rows and availability changes between requests cannot shift or repeat results.
+   *
+   * @param cursor token from the previous page's {@code next}, or null for the first page
+   */
+  @Transactional(readOnly = true)
+  public CarparkCursorPageDto findNearestCarparksByCursor(Double latitude, Double longitude,
+      String cursor, Integer perPage) {
+    log.debug("Finding nearest carparks for location: {}, {}, cursor: {}, perPage: {}",
+        latitude, longitude, cursor, perPage);
+
+    double afterDistance = -1;
+    long afterId = Long.MIN_VALUE;
+    if (cursor != null && !cursor.isBlank()) {
+      NearestCarparkCursor position = NearestCarparkCursor.decode(cursor);
+      if (!position.isFrom(latitude, longitude)) {
+        throw new IllegalArgumentException("Cursor was issued for a different location");
+      }
+      afterDistance = position.getDistance();
+      afterId = position.getId();
+    }
 
-    Page<Carpark> carparks = carparkRepository.findNearestCarparksWithAvailability(
-        latitude, longitude, pageable);
+    NearestCarparkPage data;
+    NearestCarparkCursor last = null;
+    boolean hasMore;
+
+    if (isMemoryEngine()) {
+      List<CarparkSpatialIndex.Neighbour> neighbours = carparkSpatialIndex.findNearestAfter(
+          latitude, longitude, afterDistance, afterId, perPage + 1);
+      hasMore = neighbours.size() > perPage;
+      List<CarparkSpatialIndex.Neighbour> page =
+          neighbours.subList(0, Math.min(perPage, neighbours.size()));
+      data = NearestCarparkPage.of(page, carparkJsonFragments);
+      if (!page.isEmpty()) {
+        CarparkSpatialIndex.Neighbour neighbour = page.get(page.size() - 1);
+        last = new NearestCarparkCursor(latitude, longitude, neighbour.getDistanceKm(),
+            neighbour.getEntry().getId());
+      }
+    } else {
+      double[] unit = CoordinateConversionUtility.toUnitVector(latitude, longitude);
+      double after = afterDistance;
+      long afterKey = afterId;
+      // Every row lies beyond the cursor, so the first box reaches past it
+      List<NearestCarparkView> rows = searchWithinBoxes(latitude, longitude,
+          Math.max(afterDistance, 0) + searchBoxRadiusKm, perPage + 1,
+          box -> carparkRepository.findNearestCarparksAfter(unit[0], unit[1], unit[2],
+              box.getMinLatitude(), box.getMaxLatitude(), box.getMinLongitude(),
+              box.getMaxLongitude(), after, afterKey, perPage + 1));
+      CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.current();
+      hasMore = rows.size() > perPage;
+      List<CarparkResponseDto> carparks = new ArrayList<>(perPage);
+      for (NearestCarparkView row : rows.subList(0, Math.min(perPage, rows.size()))) {
+        carparks.add(convertToResponseDto(row, lotCounts));
+        last = new NearestCarparkCursor(latitude, longitude, row.getDistance(), row.getId());
+      }
+      data = NearestCarparkPage.of(carparks);
+    }
 
-    log.debug("Found {} carparks on page {} of {}",
-        carparks.getNumberOfElements(), page, carparks.getTotalPages());
+    return CarparkCursorPageDto.builder()
+        .data(data)
+        .next(hasMore && last != null ? last.encode() : null)
+        .build();
+  }
 
-    return carparks.getContent().stream()
-        .map(this::convertToResponseDto)
-        .collect(Collectors.toList());
+  /**
+   * Lot counts come from the availability store; the row's columns are only used
+   * for carparks the store does not know yet.
+   */
+  private CarparkResponseDto convertToResponseDto(NearestCarparkView view,
+      CarparkAvailabilityStore.LotCounts lotCounts) {
+    CarparkResponseDto.CarparkResponseDtoBuilder dto = CarparkResponseDto.builder()
+        .address(view.getAddress())
+        .latitude(view.getLatitude())
+        .longitude(view.getLongitude())
+        .distance(view.getDistance());
+    return withLotCounts(dto, lotCounts, view.getCarparkNumber(),
+        view.getTotalLots(), view.getAvailableLots());
   }
 
-  private CarparkResponseDto convertToResponseDto(Carpark carpark) {
-    return CarparkResponseDto.builder()
-        .address(carpark.getAddress())
-        .latitude(carpark.getLatitude())
-        .longitude(carpark.getLongitude())
-        .totalLots(carpark.getTotalLots())
-        .availableLots(carpark.getAvailableLots())
+  private static CarparkResponseDto withLotCounts(CarparkResponseDto.CarparkResponseDtoBuilder dto,
+      CarparkAvailabilityStore.LotCounts lotCounts, String carparkNumber,
+      Integer storedTotalLots, Integer storedAvailableLots) {
+    int ordinal = lotCounts.ordinalOf(carparkNumber);
+    if (ordinal < 0) {
+      return dto.totalLots(storedTotalLots).availableLots(storedAvailableLots).build();
+    }
+    return dto.totalLots(lotCounts.getTotalLots(ordinal))
+        .availableLots(lotCounts.getAvailableLots(ordinal))
         .build();
   }
 
+  public boolean isMemoryEngine() {
+    return ENGINE_MEMORY.equalsIgnoreCase(searchEngine);
+  }
+
+  /**
+   * Streams the CSV in chunks of {@code app.carpark.csv.batch-size} rows. Each chunk
+   * is converted to WGS84 in one pass and written with a single batched upsert, and
+   * the import logs its throughput and the time spent in each phase.
+   *
+   * <p>The import is incremental. When the content hash of the CSV and projection
+   * parameters matches the last import, nothing is parsed or written. Otherwise
+   * only rows whose per-row hash changed are converted and upserted.
+   *
+   * @return true if the dataset changed since the last import
+   */
   @Transactional
-  public void importCarparkDataFromCsv() {
-    log.info("Starting CSV import from: {}", csvFilePath);
+  public boolean importCarparkDataFromCsv() {
+    return importCarparkDataFromCsv(false);
+  }
 
-    try {
-      ClassPathResource resource = new ClassPathResource(csvFilePath);
+  /**
+   * Import the CSV, with {@code force} ignoring the dataset and row hashes so that
+   * every row is converted and written again, as when the CSV changes entirely.
+   *
+   * @return true if the dataset changed since the last import, always when forced
+   */
+  @Transactional
+  public boolean importCarparkDataFromCsv(boolean force) {
+    log.info("Starting {}CSV import from: {}", force ? "forced " : "", csvFilePath);
 
-      List<CarparkCsv> csvModels = new CsvToBeanBuilder<CarparkCsv>(
-          new InputStreamReader(resource.getInputStream()))
-          .withType(CarparkCsv.class)
-          .withIgnoreLeadingWhiteSpace(true)
-          .build()
-          .parse();
+    long start = System.nanoTime();
+    ImportStats stats = new ImportStats(importBatchSize);
 
-      log.info("Parsed {} records from CSV", csvModels.size());
+    try {
+      String datasetHash = hashDataset(stats.digest, CSV_MAPPING_VERSION);
+      Optional<DatasetImport> previous = force ? Optional.empty()
+          : datasetImportRepository.findById(CSV_DATASET);
+      if (previous.isPresent() && datasetHash.equals(previous.get().getContentHash())) {
+        rebuildIndex();
+        carparkMetrics.recordImport("unchanged", System.nanoTime() - start);
+        log.info("CSV dataset unchanged since {}, import skipped in {} ms",
+            previous.get().getImportedAt(), (System.nanoTime() - start) / 1_000_000);
+        return false;
+      }
 
-      int imported = 0;
-      int errors = 0;
+      Map<String, String> sourceHashes = force ? Map.of()
+          : carparkBulkRepository.findSourceHashes();
 
-      for (CarparkCsv csvModel : csvModels) {
-        try {
-          Optional<Carpark> existingCarpark = carparkRepository.findByCarparkNumber(csvModel.getCarParkNo());
+      try (Reader reader = new InputStreamReader(
+          new ClassPathResource(csvFilePath).getInputStream(), StandardCharsets.UTF_8)) {
 
-          Carpark carpark;
+        Iterator<CarparkCsv> rows = new CsvToBeanBuilder<CarparkCsv>(reader)
+            .withType(CarparkCsv.class)
+            .withIgnoreLeadingWhiteSpace(true)
+            .build()
+            .iterator();
 
-          if (existingCarpark.isPresent()) {
-            carpark = existingCarpark.get();
-            updateCarparkFromCsv(carpark, csvModel);
-          } else {
-            carpark = createCarparkFromCsv(csvModel);
+        List<CarparkCsv> chunk = new ArrayList<>(importBatchSize);
+        while (true) {
+          long parseStart = System.nanoTime();
+          chunk.clear();
+          while (chunk.size() < importBatchSize && rows.hasNext()) {
+            chunk.add(rows.next());
           }
+          stats.parseNanos += System.nanoTime() - parseStart;
 
-          if (carpark != null) {
-            carparkRepository.save(carpark);
-            imported++;
+          if (chunk.isEmpty()) {
+            break;
           }
-
-        } catch (Exception e) {
-          log.error("Error processing carpark {}: {}", csvModel.getCarParkNo(), e.getMessage());
-          errors++;
+          importChunk(chunk, sourceHashes, stats);
         }
       }
 
+      datasetImportRepository.save(DatasetImport.builder()
+          .name(CSV_DATASET)
+          .contentHash(datasetHash)
+          .importedAt(LocalDateTime.now())
+          .build());
+
+      rebuildIndex();
+
+      long elapsedNanos = System.nanoTime() - start;
+      recordImportMetrics(stats, elapsedNanos);
+      log.info("CSV import completed: {} rows, {} written, {} unchanged, {} skipped in {} ms "
+              + "({} rows/s) [parse={} ms, convert={} ms, write={} ms]",
+          stats.rows, stats.written, stats.unchanged, stats.skipped, elapsedNanos / 1_000_000,
+          stats.rows * 1_000_000_000L / Math.max(1, elapsedNanos),
+          stats.parseNanos / 1_000_000, stats.convertNanos / 1_000_000,
+          stats.writeNanos / 1_000_000);
+      return true;
+
     } catch (Exception e) {
+      carparkMetrics.recordImport("failed", System.nanoTime() - start);
       log.error("Error while importing csv file: {}", e.getLocalizedMessage());
       throw new RuntimeException("CSV import failed", e);
     }
   }
 
-  private void updateCarparkFromCsv(Carpark carpark, CarparkCsv csvModel) {
-    carpark.setAddress(csvModel.getAddress());
-    carpark.setCarparkType(csvModel.getCarParkType());
-    carpark.setTypeOfParkingSystem(csvModel.getTypeOfParkingSystem());
-    carpark.setShortTermParking(csvModel.getShortTermParking());
-    carpark.setFreeParking(csvModel.getFreeParking());
-    carpark.setNightParking(csvModel.getNightParking());
-    carpark.setCarparkDecks(parseInteger(csvModel.getCarParkDecks()));
-    carpark.setGantryHeight(parseDouble(csvModel.getGantryHeight()));
-    carpark.setCarparkBasement(csvModel.getCarParkBasement());
+  private void recordImportMetrics(ImportStats stats, long elapsedNanos) {
+    carparkMetrics.recordImportPhase("parse", stats.parseNanos);
+    carparkMetrics.recordImportPhase("convert", stats.convertNanos);
+    carparkMetrics.recordImportPhase("write", stats.writeNanos);
+    carparkMetrics.recordImportRows("written", stats.written);
+    carparkMetrics.recordImportRows("unchanged", stats.unchanged);
+    carparkMetrics.recordImportRows("skipped", stats.skipped);
+    carparkMetrics.recordImport("changed", elapsedNanos);
   }
 
-  private Carpark createCarparkFromCsv(CarparkCsv csvModel) {
-    try {
-      double xCoord = parseDouble(csvModel.getXCoord());
-      double yCoord = parseDouble(csvModel.getYCoord());
-
-      double[] wgs84 = coordinateConversionUtility.convertSvy21ToWgs84(xCoord, yCoord);
+  /**
+   * Reload the carparks table and, once the import commits, publish it to the
+   * in-memory store, spatial index and response fragments. A rolled back import
+   * leaves them serving the previous dataset, which is still what the table holds.
+   * The {@code index} import phase times the reload through the publish.
+   */
+  private void rebuildIndex() {
+    long indexStart = System.nanoTime();
+    List<Carpark> carparks = carparkRepository.findAll();
+
+    afterCommit(() -> {
+      availabilityStore.register(carparks);
+      carparkSpatialIndex.rebuild(carparks);
+      carparkExtent = BoundingBox.enclosing(carparks);
+      carparkJsonFragments.rebuild(carparks);
+      nearestCarparkCache.invalidateAll();
+
+      // New carparks start with zero lots, so the next snapshot must be applied in full
+      availabilityDeltaTracker.reset();
+      carparkStatistics.recordImport(carparks.size(),
+          availabilityStore.current().getAvailableCount());
+
+      long indexNanos = System.nanoTime() - indexStart;
+      carparkMetrics.recordImportPhase("index", indexNanos);
+      log.info("Published {} carparks to the in-memory index in {} ms",
+          carparks.size(), indexNanos / 1_000_000);
+    });
+  }
 
-      if (!coordinateConversionUtility.isValidSingaporeCoordinates(wgs84[0], wgs84[1])) {
-        log.warn("Invalid coordinates for carpark {}: lat={}, lon={}",
-            csvModel.getCarParkNo(), wgs84[0], wgs84[1]);
-        return null;
+  /**
+   * SHA-256 of the raw CSV bytes, the projection parameters, the derived columns
+   * and the CSV mapping version.
+   */
+  String hashDataset(MessageDigest digest, int csvMappingVersion) throws IOException {
+    digest.reset();
+    try (InputStream in = new ClassPathResource(csvFilePath).getInputStream()) {
+      byte[] buffer = new byte[8192];
+      int read;
+      while ((read = in.read(buffer)) != -1) {
+        digest.update(buffer, 0, read);
       }
+    }
+    updateVersions(digest, csvMappingVersion);
+    return HexFormat.of().formatHex(digest.digest());
+  }
 
-      return Carpark.builder()
-          .carparkNumber(csvModel.getCarParkNo())
-          .address(csvModel.getAddress())
-          .xCoord(xCoord)
-          .yCoord(yCoord)
-          .latitude(wgs84[0])
-          .longitude(wgs84[1])
-          .carparkType(csvModel.getCarParkType())
-          .typeOfParkingSystem(csvModel.getTypeOfParkingSystem())
-          .shortTermParking(csvModel.getShortTermParking())
-          .freeParking(csvModel.getFreeParking())
-          .nightParking(csvModel.getNightParking())
-          .carparkDecks(parseInteger(csvModel.getCarParkDecks()))
-          .gantryHeight(parseDouble(csvModel.getGantryHeight()))
-          .carparkBasement(csvModel.getCarParkBasement())
-          .totalLots(0)
-          .availableLots(0)
-          .build();
-    } catch (Exception e) {
-      log.error("Error creating carpark from CSV model {}: {}", csvModel.getCarParkNo(), e.getMessage());
-      return null;
+  /**
+   * SHA-256 of every bound column of a CSV row, the projection parameters, the
+   * derived columns and the CSV mapping version.
+   */
+  static String hashRow(CarparkCsv csvModel, MessageDigest digest, int csvMappingVersion) {
+    digest.reset();
+    for (String field : new String[]{csvModel.getCarParkNo(), csvModel.getAddress(),
+        csvModel.getXCoord(), csvModel.getYCoord(), csvModel.getCarParkType(),
+        csvModel.getTypeOfParkingSystem(), csvModel.getShortTermParking(),
+        csvModel.getFreeParking(), csvModel.getNightParking(), csvModel.getCarParkDecks(),
+        csvModel.getGantryHeight(), csvModel.getCarParkBasement()}) {
+      if (field != null) {
+        digest.update(field.getBytes(StandardCharsets.UTF_8));
+      }
+      digest.update((byte) 0x1f);
     }
+    updateVersions(digest, csvMappingVersion);
+    return HexFormat.of().formatHex(digest.digest());
   }
 
-  @Transactional
-  public void updateCarparkAvailability() {
-    log.info("Fetching carpark availability from API: {}", carparkApiUrl);
+  private static void updateVersions(MessageDigest digest, int csvMappingVersion) {
+    digest.update(CoordinateConversionUtility.PROJECTION_PARAMETERS.getBytes(StandardCharsets.UTF_8));
+    digest.update(DERIVED_COLUMNS.getBytes(StandardCharsets.UTF_8));
+    digest.update(("csv-mapping-" + csvMappingVersion).getBytes(StandardCharsets.UTF_8));
+  }
 
-    try {
-      Mono<CarparkAvailabilityResponseDto> responseMono = webClient
-          .get()
-          .uri(carparkApiUrl)
-          .retrieve()
-          .bodyToMono(CarparkAvailabilityResponseDto.class)
-          .timeout(Duration.ofMillis(apiTimeout))
-          .onErrorResume(TimeoutException.class, ex -> Mono.empty());
-
-      CarparkAvailabilityResponseDto response = responseMono.block();
-
-      if (response != null && response.getItems() != null && !response.getItems().isEmpty()) {
-        processAvailabilityData(response.getItems().get(0));
+  private void importChunk(List<CarparkCsv> chunk, Map<String, String> sourceHashes,
+      ImportStats stats) {
+    long convertStart = System.nanoTime();
+    stats.rows += chunk.size();
+
+    // Drop rows imported before with identical content
+    List<CarparkCsv> changed = new ArrayList<>(chunk.size());
+    List<String> rowHashes = new ArrayList<>(chunk.size());
+    for (CarparkCsv csvModel : chunk) {
+      String rowHash = hashRow(csvModel, stats.digest, CSV_MAPPING_VERSION);
+      if (rowHash.equals(sourceHashes.get(csvModel.getCarParkNo()))) {
+        stats.unchanged++;
       } else {
-        log.warn("No availability data received from API");
+        changed.add(csvModel);
+        rowHashes.add(rowHash);
       }
-
-    } catch (Exception e) {
-      log.error("Failed to fetch carpark availability: {}", e.getMessage(), e);
-      throw new RuntimeException("Failed to update carpark availability", e);
     }
-  }
-
-  private void processAvailabilityData(AvailabilityItem availabilityItem) {
-    LocalDateTime updateTime = LocalDateTime.now();
-    int updated = 0;
-    int notFound = 0;
+    int size = changed.size();
+
+    for (int i = 0; i < size; i++) {
+      CarparkCsv csvModel = changed.get(i);
+      Double xCoord = parseDouble(csvModel.getXCoord());
+      Double yCoord = parseDouble(csvModel.getYCoord());
+      stats.xs[i] = xCoord == null ? Double.NaN : xCoord;
+      stats.ys[i] = yCoord == null ? Double.NaN : yCoord;
+    }
 
-    for (CarparkAvailabilityResponseDto.CarparkData carparkData : availabilityItem.getCarparkData()) {
-      try {
-        Optional<Carpark> carparkOpt = carparkRepository.findByCarparkNumber(carparkData.getCarparkNumber());
+    coordinateConversionUtility.convertSvy21ToWgs84(stats.xs, stats.ys, size,
+        stats.latitudes, stats.longitudes);
+
+    List<Carpark> carparks = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      CarparkCsv csvModel = changed.get(i);
+      if (csvModel.getCarParkNo() == null || csvModel.getCarParkNo().isBlank()) {
+        log.warn("Skipping CSV row without carpark number: {}", csvModel);
+        stats.skipped++;
+      } else if (!coordinateConversionUtility.isValidSingaporeCoordinates(
+          stats.latitudes[i], stats.longitudes[i])) {
+        log.warn("Invalid coordinates for carpark {}: lat={}, lon={}",
+            csvModel.getCarParkNo(), stats.latitudes[i], stats.longitudes[i]);
+        stats.skipped++;
+      } else {
+        Carpark carpark = createCarparkFromCsv(csvModel, stats.xs[i], stats.ys[i],
+            stats.latitudes[i], stats.longitudes[i]);
+        carpark.setSourceHash(rowHashes.get(i));
+        carparks.add(carpark);
+      }
+    }
+    stats.convertNanos += System.nanoTime() - convertStart;
 
-        if (carparkOpt.isPresent()) {
-          Carpark carpark = carparkOpt.get();
+    if (carparks.isEmpty()) {
+      return;
+    }
+    long writeStart = System.nanoTime();
+    stats.written += carparkBulkRepository.upsertCarparks(carparks);
+    stats.writeNanos += System.nanoTime() - writeStart;
+  }
 
-          CarparkAvailabilityResponseDto.CarparkInfo carInfo = carparkData.getCarparkInfo().stream()
-              .filter(info -> "C".equals(info.getLotType()))
-              .findFirst()
-              .orElse(carparkData.getCarparkInfo().get(0));
+  private Carpark createCarparkFromCsv(CarparkCsv csvModel, double xCoord, double yCoord,
+      double latitude, double longitude) {
+    double[] unit = CoordinateConversionUtility.toUnitVector(latitude, longitude);
+    return Carpark.builder()
+        .carparkNumber(csvModel.getCarParkNo())
+        .address(csvModel.getAddress())
+        .xCoord(xCoord)
+        .yCoord(yCoord)
+        .latitude(latitude)
+        .longitude(longitude)
+        .unitX(unit[0])
+        .unitY(unit[1])
+        .unitZ(unit[2])
+        .carparkType(csvModel.getCarParkType())
+        .typeOfParkingSystem(csvModel.getTypeOfParkingSystem())
+        .shortTermParking(csvModel.getShortTermParking())
+        .freeParking(csvModel.getFreeParking())
+        .nightParking(csvModel.getNightParking())
+        .carparkDecks(parseInteger(csvModel.getCarParkDecks()))
+        .gantryHeight(parseDouble(csvModel.getGantryHeight()))
+        .carparkBasement(csvModel.getCarParkBasement())
+        .totalLots(0)
+        .availableLots(0)
+        .build();
+  }
 
-          carpark.setTotalLots(parseInteger(carInfo.getTotalLots()));
-          carpark.setAvailableLots(parseInteger(carInfo.getLotsAvailable()));
-          carpark.setLastUpdated(updateTime);
+  /**
+   * Refresh lot counts from the availability API in separate stages: fetch and
+   * parse the feed, diff it against the last applied counts, then publish the
+   * changes to the availability store. Postgres is written in the background by
+   * {@link AvailabilityPersister}, so no connection is held by the refresh.
+   *
+   * @return timestamp of the feed item, or null when the API returned no data
+   */
+  public String updateCarparkAvailability() {
+    return refreshAvailability().block();
+  }
 
-          carparkRepository.save(carpark);
-          updated++;
+  /**
+   * Non-blocking form of {@link #updateCarparkAvailability()}. No stage waits on a
+   * thread: the feed is parsed as buffers arrive, the changes are published to the
+   * in-memory store, and the Postgres write is handed to the persister's own thread.
+   *
+   * @return emits the feed timestamp, or completes empty when the API returned no data
+   */
+  public Mono<String> refreshAvailability() {
+    return Mono.defer(() -> {
+      log.info("Fetching carpark availability from API: {}", carparkApiUrl);
+      RefreshStats stats = new RefreshStats();
+      long start = System.nanoTime();
+      return fetchAvailability(stats)
+          .onErrorMap(e -> {
+            log.error("Failed to fetch carpark availability: {}", e.getMessage(), e);
+            return new RuntimeException("Failed to update carpark availability", e);
+          })
+          .doOnSuccess(snapshot -> {
+            if (snapshot == null) {
+              log.warn("No availability data received from API");
+            }
+          })
+          .map(snapshot -> {
+            processAvailabilityData(snapshot, stats);
+            return snapshot.getTimestamp();
+          })
+          .doOnSuccess(timestamp -> carparkMetrics.recordRefresh(stats.outcome,
+              System.nanoTime() - start))
+          .doOnError(e -> carparkMetrics.recordRefresh("failed", System.nanoTime() - start));
+    });
+  }
 
-        } else {
-          log.debug("Carpark not found in database: {}", carparkData.getCarparkNumber());
-          notFound++;
-        }
+  /**
+   * Fetch and parse stage. Buffers are parsed as they arrive, so the time spent
+   * inside the parser is tracked separately from the overall fetch. The upstream
+   * call is recorded whether it succeeds, times out or fails.
+   */
+  private Mono<AvailabilitySnapshot> fetchAvailability(RefreshStats stats) {
+    long fetchStart = System.nanoTime();
+    AvailabilityFeedParser parser = new AvailabilityFeedParser();
+
+    return webClient
+        .get()
+        .uri(carparkApiUrl)
+        .retrieve()
+        .bodyToFlux(DataBuffer.class)
+        .doOnNext(buffer -> {
+          stats.responseBytes += buffer.readableByteCount();
+          long parseStart = System.nanoTime();
+          feed(parser, buffer);
+          stats.parseNanos += System.nanoTime() - parseStart;
+        })
+        .then(Mono.fromCallable(() -> {
+          long parseStart = System.nanoTime();
+          AvailabilitySnapshot parsed = parser.finish();
+          stats.parseNanos += System.nanoTime() - parseStart;
+          return parsed;
+        }))
+        .timeout(Duration.ofMillis(apiTimeout))
+        .doOnError(e -> stats.apiOutcome = e instanceof TimeoutException ? "timeout" : "error")
+        .onErrorResume(TimeoutException.class, ex -> Mono.empty())
+        .doOnTerminate(() -> {
+          long elapsed = System.nanoTime() - fetchStart;
+          stats.fetchNanos = elapsed - stats.parseNanos;
+          carparkMetrics.recordApiRequest(stats.apiOutcome, elapsed, stats.responseBytes);
+        });
+  }
 
-      } catch (Exception e) {
-        log.error("Error updating carpark {}: {}", carparkData.getCarparkNumber(), e.getMessage());
+  private static void feed(AvailabilityFeedParser parser, DataBuffer buffer) {
+    try (DataBuffer.ByteBufferIterator iterator = buffer.readableByteBuffers()) {
+      while (iterator.hasNext()) {
+        parser.feed(iterator.next());
       }
+    } finally {
+      DataBufferUtils.release(buffer);
+    }
+  }
+
+  private void processAvailabilityData(AvailabilitySnapshot snapshot, RefreshStats stats) {
+    carparkMetrics.recordRefreshPhase("fetch", stats.fetchNanos);
+    carparkMetrics.recordRefreshPhase("parse", stats.parseNanos);
+    if (!availabilityDeltaTracker.isNewSnapshot(snapshot.getTimestamp())) {
+      stats.outcome = "skipped";
+      log.info("Availability snapshot {} already applied, skipping", snapshot.getTimestamp());
+      carparkStatistics.recordRefresh(availabilityStore.current().getAvailableCount(),
+          Instant.now());
+      return;
     }
 
-    log.info("Availability update completed. Updated: {}, Not found: {}", updated, notFound);
+    long diffStart = System.nanoTime();
+    long generation = availabilityDeltaTracker.getGeneration();
+    AvailabilitySnapshot changes = availabilityDeltaTracker.changedSince(snapshot);
+    stats.diffNanos = System.nanoTime() - diffStart;
+
+    // Apply stage: readers see the new counts as soon as they are published
+    long applyStart = System.nanoTime();
+    CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.apply(changes);
+    nearestCarparkCache.invalidateAll();
+    stats.applyNanos = System.nanoTime() - applyStart;
+    stats.outcome = "applied";
+    carparkMetrics.recordRefreshPhase("diff", stats.diffNanos);
+    carparkMetrics.recordRefreshPhase("apply", stats.applyNanos);
+
+    carparkStatistics.recordRefresh(lotCounts.getAvailableCount(), Instant.now());
+    // The changes only count as applied once they are written, so a failed write is
+    // retried by the next refresh. The sql engine filters on the persisted counts,
+    // so pages cached before the write lands are dropped again once it has
+    availabilityPersister.persist(changes, LocalDateTime.now())
+        .thenRun(() -> {
+          availabilityDeltaTracker.recordApplied(changes, generation);
+          nearestCarparkCache.invalidateAll();
+        });
+
+    log.info("Availability update completed. Changed: {}, Unchanged: {}, Version: {}",
+        changes.size(), snapshot.size() - changes.size(), lotCounts.getVersion());
+    log.info("Availability refresh stages: fetch {} ms, parse {} ms, diff {} ms, apply {} ms",
+        stats.fetchNanos / 1_000_000, stats.parseNanos / 1_000_000,
+        stats.diffNanos / 1_000_000, stats.applyNanos / 1_000_000);
   }
 
-  @Transactional(readOnly = true)
+  /**
+   * Carparks with at least one available lot, as of the last import or refresh.
+   * Served from {@link CarparkStatistics} without touching the database.
+   */
   public long getCarparksWithAvailabilityCount() {
-    return carparkRepository.findAllWithAvailableLots(Pageable.unpaged()).getTotalElements();
+    return carparkStatistics.getCarparksWithAvailability();
+  }
+
+  private void afterCommit(Runnable action) {
+    if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+      action.run();
+      return;
+    }
+    TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+      @Override
+      public void afterCommit() {
+        action.run();
+      }
+    });
   }
 
   private Double parseDouble(String value) {
@@ -261,6 +852,51 @@ public class CarparkService {
     }
   }
 
+  /**
+   * Stage timings, response size and outcomes of one availability refresh.
+   */
+  private static final class RefreshStats {
+
+    String apiOutcome = "success";
+    String outcome = "empty";
+    long responseBytes;
+    long fetchNanos;
+    long parseNanos;
+    long diffNanos;
+    long applyNanos;
+  }
+
+  /**
+   * Row counts, phase timings and reusable coordinate buffers and digest of one CSV import.
+   */
+  private static final class ImportStats {
+
+    final double[] xs;
+    final double[] ys;
+    final double[] latitudes;
+    final double[] longitudes;
+    final MessageDigest digest;
+    long rows;
+    long written;
+    long unchanged;
+    long skipped;
+    long parseNanos;
+    long convertNanos;
+    long writeNanos;
+
+    ImportStats(int batchSize) {
+      xs = new double[batchSize];
+      ys = new double[batchSize];
+      latitudes = new double[batchSize];
+      longitudes = new double[batchSize];
+      try {
+        digest = MessageDigest.getInstance("SHA-256");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e);
+      }
+    }
+  }
+
   private Integer parseInteger(String value) {
     if (value == null || value.trim().isEmpty()) {
       return null;
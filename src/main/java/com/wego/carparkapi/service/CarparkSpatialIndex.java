@@ -0,0 +1,548 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.model.Carpark;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory uniform grid over all carpark coordinates. Answers nearest-k queries
+ * by expanding rings of cells around the query point, so only the carparks close
+ * to the origin are ever ranked. Rebuilt after every CSV import; lot counts are
+ * read from {@link CarparkAvailabilityStore} at query time.
+ *
+ * <p>Attribute filters are answered from the {@link CarparkAttributeIndex} built
+ * with the grid. The matching carparks are a bitmap that the search checks before
+ * computing any distance. When few carparks match, they are ranked directly
+ * without walking the grid. A radius stops the ring expansion as soon as every
+ * unvisited cell lies beyond it.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class CarparkSpatialIndex {
+
+  static final double EARTH_RADIUS_KM = 6371.0;
+
+  @Value("${app.carpark.search.grid-cell-degrees:0.01}")
+  private double cellSizeDegrees = 0.01;
+
+  private final CarparkAvailabilityStore availabilityStore;
+
+  private volatile Snapshot snapshot = Snapshot.EMPTY;
+
+  /**
+   * Replace the whole index with the given carparks. Carparks must already be
+   * registered with the availability store; unregistered ones are left out.
+   */
+  public void rebuild(Collection<Carpark> carparks) {
+    long start = System.nanoTime();
+
+    CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.current();
+    List<Carpark> located = new ArrayList<>(carparks.size());
+    for (Carpark carpark : carparks) {
+      if (carpark.getLatitude() != null && carpark.getLongitude() != null
+          && lotCounts.ordinalOf(carpark.getCarparkNumber()) >= 0) {
+        located.add(carpark);
+      }
+    }
+
+    snapshot = Snapshot.build(located, lotCounts, cellSizeDegrees);
+
+    log.info("Spatial index rebuilt with {} carparks in {} ms",
+        located.size(), (System.nanoTime() - start) / 1_000_000);
+  }
+
+  public int size() {
+    return snapshot.entries.length;
+  }
+
+  /**
+   * Nearest carparks with available lots, ordered by distance then id.
+   *
+   * @param offset number of leading results to skip
+   * @param limit  maximum number of results to return
+   */
+  public List<Neighbour> findNearest(double latitude, double longitude, int offset, int limit) {
+    return findNearest(latitude, longitude, offset, limit, CarparkFilter.NONE);
+  }
+
+  /**
+   * Nearest carparks with available lots that match {@code filter}, ordered by
+   * distance then id.
+   */
+  public List<Neighbour> findNearest(double latitude, double longitude, int offset, int limit,
+      CarparkFilter filter) {
+    return search(snapshot, availabilityStore.current(), latitude, longitude,
+        Double.NEGATIVE_INFINITY, Long.MIN_VALUE, offset, limit, filter);
+  }
+
+  /**
+   * Nearest carparks with available lots that come strictly after
+   * ({@code afterDistanceKm}, {@code afterId}) in (distance, id) order.
+   */
+  public List<Neighbour> findNearestAfter(double latitude, double longitude,
+      double afterDistanceKm, long afterId, int limit) {
+    return search(snapshot, availabilityStore.current(), latitude, longitude,
+        afterDistanceKm, afterId, 0, limit, CarparkFilter.NONE);
+  }
+
+  /**
+   * The current grid together with the current lot counts, so that many queries
+   * can be answered against the same availability snapshot.
+   */
+  public View view() {
+    // The grid is read first: counts published later always cover its ordinals
+    Snapshot current = snapshot;
+    return new View(current, availabilityStore.current());
+  }
+
+  private static List<Neighbour> search(Snapshot current,
+      CarparkAvailabilityStore.LotCounts lotCounts, double latitude, double longitude,
+      double afterDistanceKm, long afterId, int offset, int limit, CarparkFilter filter) {
+    int k = (int) Math.min((long) offset + limit, current.entries.length);
+    if (limit <= 0 || k <= offset) {
+      return Collections.emptyList();
+    }
+    BitSet allowed = current.attributes.match(filter);
+    if (allowed != null && allowed.isEmpty()) {
+      return Collections.emptyList();
+    }
+    double radiusKm = filter.getRadiusKm() == null ? Double.POSITIVE_INFINITY : filter.getRadiusKm();
+
+    BoundedMaxHeap heap = new BoundedMaxHeap(k);
+    if (allowed != null && (long) allowed.cardinality() * allowed.cardinality()
+        <= (long) k * current.entries.length) {
+      // Ranking every match is cheaper than walking cells to find k of them
+      current.scan(allowed, latitude, longitude, afterDistanceKm, afterId, radiusKm,
+          lotCounts.availableLots, heap);
+    } else {
+      current.search(latitude, longitude, afterDistanceKm, afterId, allowed, radiusKm,
+          lotCounts.availableLots, heap);
+    }
+
+    int[] ordinals = heap.sortedOrdinals();
+    double[] distances = heap.sortedDistances();
+
+    List<Neighbour> result = new ArrayList<>(Math.max(0, ordinals.length - offset));
+    for (int i = offset; i < ordinals.length; i++) {
+      int lotOrdinal = current.lotOrdinals[ordinals[i]];
+      result.add(new Neighbour(current.entries[ordinals[i]],
+          lotCounts.getTotalLots(lotOrdinal), lotCounts.getAvailableLots(lotOrdinal), distances[i]));
+    }
+    return result;
+  }
+
+  /**
+   * Grid and lot counts pinned by {@link #view()}. Safe to query from many threads.
+   */
+  public static final class View {
+
+    private final Snapshot snapshot;
+    private final CarparkAvailabilityStore.LotCounts lotCounts;
+
+    private View(Snapshot snapshot, CarparkAvailabilityStore.LotCounts lotCounts) {
+      this.snapshot = snapshot;
+      this.lotCounts = lotCounts;
+    }
+
+    /**
+     * Same as {@link CarparkSpatialIndex#findNearest}, against the pinned counts.
+     */
+    public List<Neighbour> findNearest(double latitude, double longitude, int offset, int limit) {
+      return search(snapshot, lotCounts, latitude, longitude,
+          Double.NEGATIVE_INFINITY, Long.MIN_VALUE, offset, limit, CarparkFilter.NONE);
+    }
+
+    /**
+     * Version of the pinned lot counts.
+     */
+    public long getVersion() {
+      return lotCounts.getVersion();
+    }
+  }
+
+  /**
+   * Great-circle distance in kilometres using the haversine formula.
+   */
+  static double distanceKm(double lat1, double lon1, double lat2, double lon2) {
+    double dLat = Math.toRadians(lat2 - lat1);
+    double dLon = Math.toRadians(lon2 - lon1);
+    double h = Math.sin(dLat / 2) * Math.sin(dLat / 2)
+        + Math.cos(Math.toRadians(lat1)) * Math.cos(Math.toRadians(lat2))
+        * Math.sin(dLon / 2) * Math.sin(dLon / 2);
+    return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, Math.sqrt(h)));
+  }
+
+  /**
+   * Static attributes of an indexed carpark.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Entry {
+
+    private final Long id;
+    private final String carparkNumber;
+    private final String address;
+    private final double latitude;
+    private final double longitude;
+  }
+
+  /**
+   * A query hit: the carpark, its lot counts at query time and its distance.
+   */
+  @Getter
+  @RequiredArgsConstructor
+  public static class Neighbour {
+
+    private final Entry entry;
+    private final int totalLots;
+    private final int availableLots;
+    private final double distanceKm;
+  }
+
+  /**
+   * Immutable view of the grid. Cells are stored in compressed row layout:
+   * the ordinals of cell {@code c} are {@code cellOrdinals[cellStart[c] .. cellStart[c + 1])}.
+   */
+  private static final class Snapshot {
+
+    static final Snapshot EMPTY = new Snapshot(new Entry[0], new int[0], 0, 0, 1, 1, 1,
+        0, new int[]{0, 0}, new int[0], CarparkAttributeIndex.EMPTY);
+
+    final Entry[] entries;
+    // Availability store ordinal of each entry
+    final int[] lotOrdinals;
+    final double minLatitude;
+    final double minLongitude;
+    final double cellSize;
+    final int rows;
+    final int cols;
+    final double maxAbsLatitudeCos;
+    final int[] cellStart;
+    final int[] cellOrdinals;
+    final CarparkAttributeIndex attributes;
+
+    private Snapshot(Entry[] entries, int[] lotOrdinals, double minLatitude,
+        double minLongitude, double cellSize, int rows, int cols, double maxAbsLatitudeCos,
+        int[] cellStart, int[] cellOrdinals, CarparkAttributeIndex attributes) {
+      this.entries = entries;
+      this.lotOrdinals = lotOrdinals;
+      this.minLatitude = minLatitude;
+      this.minLongitude = minLongitude;
+      this.cellSize = cellSize;
+      this.rows = rows;
+      this.cols = cols;
+      this.maxAbsLatitudeCos = maxAbsLatitudeCos;
+      this.cellStart = cellStart;
+      this.cellOrdinals = cellOrdinals;
+      this.attributes = attributes;
+    }
+
+    static Snapshot build(List<Carpark> carparks, CarparkAvailabilityStore.LotCounts lotCounts,
+        double cellSize) {
+      if (carparks.isEmpty()) {
+        return EMPTY;
+      }
+
+      int n = carparks.size();
+      Entry[] entries = new Entry[n];
+      int[] lotOrdinals = new int[n];
+
+      double minLat = Double.MAX_VALUE;
+      double maxLat = -Double.MAX_VALUE;
+      double minLon = Double.MAX_VALUE;
+      double maxLon = -Double.MAX_VALUE;
+
+      for (int i = 0; i < n; i++) {
+        Carpark carpark = carparks.get(i);
+        entries[i] = new Entry(carpark.getId(), carpark.getCarparkNumber(), carpark.getAddress(),
+            carpark.getLatitude(), carpark.getLongitude());
+        lotOrdinals[i] = lotCounts.ordinalOf(carpark.getCarparkNumber());
+
+        minLat = Math.min(minLat, entries[i].latitude);
+        maxLat = Math.max(maxLat, entries[i].latitude);
+        minLon = Math.min(minLon, entries[i].longitude);
+        maxLon = Math.max(maxLon, entries[i].longitude);
+      }
+
+      int rows = (int) ((maxLat - minLat) / cellSize) + 1;
+      int cols = (int) ((maxLon - minLon) / cellSize) + 1;
+      double maxAbsLatitude = Math.max(Math.abs(minLat), Math.abs(maxLat));
+
+      int[] cellOf = new int[n];
+      int[] cellStart = new int[rows * cols + 1];
+      for (int i = 0; i < n; i++) {
+        int row = Math.min(rows - 1, (int) ((entries[i].latitude - minLat) / cellSize));
+        int col = Math.min(cols - 1, (int) ((entries[i].longitude - minLon) / cellSize));
+        cellOf[i] = row * cols + col;
+        cellStart[cellOf[i] + 1]++;
+      }
+      for (int c = 0; c < rows * cols; c++) {
+        cellStart[c + 1] += cellStart[c];
+      }
+      int[] fill = Arrays.copyOf(cellStart, rows * cols);
+      int[] cellOrdinals = new int[n];
+      for (int i = 0; i < n; i++) {
+        cellOrdinals[fill[cellOf[i]]++] = i;
+      }
+
+      return new Snapshot(entries, lotOrdinals, minLat, minLon, cellSize, rows, cols,
+          Math.cos(Math.toRadians(maxAbsLatitude)), cellStart, cellOrdinals,
+          new CarparkAttributeIndex(carparks));
+    }
+
+    /**
+     * Ring search outwards from the query cell.
+     *
+     * @param allowed entries that may be returned, or null for all
+     */
+    void search(double latitude, double longitude, double afterDistance, long afterId,
+        BitSet allowed, double radiusKm, int[] availableLots, BoundedMaxHeap heap) {
+      if (entries.length == 0) {
+        return;
+      }
+      int centreRow = clamp((int) Math.floor((latitude - minLatitude) / cellSize), rows);
+      int centreCol = clamp((int) Math.floor((longitude - minLongitude) / cellSize), cols);
+      int maxRing = Math.max(rows, cols);
+      // A degree of longitude is shortest at whichever of the origin and the
+      // carparks lies furthest from the equator
+      double longitudeCos = Math.min(Math.cos(Math.toRadians(latitude)), maxAbsLatitudeCos);
+
+      for (int ring = 0; ring <= maxRing; ring++) {
+        int top = centreRow - ring;
+        int bottom = centreRow + ring;
+        int left = centreCol - ring;
+        int right = centreCol + ring;
+
+        for (int row = Math.max(0, top); row <= Math.min(rows - 1, bottom); row++) {
+          boolean edgeRow = row == top || row == bottom;
+          int step = edgeRow ? 1 : right - left;
+          for (int col = left; col <= right; col += Math.max(1, step)) {
+            if (col >= 0 && col < cols) {
+              scanCell(row * cols + col, latitude, longitude, afterDistance, afterId,
+                  allowed, radiusKm, availableLots, heap);
+            }
+          }
+        }
+
+        double bound = unvisitedLowerBoundKm(latitude, longitude, longitudeCos,
+            top, bottom, left, right);
+        if (bound == Double.POSITIVE_INFINITY || bound > radiusKm
+            || (heap.isFull() && heap.maxDistance() <= bound)) {
+          return;
+        }
+      }
+    }
+
+    /**
+     * Rank every allowed entry, ignoring the grid.
+     */
+    void scan(BitSet allowed, double latitude, double longitude, double afterDistance,
+        long afterId, double radiusKm, int[] availableLots, BoundedMaxHeap heap) {
+      for (int ordinal = allowed.nextSetBit(0); ordinal >= 0;
+          ordinal = allowed.nextSetBit(ordinal + 1)) {
+        offer(ordinal, latitude, longitude, afterDistance, afterId, radiusKm, availableLots, heap);
+      }
+    }
+
+    private void scanCell(int cell, double latitude, double longitude, double afterDistance,
+        long afterId, BitSet allowed, double radiusKm, int[] availableLots, BoundedMaxHeap heap) {
+      for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+        int ordinal = cellOrdinals[i];
+        if (allowed == null || allowed.get(ordinal)) {
+          offer(ordinal, latitude, longitude, afterDistance, afterId, radiusKm, availableLots,
+              heap);
+        }
+      }
+    }
+
+    private void offer(int ordinal, double latitude, double longitude, double afterDistance,
+        long afterId, double radiusKm, int[] availableLots, BoundedMaxHeap heap) {
+      if (availableLots[lotOrdinals[ordinal]] <= 0) {
+        return;
+      }
+      Entry entry = entries[ordinal];
+      double distance = distanceKm(latitude, longitude, entry.latitude, entry.longitude);
+      long id = entry.id == null ? ordinal : entry.id;
+      if (distance <= radiusKm && BoundedMaxHeap.less(afterDistance, afterId, distance, id)) {
+        heap.offer(distance, id, ordinal);
+      }
+    }
+
+    /**
+     * Smallest possible distance from the query point to any carpark outside
+     * the visited block of cells, or infinity when the block covers the grid.
+     */
+    private double unvisitedLowerBoundKm(double latitude, double longitude, double longitudeCos,
+        int top, int bottom, int left, int right) {
+      double bound = Double.POSITIVE_INFINITY;
+      if (top > 0) {
+        double edge = minLatitude + top * cellSize;
+        bound = Math.min(bound, latitudeBoundKm(latitude - edge));
+      }
+      if (bottom < rows - 1) {
+        double edge = minLatitude + (bottom + 1) * cellSize;
+        bound = Math.min(bound, latitudeBoundKm(edge - latitude));
+      }
+      if (left > 0) {
+        double edge = minLongitude + left * cellSize;
+        bound = Math.min(bound, longitudeBoundKm(longitude - edge, longitudeCos));
+      }
+      if (right < cols - 1) {
+        double edge = minLongitude + (right + 1) * cellSize;
+        bound = Math.min(bound, longitudeBoundKm(edge - longitude, longitudeCos));
+      }
+      return bound;
+    }
+
+    private static double latitudeBoundKm(double deltaDegrees) {
+      return deltaDegrees <= 0 ? 0 : EARTH_RADIUS_KM * Math.toRadians(deltaDegrees);
+    }
+
+    private static double longitudeBoundKm(double deltaDegrees, double longitudeCos) {
+      if (deltaDegrees <= 0) {
+        return 0;
+      }
+      double s = longitudeCos * Math.sin(Math.toRadians(deltaDegrees) / 2);
+      return 2 * EARTH_RADIUS_KM * Math.asin(Math.min(1.0, s));
+    }
+
+    private static int clamp(int value, int size) {
+      return Math.max(0, Math.min(size - 1, value));
+    }
+  }
+
+  /**
+   * Keeps the k smallest (distance, id) pairs seen so far.
+   */
+  static final class BoundedMaxHeap {
+
+    private final double[] distances;
+    private final long[] ids;
+    private final int[] ordinals;
+    private int size;
+    private boolean sorted;
+
+    BoundedMaxHeap(int capacity) {
+      distances = new double[capacity];
+      ids = new long[capacity];
+      ordinals = new int[capacity];
+    }
+
+    boolean isFull() {
+      return size == distances.length;
+    }
+
+    double maxDistance() {
+      return distances[0];
+    }
+
+    void offer(double distance, long id, int ordinal) {
+      if (distances.length == 0) {
+        return;
+      }
+      if (size < distances.length) {
+        set(size, distance, id, ordinal);
+        siftUp(size++);
+      } else if (less(distance, id, distances[0], ids[0])) {
+        set(0, distance, id, ordinal);
+        siftDown(0);
+      }
+    }
+
+    int[] sortedOrdinals() {
+      sort();
+      return Arrays.copyOf(ordinals, size);
+    }
+
+    double[] sortedDistances() {
+      sort();
+      return Arrays.copyOf(distances, size);
+    }
+
+    /**
+     * Heap-sort in place into ascending order. Once sorted the heap must not be
+     * offered further values.
+     */
+    private void sort() {
+      if (sorted) {
+        return;
+      }
+      int heapSize = size;
+      while (heapSize > 1) {
+        swap(0, --heapSize);
+        siftDown(0, heapSize);
+      }
+      sorted = true;
+    }
+
+    private void siftUp(int i) {
+      while (i > 0) {
+        int parent = (i - 1) / 2;
+        if (!less(distances[parent], ids[parent], distances[i], ids[i])) {
+          return;
+        }
+        swap(i, parent);
+        i = parent;
+      }
+    }
+
+    private void siftDown(int i) {
+      siftDown(i, size);
+    }
+
+    private void siftDown(int i, int heapSize) {
+      while (true) {
+        int largest = i;
+        int left = 2 * i + 1;
+        int right = left + 1;
+        if (left < heapSize && less(distances[largest], ids[largest], distances[left], ids[left])) {
+          largest = left;
+        }
+        if (right < heapSize && less(distances[largest], ids[largest], distances[right], ids[right])) {
+          largest = right;
+        }
+        if (largest == i) {
+          return;
+        }
+        swap(i, largest);
+        i = largest;
+      }
+    }
+
+    static boolean less(double d1, long id1, double d2, long id2) {
+      return d1 < d2 || (d1 == d2 && id1 < id2);
+    }
+
+    private void set(int i, double distance, long id, int ordinal) {
+      distances[i] = distance;
+      ids[i] = id;
+      ordinals[i] = ordinal;
+    }
+
+    private void swap(int a, int b) {
+      double d = distances[a];
+      distances[a] = distances[b];
+      distances[b] = d;
+      long id = ids[a];
+      ids[a] = ids[b];
+      ids[b] = id;
+      int o = ordinals[a];
+      ordinals[a] = ordinals[b];
+      ordinals[b] = o;
+    }
+  }
+}
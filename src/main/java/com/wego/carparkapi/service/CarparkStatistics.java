@@ -0,0 +1,81 @@
+package com.wego.carparkapi.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import org.springframework.stereotype.Component;
+
+/**
+ * Counters maintained as a side effect of CSV imports and availability refreshes,
+ * so that health probes and metrics scrapes never have to query the carparks table.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+public class CarparkStatistics {
+
+  private volatile long carparksLoaded;
+  private volatile long carparksWithAvailability;
+  private volatile Instant lastRefreshAt;
+
+  public CarparkStatistics(MeterRegistry meterRegistry) {
+    Gauge.builder("carpark.carparks.loaded", this, CarparkStatistics::getCarparksLoaded)
+        .description("Carparks loaded from the CSV dataset")
+        .register(meterRegistry);
+    Gauge.builder("carpark.carparks.available", this,
+            CarparkStatistics::getCarparksWithAvailability)
+        .description("Carparks with at least one available lot")
+        .register(meterRegistry);
+    Gauge.builder("carpark.availability.refresh.age", this, CarparkStatistics::refreshAgeSeconds)
+        .description("Time since the last successful availability refresh")
+        .baseUnit("seconds")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Record the outcome of a CSV import.
+   */
+  public void recordImport(long loaded, long withAvailability) {
+    this.carparksLoaded = loaded;
+    this.carparksWithAvailability = withAvailability;
+  }
+
+  /**
+   * Record a successful availability refresh.
+   */
+  public void recordRefresh(long withAvailability, Instant refreshedAt) {
+    this.carparksWithAvailability = withAvailability;
+    this.lastRefreshAt = refreshedAt;
+  }
+
+  public long getCarparksLoaded() {
+    return carparksLoaded;
+  }
+
+  public long getCarparksWithAvailability() {
+    return carparksWithAvailability;
+  }
+
+  /**
+   * @return time of the last successful availability refresh, or null before the first one
+   */
+  public Instant getLastRefreshAt() {
+    return lastRefreshAt;
+  }
+
+  /**
+   * @return time elapsed since the last successful refresh, or null before the first one
+   */
+  public Duration getLastRefreshAge() {
+    Instant refreshedAt = lastRefreshAt;
+    return refreshedAt == null ? null : Duration.between(refreshedAt, Instant.now());
+  }
+
+  private double refreshAgeSeconds() {
+    Duration age = getLastRefreshAge();
+    return age == null ? Double.NaN : age.toMillis() / (double) TimeUnit.SECONDS.toMillis(1);
+  }
+}
@@ -0,0 +1,133 @@
+package com.wego.carparkapi.service;
+
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchRequestDto;
+import jakarta.annotation.PreDestroy;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Answers many nearest-carpark origins in one call. Every origin is ranked against
+ * one {@link CarparkSpatialIndex.View}, so all results reflect the same availability
+ * snapshot whichever search engine serves single requests. Larger batches are
+ * spread over a dedicated fork-join pool of {@code app.carpark.batch.parallelism}
+ * threads, which bounds the cores a batch can take from regular requests.
+ *
+ * <p>A batch is rejected with {@link IllegalArgumentException} when it has more
+ * than {@code max-origins} origins, an origin asks for more than {@code max-k}
+ * carparks, or the requested carparks add up to more than {@code max-results}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@Slf4j
+public class NearestCarparkBatchSearch {
+
+  // Below this many origins handing the batch to the pool costs more than it saves
+  private static final int PARALLEL_THRESHOLD = 8;
+
+  private final CarparkSpatialIndex carparkSpatialIndex;
+  private final CarparkJsonFragments carparkJsonFragments;
+  private final ForkJoinPool pool;
+  private final int maxOrigins;
+  private final int maxK;
+  private final int maxResults;
+
+  public NearestCarparkBatchSearch(CarparkSpatialIndex carparkSpatialIndex,
+      CarparkJsonFragments carparkJsonFragments,
+      @Value("${app.carpark.batch.parallelism:0}") int parallelism,
+      @Value("${app.carpark.batch.max-origins:100}") int maxOrigins,
+      @Value("${app.carpark.batch.max-k:50}") int maxK,
+      @Value("${app.carpark.batch.max-results:2000}") int maxResults) {
+    this.carparkSpatialIndex = carparkSpatialIndex;
+    this.carparkJsonFragments = carparkJsonFragments;
+    this.pool = new ForkJoinPool(parallelism > 0
+        ? parallelism : Runtime.getRuntime().availableProcessors());
+    this.maxOrigins = maxOrigins;
+    this.maxK = maxK;
+    this.maxResults = maxResults;
+  }
+
+  public NearestCarparkBatchDto search(List<NearestCarparkBatchRequestDto.Origin> origins) {
+    try {
+      return searchAsync(origins).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Non-blocking form of {@link #search}. Batches below the parallel threshold are
+   * ranked on the calling thread and returned completed; larger ones complete on
+   * the pool's workers, so the caller never waits for them.
+   */
+  public CompletableFuture<NearestCarparkBatchDto> searchAsync(
+      List<NearestCarparkBatchRequestDto.Origin> origins) {
+    validate(origins);
+
+    CarparkSpatialIndex.View view = carparkSpatialIndex.view();
+    if (origins.size() < PARALLEL_THRESHOLD || pool.getParallelism() == 1) {
+      return CompletableFuture.completedFuture(toBatch(view, origins.stream()
+          .map(origin -> searchOrigin(view, origin))
+          .collect(Collectors.toList())));
+    }
+    // A parallel stream started on a worker of the pool stays on the pool
+    return CompletableFuture.supplyAsync(() -> toBatch(view, origins.parallelStream()
+        .map(origin -> searchOrigin(view, origin))
+        .collect(Collectors.toList())), pool);
+  }
+
+  private static NearestCarparkBatchDto toBatch(CarparkSpatialIndex.View view,
+      List<NearestCarparkBatchDto.Result> results) {
+    return NearestCarparkBatchDto.builder()
+        .version(view.getVersion())
+        .results(results)
+        .build();
+  }
+
+  private void validate(List<NearestCarparkBatchRequestDto.Origin> origins) {
+    if (origins.size() > maxOrigins) {
+      throw new IllegalArgumentException(String.format(
+          "A batch may have at most %d origins, got %d", maxOrigins, origins.size()));
+    }
+    long requested = 0;
+    for (NearestCarparkBatchRequestDto.Origin origin : origins) {
+      if (origin.getK() > maxK) {
+        throw new IllegalArgumentException(String.format(
+            "k must not exceed %d, got %d", maxK, origin.getK()));
+      }
+      requested += origin.getK();
+    }
+    if (requested > maxResults) {
+      throw new IllegalArgumentException(String.format(
+          "A batch may request at most %d carparks in total, got %d", maxResults, requested));
+    }
+  }
+
+  private NearestCarparkBatchDto.Result searchOrigin(CarparkSpatialIndex.View view,
+      NearestCarparkBatchRequestDto.Origin origin) {
+    NearestCarparkPage data = NearestCarparkPage.of(
+        view.findNearest(origin.getLatitude(), origin.getLongitude(), 0, origin.getK()),
+        carparkJsonFragments);
+    return NearestCarparkBatchDto.Result.builder()
+        .latitude(origin.getLatitude())
+        .longitude(origin.getLongitude())
+        .data(data)
+        .build();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    pool.shutdown();
+  }
+}
@@ -0,0 +1,139 @@
+package com.wego.carparkapi.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded cache of {@code /carparks/nearest} pages. Coordinates are snapped to the
+ * centre of a square cell, so requests that differ only by a few metres share one
+ * entry, and the page is computed for the cell centre rather than for whichever
+ * request happened to miss first.
+ *
+ * <p>Keys carry the availability store version (the epoch) they were computed
+ * against, so a page computed before a snapshot was applied is never served after
+ * it. Entries of old epochs are dropped wholesale via {@link #invalidateAll()}.
+ * Concurrent misses for the same key run the search once; the other callers wait
+ * for its result. The search runs on the calling thread after a pending entry has
+ * been published, not inside the map's compute, so no monitor is held while it
+ * blocks on JDBC and virtual threads are never pinned to their carrier.
+ *
+ * <p>Hit, miss, eviction and load-time metrics are published as {@code cache.*}
+ * with tag {@code cache=carpark.nearest}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@Slf4j
+public class NearestCarparkCache {
+
+  static final String CACHE_NAME = "carpark.nearest";
+
+  private final CarparkAvailabilityStore availabilityStore;
+  private final AsyncCache<Key, NearestCarparkPage> cache;
+  private final double cellDegrees;
+  private final boolean enabled;
+
+  public NearestCarparkCache(CarparkAvailabilityStore availabilityStore,
+      MeterRegistry meterRegistry,
+      @Value("${app.carpark.cache.nearest.enabled:true}") boolean enabled,
+      @Value("${app.carpark.cache.nearest.maximum-size:10000}") long maximumSize,
+      @Value("${app.carpark.cache.nearest.cell-degrees:0.0001}") double cellDegrees) {
+    if (cellDegrees <= 0) {
+      throw new IllegalArgumentException("app.carpark.cache.nearest.cell-degrees must be positive");
+    }
+    this.availabilityStore = availabilityStore;
+    this.enabled = enabled;
+    this.cellDegrees = cellDegrees;
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maximumSize)
+        .recordStats()
+        .buildAsync();
+    CaffeineCacheMetrics.monitor(meterRegistry, cache, CACHE_NAME);
+    Gauge.builder("carpark.nearest.cache.hit.ratio", cache, c -> c.synchronous().stats().hitRate())
+        .description("Share of nearest-carpark lookups served from the cache")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Computes one page of nearest carparks.
+   */
+  @FunctionalInterface
+  public interface Search {
+
+    NearestCarparkPage find(double latitude, double longitude);
+  }
+
+  /**
+   * The cached page for the cell containing (latitude, longitude), running
+   * {@code search} at the cell centre on a miss.
+   */
+  public NearestCarparkPage get(double latitude, double longitude, int page, int perPage,
+      Search search) {
+    try {
+      return getAsync(latitude, longitude, page, perPage, search).join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Non-blocking form of {@link #get}. A miss still runs {@code search} on the
+   * calling thread, but a request that finds the same miss in flight gets its
+   * pending future rather than waiting for it.
+   */
+  public CompletableFuture<NearestCarparkPage> getAsync(double latitude, double longitude,
+      int page, int perPage, Search search) {
+    if (!enabled) {
+      try {
+        return CompletableFuture.completedFuture(search.find(latitude, longitude));
+      } catch (RuntimeException | Error e) {
+        return CompletableFuture.failedFuture(e);
+      }
+    }
+    long latitudeCell = Math.round(latitude / cellDegrees);
+    long longitudeCell = Math.round(longitude / cellDegrees);
+    Key key = new Key(latitudeCell, longitudeCell, page, perPage,
+        availabilityStore.current().getVersion());
+    CompletableFuture<NearestCarparkPage> pending = new CompletableFuture<>();
+    CompletableFuture<NearestCarparkPage> entry = cache.get(key, (k, executor) -> pending);
+    if (entry == pending) {
+      try {
+        pending.complete(search.find(latitudeCell * cellDegrees, longitudeCell * cellDegrees));
+      } catch (RuntimeException | Error e) {
+        // a failed entry is removed by the cache, so the next request searches again
+        pending.completeExceptionally(e);
+      }
+    }
+    return entry;
+  }
+
+  /**
+   * Drop every entry. Called whenever a new availability snapshot is applied.
+   */
+  public void invalidateAll() {
+    cache.synchronous().invalidateAll();
+  }
+
+  long size() {
+    cache.synchronous().cleanUp();
+    return cache.synchronous().estimatedSize();
+  }
+
+  private record Key(long latitudeCell, long longitudeCell, int page, int perPage, long epoch) {
+  }
+}
@@ -0,0 +1,100 @@
+package com.wego.carparkapi.service;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import java.util.AbstractList;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * One page of nearest carparks, as returned by {@code /carparks/nearest} and inside
+ * batch and cursor responses. A page ranked by the memory engine keeps the
+ * {@link CarparkSpatialIndex.Neighbour}s the index returned together with each
+ * carpark's {@link CarparkJsonFragment}, and {@link NearestCarparkPageSerializer}
+ * writes the response straight from them, so no {@link CarparkResponseDto} is
+ * built to be serialised. Read as a list, it maps a neighbour to a new DTO on every
+ * {@link #get(int)}. Pages of the sql engine hold their DTOs.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@JsonSerialize(using = NearestCarparkPageSerializer.class)
+public final class NearestCarparkPage extends AbstractList<CarparkResponseDto>
+    implements RandomAccess {
+
+  private static final NearestCarparkPage EMPTY = new NearestCarparkPage(null, null, List.of());
+
+  private final List<CarparkSpatialIndex.Neighbour> neighbours;
+  // Fragment of each neighbour, null where it has none or no longer matches the index
+  private final CarparkJsonFragment[] fragments;
+  private final List<CarparkResponseDto> carparks;
+
+  private NearestCarparkPage(List<CarparkSpatialIndex.Neighbour> neighbours,
+      CarparkJsonFragment[] fragments, List<CarparkResponseDto> carparks) {
+    this.neighbours = neighbours;
+    this.fragments = fragments;
+    this.carparks = carparks;
+  }
+
+  /**
+   * A page of index hits, in rank order.
+   */
+  static NearestCarparkPage of(List<CarparkSpatialIndex.Neighbour> neighbours,
+      CarparkJsonFragments carparkJsonFragments) {
+    if (neighbours.isEmpty()) {
+      return EMPTY;
+    }
+    CarparkJsonFragment[] fragments = new CarparkJsonFragment[neighbours.size()];
+    for (int i = 0; i < fragments.length; i++) {
+      CarparkSpatialIndex.Entry entry = neighbours.get(i).getEntry();
+      CarparkJsonFragment fragment = carparkJsonFragments.get(entry.getCarparkNumber());
+      fragments[i] = fragment != null && fragment.matches(entry) ? fragment : null;
+    }
+    return new NearestCarparkPage(neighbours, fragments, null);
+  }
+
+  /**
+   * A page of already mapped carparks, in rank order.
+   */
+  public static NearestCarparkPage of(List<CarparkResponseDto> carparks) {
+    return carparks.isEmpty() ? EMPTY : new NearestCarparkPage(null, null, List.copyOf(carparks));
+  }
+
+  @Override
+  public CarparkResponseDto get(int index) {
+    return carparks != null ? carparks.get(index) : toResponseDto(neighbours.get(index));
+  }
+
+  /**
+   * The response for an index hit, as a page of them is read.
+   */
+  static CarparkResponseDto toResponseDto(CarparkSpatialIndex.Neighbour neighbour) {
+    return CarparkResponseDto.builder()
+        .address(neighbour.getEntry().getAddress())
+        .latitude(neighbour.getEntry().getLatitude())
+        .longitude(neighbour.getEntry().getLongitude())
+        .distance(neighbour.getDistanceKm())
+        .totalLots(neighbour.getTotalLots())
+        .availableLots(neighbour.getAvailableLots())
+        .build();
+  }
+
+  @Override
+  public int size() {
+    return carparks != null ? carparks.size() : neighbours.size();
+  }
+
+  /**
+   * @return the index hits, or null for a page of mapped carparks
+   */
+  List<CarparkSpatialIndex.Neighbour> getNeighbours() {
+    return neighbours;
+  }
+
+  /**
+   * @return the fragment to write for neighbour {@code index}, or null to encode its fields
+   */
+  CarparkJsonFragment getFragment(int index) {
+    return fragments[index];
+  }
+}
@@ -0,0 +1,134 @@
+package com.wego.carparkapi.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Writes a {@link NearestCarparkPage} as the JSON array of its carparks, without
+ * reflection. Index hits are written straight from the neighbour: the pre-encoded
+ * bytes of its {@link CarparkJsonFragment} are copied into the generator's buffer
+ * and only the distance and lot counts are encoded. Hits without a fragment, and
+ * every hit when pretty printing, have each field encoded in turn, as do mapped
+ * carparks. Either way the output is byte for byte what Jackson's bean serializer
+ * writes for a list of {@link CarparkResponseDto}, nulls included.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+public class NearestCarparkPageSerializer extends StdSerializer<NearestCarparkPage> {
+
+  private static final SerializableString ADDRESS = new SerializedString("address");
+  private static final SerializableString LATITUDE = new SerializedString("latitude");
+  private static final SerializableString LONGITUDE = new SerializedString("longitude");
+  private static final SerializableString TOTAL_LOTS = new SerializedString("total_lots");
+  private static final SerializableString AVAILABLE_LOTS = new SerializedString("available_lots");
+  private static final SerializableString DISTANCE = new SerializedString("distance");
+
+  public NearestCarparkPageSerializer() {
+    super(NearestCarparkPage.class);
+  }
+
+  @Override
+  public boolean isEmpty(SerializerProvider provider, NearestCarparkPage page) {
+    return page.isEmpty();
+  }
+
+  @Override
+  public void serialize(NearestCarparkPage page, JsonGenerator gen, SerializerProvider provider)
+      throws IOException {
+    int size = page.size();
+    gen.writeStartArray(page, size);
+    List<CarparkSpatialIndex.Neighbour> neighbours = page.getNeighbours();
+    if (neighbours == null) {
+      for (int i = 0; i < size; i++) {
+        writeCarpark(gen, page.get(i));
+      }
+    } else {
+      boolean raw = gen.getPrettyPrinter() == null;
+      for (int i = 0; i < size; i++) {
+        writeNeighbour(gen, neighbours.get(i), raw ? page.getFragment(i) : null);
+      }
+    }
+    gen.writeEndArray();
+  }
+
+  private static void writeNeighbour(JsonGenerator gen, CarparkSpatialIndex.Neighbour neighbour,
+      CarparkJsonFragment fragment) throws IOException {
+    gen.writeStartObject();
+    if (fragment != null) {
+      // The generator does not see these fields, so distance is written as the first one
+      gen.writeRaw(fragment.getJson());
+    } else {
+      CarparkSpatialIndex.Entry entry = neighbour.getEntry();
+      writeAddress(gen, entry.getAddress());
+      gen.writeFieldName(LATITUDE);
+      gen.writeNumber(entry.getLatitude());
+      gen.writeFieldName(LONGITUDE);
+      gen.writeNumber(entry.getLongitude());
+    }
+    // The bean serializer's order: renamed properties follow the others
+    gen.writeFieldName(DISTANCE);
+    gen.writeNumber(neighbour.getDistanceKm());
+    gen.writeFieldName(TOTAL_LOTS);
+    gen.writeNumber(neighbour.getTotalLots());
+    gen.writeFieldName(AVAILABLE_LOTS);
+    gen.writeNumber(neighbour.getAvailableLots());
+    gen.writeEndObject();
+  }
+
+  private static void writeCarpark(JsonGenerator gen, CarparkResponseDto carpark)
+      throws IOException {
+    gen.writeStartObject(carpark);
+    writeStaticFields(gen, carpark.getAddress(), carpark.getLatitude(), carpark.getLongitude());
+    gen.writeFieldName(DISTANCE);
+    writeNumber(gen, carpark.getDistance());
+    gen.writeFieldName(TOTAL_LOTS);
+    writeNumber(gen, carpark.getTotalLots());
+    gen.writeFieldName(AVAILABLE_LOTS);
+    writeNumber(gen, carpark.getAvailableLots());
+    gen.writeEndObject();
+  }
+
+  /**
+   * The fields a {@link CarparkJsonFragment} holds, encoded by {@code gen}.
+   */
+  static void writeStaticFields(JsonGenerator gen, String address, Double latitude,
+      Double longitude) throws IOException {
+    writeAddress(gen, address);
+    gen.writeFieldName(LATITUDE);
+    writeNumber(gen, latitude);
+    gen.writeFieldName(LONGITUDE);
+    writeNumber(gen, longitude);
+  }
+
+  private static void writeAddress(JsonGenerator gen, String address) throws IOException {
+    gen.writeFieldName(ADDRESS);
+    if (address == null) {
+      gen.writeNull();
+    } else {
+      gen.writeString(address);
+    }
+  }
+
+  private static void writeNumber(JsonGenerator gen, Integer value) throws IOException {
+    if (value == null) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(value.intValue());
+    }
+  }
+
+  private static void writeNumber(JsonGenerator gen, Double value) throws IOException {
+    if (value == null) {
+      gen.writeNull();
+    } else {
+      gen.writeNumber(value.doubleValue());
+    }
+  }
+}
@@ -0,0 +1,256 @@
+package com.wego.carparkapi.util;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteBufferFeeder;
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Incremental, token-level parser for the data.gov.sg carpark availability feed.
+ * Bytes are fed as they arrive from the network and the first feed item's
+ * {@code carpark_data} is walked without building an object tree: each carpark is
+ * reduced to a primitive (carpark number, total, available) tuple on the fly,
+ * preferring the car ({@code C}) lot type and falling back to the first one listed.
+ * Memory use is independent of the response size.
+ *
+ * <p>Not thread-safe; use one instance per response.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+public class AvailabilityFeedParser {
+
+  private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+  // Nesting depths: root {} = 1, items [] = 2, item {} = 3, carpark_data [] = 4,
+  // carpark {} = 5, carpark_info [] = 6, lot info {} = 7
+  private static final int ITEM_DEPTH = 3;
+  private static final int CARPARK_DEPTH = 5;
+  private static final int LOT_INFO_DEPTH = 7;
+
+  private final JsonParser parser;
+  private final ByteBufferFeeder feeder;
+  private final AvailabilitySnapshot snapshot;
+  private boolean itemFound;
+
+  // Current carpark
+  private String carparkNumber;
+  private boolean carFound;
+  private boolean carValid;
+  private int carTotal;
+  private int carAvailable;
+  private boolean firstFound;
+  private boolean firstValid;
+  private int firstTotal;
+  private int firstAvailable;
+
+  // Current lot info
+  private boolean lotIsCar;
+  private int lotTotal = -1;
+  private int lotAvailable = -1;
+
+  public AvailabilityFeedParser() {
+    this(2048);
+  }
+
+  public AvailabilityFeedParser(int expectedCarparks) {
+    try {
+      this.parser = JSON_FACTORY.createNonBlockingByteBufferParser();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    this.feeder = (ByteBufferFeeder) parser.getNonBlockingInputFeeder();
+    this.snapshot = new AvailabilitySnapshot(null, expectedCarparks);
+  }
+
+  /**
+   * Parse a complete payload in one call.
+   */
+  public static AvailabilitySnapshot parse(byte[] json) {
+    AvailabilityFeedParser feedParser = new AvailabilityFeedParser();
+    feedParser.feed(ByteBuffer.wrap(json));
+    return feedParser.finish();
+  }
+
+  /**
+   * Consume the next chunk of the response. The buffer is fully read before this returns.
+   */
+  public void feed(ByteBuffer buffer) {
+    try {
+      feeder.feedInput(buffer);
+      drain();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Malformed availability feed", e);
+    }
+  }
+
+  /**
+   * Signal the end of the response.
+   *
+   * @return the parsed snapshot, or null when the feed contained no item
+   */
+  public AvailabilitySnapshot finish() {
+    try {
+      feeder.endOfInput();
+      drain();
+      parser.close();
+    } catch (IOException e) {
+      throw new UncheckedIOException("Malformed availability feed", e);
+    }
+    return itemFound ? snapshot : null;
+  }
+
+  private void drain() throws IOException {
+    JsonToken token;
+    while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+      switch (token) {
+        case START_OBJECT -> onStartObject();
+        case END_OBJECT -> onEndObject();
+        case VALUE_STRING, VALUE_NUMBER_INT -> onValue(token);
+        default -> {
+          // structure and unused values
+        }
+      }
+    }
+  }
+
+  private void onStartObject() {
+    JsonStreamContext context = parser.getParsingContext();
+    int depth = context.getNestingDepth();
+    if (depth == ITEM_DEPTH && isFirstItem(context)) {
+      itemFound = true;
+    } else if (depth == CARPARK_DEPTH && isCarparkData(context)) {
+      carparkNumber = null;
+      carFound = false;
+      firstFound = false;
+    } else if (depth == LOT_INFO_DEPTH && isCarparkInfo(context)) {
+      lotIsCar = false;
+      lotTotal = -1;
+      lotAvailable = -1;
+    }
+  }
+
+  private void onEndObject() {
+    // After END_OBJECT the context is the enclosing array
+    JsonStreamContext array = parser.getParsingContext();
+    int depth = array.getNestingDepth() + 1;
+    if (depth == LOT_INFO_DEPTH && isCarparkInfoArray(array)) {
+      boolean valid = lotTotal >= 0 && lotAvailable >= 0;
+      if (lotIsCar && !carFound) {
+        carFound = true;
+        carValid = valid;
+        carTotal = lotTotal;
+        carAvailable = lotAvailable;
+      }
+      if (!firstFound) {
+        firstFound = true;
+        firstValid = valid;
+        firstTotal = lotTotal;
+        firstAvailable = lotAvailable;
+      }
+    } else if (depth == CARPARK_DEPTH && isCarparkDataArray(array)) {
+      if (carparkNumber == null) {
+        return;
+      }
+      if (carFound ? carValid : firstFound && firstValid) {
+        snapshot.add(carparkNumber,
+            carFound ? carTotal : firstTotal,
+            carFound ? carAvailable : firstAvailable);
+      }
+    }
+  }
+
+  private void onValue(JsonToken token) throws IOException {
+    JsonStreamContext context = parser.getParsingContext();
+    String name = context.getCurrentName();
+    if (name == null) {
+      return;
+    }
+    int depth = context.getNestingDepth();
+
+    if (depth == LOT_INFO_DEPTH && isCarparkInfo(context)) {
+      switch (name) {
+        case "total_lots" -> lotTotal = readCount(token);
+        case "lots_available" -> lotAvailable = readCount(token);
+        case "lot_type" -> lotIsCar = parser.getTextLength() == 1
+            && parser.getTextCharacters()[parser.getTextOffset()] == 'C';
+        default -> {
+        }
+      }
+    } else if (depth == CARPARK_DEPTH && "carpark_number".equals(name) && isCarparkData(context)) {
+      carparkNumber = parser.getText();
+    } else if (depth == ITEM_DEPTH && "timestamp".equals(name) && isFirstItem(context)) {
+      snapshot.setTimestamp(parser.getText());
+    }
+  }
+
+  /**
+   * Non-negative lot count from a string or integer token, or -1 when unreadable.
+   */
+  private int readCount(JsonToken token) throws IOException {
+    if (token == JsonToken.VALUE_NUMBER_INT) {
+      long value = parser.getLongValue();
+      return value < 0 || value > Integer.MAX_VALUE ? -1 : (int) value;
+    }
+    char[] chars = parser.getTextCharacters();
+    int start = parser.getTextOffset();
+    int end = start + parser.getTextLength();
+    while (start < end && Character.isWhitespace(chars[start])) {
+      start++;
+    }
+    while (end > start && Character.isWhitespace(chars[end - 1])) {
+      end--;
+    }
+    if (start == end || end - start > 9) {
+      return -1;
+    }
+    int value = 0;
+    for (int i = start; i < end; i++) {
+      int digit = chars[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return -1;
+      }
+      value = value * 10 + digit;
+    }
+    return value;
+  }
+
+  /**
+   * Whether {@code item} is the object context of {@code items[0]}.
+   */
+  private static boolean isFirstItem(JsonStreamContext item) {
+    JsonStreamContext items = item.getParent();
+    return items.inArray() && items.getCurrentIndex() == 0
+        && items.getParent() != null && "items".equals(items.getParent().getCurrentName());
+  }
+
+  /**
+   * Whether {@code carpark} is an object context inside {@code items[0].carpark_data}.
+   */
+  private static boolean isCarparkData(JsonStreamContext carpark) {
+    return isCarparkDataArray(carpark.getParent());
+  }
+
+  private static boolean isCarparkDataArray(JsonStreamContext array) {
+    JsonStreamContext item = array.getParent();
+    return array.inArray() && "carpark_data".equals(item.getCurrentName()) && isFirstItem(item);
+  }
+
+  /**
+   * Whether {@code lotInfo} is an object context inside a carpark's {@code carpark_info}.
+   */
+  private static boolean isCarparkInfo(JsonStreamContext lotInfo) {
+    return isCarparkInfoArray(lotInfo.getParent());
+  }
+
+  private static boolean isCarparkInfoArray(JsonStreamContext array) {
+    JsonStreamContext carpark = array.getParent();
+    return array.inArray() && "carpark_info".equals(carpark.getCurrentName())
+        && isCarparkData(carpark);
+  }
+}
@@ -1,32 +1,198 @@
 package com.wego.carparkapi.util;
 
 import com.wego.carparkapi.service.CarparkService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicReference;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.TriggerContext;
+import org.springframework.scheduling.annotation.SchedulingConfigurer;
+import org.springframework.scheduling.config.ScheduledTaskRegistrar;
 import org.springframework.stereotype.Service;
 
 /**
+ * Coordinates availability refreshes. Concurrent triggers, scheduled or manual,
+ * collapse into a single in-flight run whose outcome every caller shares. The
+ * poll interval follows the cadence at which the feed's {@code timestamp}
+ * advances, bounded by the configured minimum and maximum.
+ *
  * @author chesterjavier
  * @Date 7/23/25
  */
 @Service
 @RequiredArgsConstructor
 @Slf4j
-public class AvailabilityUpdateService {
+public class AvailabilityUpdateService implements SchedulingConfigurer {
 
   private final CarparkService carparkService;
 
+  private final AtomicReference<CompletableFuture<String>> inFlight = new AtomicReference<>();
+
+  @Value("${app.carpark.api.poll.min-interval:30000}")
+  private long minIntervalMillis = 30000;
+
+  @Value("${app.carpark.api.poll.max-interval:300000}")
+  private long maxIntervalMillis = 300000;
+
+  // Cadence state, only touched by the refresh that holds inFlight, before it is released
+  private volatile long pollIntervalMillis = 300000;
+  private OffsetDateTime lastFeedTime;
+  private Instant lastFeedChangeAt;
+  private long cadenceMillis;
+  private int stalePolls;
+
+  @Override
+  public void configureTasks(ScheduledTaskRegistrar taskRegistrar) {
+    pollIntervalMillis = maxIntervalMillis;
+    taskRegistrar.addTriggerTask(this::updateAvailability, this::nextExecution);
+  }
+
   /**
-   * Update every 5 minutes
+   * Scheduled entry point. Failures are logged and the next poll is still scheduled.
    */
-  @Scheduled(fixedRate = 300000)
   public void updateAvailability() {
     log.info("Updating availability...");
     try {
-      carparkService.updateCarparkAvailability();
+      refresh();
     } catch (Exception e) {
       log.error("Availability update failed: {}", e.getMessage());
     }
   }
+
+  /**
+   * Run an availability refresh, or wait for the one already in progress.
+   *
+   * @return feed timestamp of the refresh, or null when the API returned no data
+   */
+  public String refresh() {
+    return await(refreshAsync());
+  }
+
+  /**
+   * Non-blocking form of {@link #refresh()}: starts a refresh, or joins the one
+   * already in progress, without waiting for it. The refresh runs on the
+   * WebClient's threads and its future completes when the snapshot is applied.
+   *
+   * @return completes with the feed timestamp, or null when the API returned no data
+   */
+  public CompletableFuture<String> refreshAsync() {
+    CompletableFuture<String> refresh = new CompletableFuture<>();
+    CompletableFuture<String> running = inFlight.compareAndExchange(null, refresh);
+    if (running != null) {
+      log.info("Availability refresh already in progress, joining it");
+      return running;
+    }
+
+    try {
+      carparkService.refreshAvailability()
+          .toFuture()
+          .whenComplete((feedTimestamp, e) -> {
+            if (e == null) {
+              adjustPollInterval(feedTimestamp, Instant.now());
+            }
+            finish(refresh, feedTimestamp, e);
+          });
+    } catch (Throwable e) {
+      // Errors too, or every caller waiting on this refresh would hang
+      finish(refresh, null, e);
+    }
+    return refresh;
+  }
+
+  private void finish(CompletableFuture<String> refresh, String feedTimestamp, Throwable error) {
+    inFlight.set(null);
+    if (error == null) {
+      refresh.complete(feedTimestamp);
+    } else {
+      refresh.completeExceptionally(
+          error instanceof CompletionException && error.getCause() != null
+              ? error.getCause() : error);
+    }
+  }
+
+  public Duration getPollInterval() {
+    return Duration.ofMillis(pollIntervalMillis);
+  }
+
+  private Instant nextExecution(TriggerContext context) {
+    Instant lastCompletion = context.lastCompletion();
+    if (lastCompletion == null) {
+      return context.getClock().instant();
+    }
+    return lastCompletion.plusMillis(pollIntervalMillis);
+  }
+
+  /**
+   * Re-estimate the poll interval from the feed timestamp a refresh observed.
+   * The gap between distinct feed timestamps is a multiple of the feed cadence,
+   * so the estimate only moves down quickly; while every poll sees a new
+   * timestamp the interval is halved to probe for a faster feed. A repeated
+   * timestamp means the poll came early, so the next one is aimed at the expected
+   * change, backing off exponentially once that moment has passed.
+   */
+  void adjustPollInterval(String feedTimestamp, Instant observedAt) {
+    OffsetDateTime feedTime = parseFeedTime(feedTimestamp);
+    if (feedTime == null) {
+      return;
+    }
+
+    if (lastFeedTime == null) {
+      lastFeedTime = feedTime;
+      lastFeedChangeAt = observedAt;
+    } else if (feedTime.isAfter(lastFeedTime)) {
+      long gap = Duration.between(lastFeedTime, feedTime).toMillis();
+      cadenceMillis = cadenceMillis == 0 ? gap : Math.min(gap, (cadenceMillis + gap) / 2);
+      pollIntervalMillis = pollIntervalMillis >= gap
+          ? clamp(Math.min(cadenceMillis, pollIntervalMillis / 2))
+          : clamp(cadenceMillis);
+      lastFeedTime = feedTime;
+      lastFeedChangeAt = observedAt;
+      stalePolls = 0;
+    } else {
+      stalePolls++;
+      long untilExpected = cadenceMillis == 0 ? 0
+          : Duration.between(observedAt, lastFeedChangeAt.plusMillis(cadenceMillis)).toMillis();
+      pollIntervalMillis = untilExpected > 0
+          ? clamp(untilExpected)
+          : clamp(minIntervalMillis << Math.min(stalePolls - 1, 16));
+    }
+    log.debug("Availability poll interval {} ms (feed cadence {} ms, stale polls {})",
+        pollIntervalMillis, cadenceMillis, stalePolls);
+  }
+
+  private long clamp(long intervalMillis) {
+    return Math.max(minIntervalMillis, Math.min(maxIntervalMillis, intervalMillis));
+  }
+
+  private static OffsetDateTime parseFeedTime(String feedTimestamp) {
+    if (feedTimestamp == null) {
+      return null;
+    }
+    try {
+      return OffsetDateTime.parse(feedTimestamp);
+    } catch (DateTimeParseException e) {
+      log.warn("Unrecognised availability feed timestamp: {}", feedTimestamp);
+      return null;
+    }
+  }
+
+  private static String await(CompletableFuture<String> running) {
+    try {
+      return running.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      if (e.getCause() instanceof Error cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
 }
@@ -1,29 +1,177 @@
 package com.wego.carparkapi.util;
 
 import com.wego.carparkapi.service.CarparkService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantLock;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
 import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Component;
 
 /**
+ * Loads carpark data in the background once the application has started and holds
+ * readiness at {@link ReadinessState#REFUSING_TRAFFIC} until the CSV import, the
+ * first availability refresh and a warm-up of synthetic nearest-carpark queries
+ * have completed. A failed import is retried with exponential backoff; once
+ * {@code app.carpark.startup.import-attempts} have failed, liveness is reported
+ * {@link LivenessState#BROKEN} so the instance gets restarted.
+ *
  * @author chesterjavier
  * @Date 7/23/25
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class CarparkDataLoader {
 
+  // Singapore bounding box used for synthetic warm-up queries
+  private static final double MIN_LATITUDE = 1.24;
+  private static final double MAX_LATITUDE = 1.47;
+  private static final double MIN_LONGITUDE = 103.60;
+  private static final double MAX_LONGITUDE = 104.00;
+
   private final CarparkService carparkService;
+  private final AvailabilityUpdateService availabilityUpdateService;
+  private final ApplicationEventPublisher eventPublisher;
+  private final Timer warmUpTimer;
+
+  @Value("${app.carpark.startup.warm-up-queries:200}")
+  private int warmUpQueries = 200;
+
+  @Value("${app.carpark.startup.import-attempts:5}")
+  private int importAttempts = 5;
+
+  // Doubled after every failed import attempt
+  @Value("${app.carpark.startup.import-backoff:2000}")
+  private long importBackoffMillis = 2000;
+
+  // Not a monitor: readiness listeners may log, and a virtual thread must not block inside one
+  private final ReentrantLock readinessLock = new ReentrantLock();
+  private boolean loaded;
+
+  public CarparkDataLoader(CarparkService carparkService,
+      AvailabilityUpdateService availabilityUpdateService,
+      ApplicationEventPublisher eventPublisher, MeterRegistry meterRegistry) {
+    this.carparkService = carparkService;
+    this.availabilityUpdateService = availabilityUpdateService;
+    this.eventPublisher = eventPublisher;
+    this.warmUpTimer = Timer.builder("carpark.startup.warmup")
+        .description("Time spent warming up nearest-carpark queries before accepting traffic")
+        .register(meterRegistry);
+  }
 
   /**
-   * Triggered on ApplicationReadyEvent when application runs
+   * Triggered on ApplicationReadyEvent when application runs. Runs on the task
+   * executor, so startup completes while the data is still loading.
    */
+  @Async
   @EventListener(ApplicationReadyEvent.class)
   public void importOnStartup() {
     log.info("Starting data import....");
-    carparkService.importCarparkDataFromCsv();
+    long start = System.nanoTime();
+    Boolean changed = importWithRetry();
+    if (changed == null) {
+      AvailabilityChangeEvent.publish(eventPublisher, this, LivenessState.BROKEN);
+      return;
+    }
+    log.info("Startup data load finished in {} ms (dataset {})",
+        (System.nanoTime() - start) / 1_000_000, changed ? "changed" : "unchanged");
+
+    try {
+      availabilityUpdateService.refresh();
+    } catch (Exception e) {
+      log.warn("Initial availability refresh failed, serving stored lot counts: {}",
+          e.getMessage());
+    }
+
+    warmUpTimer.record(this::warmUp);
+
+    readinessLock.lock();
+    try {
+      loaded = true;
+      AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.ACCEPTING_TRAFFIC);
+    } finally {
+      readinessLock.unlock();
+    }
+    log.info("Carpark data ready in {} ms, accepting traffic",
+        (System.nanoTime() - start) / 1_000_000);
+  }
+
+  /**
+   * Spring Boot reports the application as accepting traffic right after
+   * ApplicationReadyEvent. Runs after the availability state has recorded that
+   * change and reverts it while the data is still loading.
+   */
+  @EventListener
+  @Order(Ordered.LOWEST_PRECEDENCE)
+  public void onReadinessChange(AvailabilityChangeEvent<ReadinessState> event) {
+    if (event.getState() != ReadinessState.ACCEPTING_TRAFFIC || event.getSource() == this) {
+      return;
+    }
+    readinessLock.lock();
+    try {
+      if (!loaded) {
+        log.info("Carpark data still loading, refusing traffic");
+        AvailabilityChangeEvent.publish(eventPublisher, this, ReadinessState.REFUSING_TRAFFIC);
+      }
+    } finally {
+      readinessLock.unlock();
+    }
+  }
+
+  /**
+   * @return whether the dataset changed, or null once every attempt has failed
+   */
+  private Boolean importWithRetry() {
+    long backoffMillis = importBackoffMillis;
+    for (int attempt = 1; ; attempt++) {
+      try {
+        return carparkService.importCarparkDataFromCsv();
+      } catch (RuntimeException e) {
+        if (attempt >= importAttempts) {
+          log.error("CSV import failed {} times, reporting the instance as broken", attempt, e);
+          return null;
+        }
+        log.warn("CSV import attempt {} of {} failed, retrying in {} ms: {}",
+            attempt, importAttempts, backoffMillis, e.getMessage());
+      }
+      try {
+        Thread.sleep(backoffMillis);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        log.warn("Interrupted while waiting to retry the CSV import");
+        return null;
+      }
+      backoffMillis *= 2;
+    }
+  }
+
+  /**
+   * Run synthetic nearest-carpark queries over the whole island, so the JIT has
+   * compiled the search path before the first real request. See
+   * {@link CarparkService#warmUpNearestCarparks}.
+   */
+  private void warmUp() {
+    Random random = new Random(42);
+    for (int i = 0; i < warmUpQueries; i++) {
+      double latitude = MIN_LATITUDE + random.nextDouble() * (MAX_LATITUDE - MIN_LATITUDE);
+      double longitude = MIN_LONGITUDE + random.nextDouble() * (MAX_LONGITUDE - MIN_LONGITUDE);
+      try {
+        carparkService.warmUpNearestCarparks(latitude, longitude, 10);
+      } catch (Exception e) {
+        log.warn("Warm-up query failed: {}", e.getMessage());
+        return;
+      }
+    }
+    log.info("Warm-up ran {} synthetic nearest-carpark queries", warmUpQueries);
   }
 }
@@ -0,0 +1,45 @@
+package com.wego.carparkapi.util;
+
+import com.wego.carparkapi.service.CarparkStatistics;
+import java.time.Duration;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.stereotype.Component;
+
+/**
+ * Reports the {@code carpark} health component from {@link CarparkStatistics}
+ * only; a probe performs no I/O. Down until carparks have been loaded. Stale
+ * availability is reported as a detail rather than a failure, since the last known
+ * counts are still served.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Component
+@RequiredArgsConstructor
+public class CarparkHealthIndicator implements HealthIndicator {
+
+  private final CarparkStatistics carparkStatistics;
+
+  @Value("${app.carpark.health.max-refresh-age:900000}")
+  private long maxRefreshAgeMillis = 900000;
+
+  @Override
+  public Health health() {
+    long loaded = carparkStatistics.getCarparksLoaded();
+    Duration refreshAge = carparkStatistics.getLastRefreshAge();
+
+    Health.Builder builder = loaded > 0 ? Health.up() : Health.down();
+    builder.withDetail("carparksLoaded", loaded)
+        .withDetail("carparksWithAvailability", carparkStatistics.getCarparksWithAvailability());
+    if (refreshAge != null) {
+      builder.withDetail("lastRefresh", carparkStatistics.getLastRefreshAt().toString())
+          .withDetail("lastRefreshAgeSeconds", refreshAge.toSeconds());
+    }
+    return builder
+        .withDetail("availabilityStale", refreshAge == null || refreshAge.toMillis() > maxRefreshAgeMillis)
+        .build();
+  }
+}
@@ -21,6 +21,19 @@ public class CoordinateConversionUtility {
   private static final double WGS84_F = 1.0 / 298.257223563; // Flattening
   private static final double WGS84_E2 = 2 * WGS84_F - WGS84_F * WGS84_F;
 
+  // Meridian distance term of the origin latitude, constant for every conversion
+  private static final double ORIGIN_MERIDIAN = WGS84_A * ((1 - WGS84_E2 / 4) * ORIGIN_LATITUDE
+      - (3 * WGS84_E2 / 8) * Math.sin(2 * ORIGIN_LATITUDE));
+
+  /**
+   * Identifies the projection parameters above. Anything derived from a
+   * conversion can be compared against it to detect that the parameters changed.
+   */
+  public static final String PROJECTION_PARAMETERS = "SVY21->WGS84"
+      + ";lat0=" + ORIGIN_LATITUDE + ";lon0=" + ORIGIN_LONGITUDE
+      + ";n0=" + FALSE_NORTHING + ";e0=" + FALSE_EASTING + ";k0=" + SCALE_FACTOR
+      + ";a=" + WGS84_A + ";f=" + WGS84_F;
+
   public double[] convertSvy21ToWgs84(double x, double y) {
     try {
       // Step 1: Convert SVY21 to geographic coordinates on SVY21 datum
@@ -42,11 +55,40 @@ public class CoordinateConversionUtility {
     }
   }
 
+  /**
+   * Bulk variant of {@link #convertSvy21ToWgs84(double, double)}: converts the first
+   * {@code count} points in one pass, writing WGS84 degrees into {@code latitudes}
+   * and {@code longitudes} without allocating a result array per point.
+   */
+  public void convertSvy21ToWgs84(double[] xs, double[] ys, int count,
+      double[] latitudes, double[] longitudes) {
+    for (int i = 0; i < count; i++) {
+      try {
+        double adjustedX = xs[i] - FALSE_EASTING;
+        double lat = svy21Latitude(ys[i] - FALSE_NORTHING);
+        latitudes[i] = Math.toDegrees(lat);
+        longitudes[i] = Math.toDegrees(svy21Longitude(adjustedX, lat));
+      } catch (Exception e) {
+        log.error("Error converting coordinates from SVY21 ({}, {}) to WGS84: {}", xs[i], ys[i], e.getMessage());
+        double[] approximate = approximateConversion(xs[i], ys[i]);
+        latitudes[i] = approximate[0];
+        longitudes[i] = approximate[1];
+      }
+    }
+  }
+
   private double[] svy21ToGeographic(double x, double y) {
     // Adjust for false easting and northing
     double adjustedX = x - FALSE_EASTING;
     double adjustedY = y - FALSE_NORTHING;
 
+    double lat = svy21Latitude(adjustedY);
+    double lon = svy21Longitude(adjustedX, lat);
+
+    return new double[]{lat, lon};
+  }
+
+  private double svy21Latitude(double adjustedY) {
     // Initial approximation
     double n = adjustedY / (WGS84_A * SCALE_FACTOR);
     double lat = ORIGIN_LATITUDE + n;
@@ -54,26 +96,23 @@ public class CoordinateConversionUtility {
     // Iterative calculation for more accuracy
     for (int i = 0; i < 10; i++) {
       double sinLat = Math.sin(lat);
-      double cosLat = Math.cos(lat);
-      double tanLat = Math.tan(lat);
 
-      double v = WGS84_A / Math.sqrt(1 - WGS84_E2 * sinLat * sinLat);
       double rho = WGS84_A * (1 - WGS84_E2) / Math.pow(1 - WGS84_E2 * sinLat * sinLat, 1.5);
 
-      double eta2 = v / rho - 1;
-
       double m = WGS84_A * ((1 - WGS84_E2 / 4 - 3 * WGS84_E2 * WGS84_E2 / 64) * lat
           - (3 * WGS84_E2 / 8 + 3 * WGS84_E2 * WGS84_E2 / 32) * Math.sin(2 * lat)
           + (15 * WGS84_E2 * WGS84_E2 / 256) * Math.sin(4 * lat));
 
-      double deltaLat = (adjustedY - SCALE_FACTOR * (m - WGS84_A * ((1 - WGS84_E2 / 4) * ORIGIN_LATITUDE
-          - (3 * WGS84_E2 / 8) * Math.sin(2 * ORIGIN_LATITUDE)))) / (SCALE_FACTOR * rho);
+      double deltaLat = (adjustedY - SCALE_FACTOR * (m - ORIGIN_MERIDIAN)) / (SCALE_FACTOR * rho);
 
       lat = ORIGIN_LATITUDE + deltaLat;
 
       if (Math.abs(deltaLat) < 1e-12) break;
     }
+    return lat;
+  }
 
+  private double svy21Longitude(double adjustedX, double lat) {
     double sinLat = Math.sin(lat);
     double cosLat = Math.cos(lat);
     double tanLat = Math.tan(lat);
@@ -81,11 +120,9 @@ public class CoordinateConversionUtility {
     double v = WGS84_A / Math.sqrt(1 - WGS84_E2 * sinLat * sinLat);
     double eta2 = v * WGS84_E2 * cosLat * cosLat / (1 - WGS84_E2);
 
-    double lon = ORIGIN_LONGITUDE + adjustedX / (SCALE_FACTOR * v * cosLat)
+    return ORIGIN_LONGITUDE + adjustedX / (SCALE_FACTOR * v * cosLat)
         - adjustedX * adjustedX * adjustedX * tanLat / (6 * SCALE_FACTOR * SCALE_FACTOR * SCALE_FACTOR * v * v * v * cosLat)
         * (1 + eta2);
-
-    return new double[]{lat, lon};
   }
 
   private double[] approximateConversion(double x, double y) {
@@ -96,6 +133,21 @@ public class CoordinateConversionUtility {
     return new double[]{lat, lon};
   }
 
+  /**
+   * Cartesian components of the unit vector pointing at a WGS84 position on a
+   * spherical earth. The dot product of two such vectors is the cosine of the
+   * angle between the positions, so ordering by it descending orders by
+   * great-circle distance ascending.
+   *
+   * @return {x, y, z}
+   */
+  public static double[] toUnitVector(double latitude, double longitude) {
+    double lat = Math.toRadians(latitude);
+    double lon = Math.toRadians(longitude);
+    double cosLat = Math.cos(lat);
+    return new double[]{cosLat * Math.cos(lon), cosLat * Math.sin(lon), Math.sin(lat)};
+  }
+
   public boolean isValidSingaporeCoordinates(double latitude, double longitude) {
     return latitude >= 1.0 && latitude <= 1.5 &&
         longitude >= 103.0 && longitude <= 104.5;
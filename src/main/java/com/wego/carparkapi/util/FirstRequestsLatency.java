@@ -0,0 +1,75 @@
+package com.wego.carparkapi.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.HistogramSnapshot;
+import io.micrometer.core.instrument.distribution.ValueAtPercentile;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Latency of the first {@code observedRequests} carpark API requests served by this
+ * instance, shared by {@link FirstRequestsLatencyFilter} on Servlet MVC and
+ * {@link ReactiveFirstRequestsLatencyFilter} on WebFlux. Logs their percentiles once
+ * the last of them completes.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@Slf4j
+final class FirstRequestsLatency {
+
+  private final Timer firstRequests;
+  private final int observedRequests;
+  private final AtomicInteger started = new AtomicInteger();
+  private final AtomicInteger completed = new AtomicInteger();
+
+  FirstRequestsLatency(MeterRegistry meterRegistry, int observedRequests) {
+    this.firstRequests = Timer.builder("carpark.startup.first.requests")
+        .description("Latency of the first carpark API requests after startup")
+        .publishPercentiles(0.5, 0.95, 0.99)
+        .register(meterRegistry);
+    this.observedRequests = observedRequests;
+  }
+
+  /**
+   * Whether a request for {@code path} may still be one of the observed ones.
+   */
+  boolean isCandidate(String path) {
+    return path.startsWith("/carparks/")
+        && !path.startsWith("/carparks/import/")
+        && started.get() < observedRequests;
+  }
+
+  /**
+   * Claim a place among the observed requests.
+   *
+   * @return false once every place has been taken
+   */
+  boolean start() {
+    return started.getAndIncrement() < observedRequests;
+  }
+
+  /**
+   * Record an observed request that took {@code nanos}.
+   */
+  void complete(long nanos) {
+    firstRequests.record(nanos, TimeUnit.NANOSECONDS);
+    if (completed.incrementAndGet() == observedRequests) {
+      logSummary();
+    }
+  }
+
+  private void logSummary() {
+    HistogramSnapshot snapshot = firstRequests.takeSnapshot();
+    StringBuilder percentiles = new StringBuilder();
+    for (ValueAtPercentile percentile : snapshot.percentileValues()) {
+      percentiles.append(String.format(" p%.0f=%.1f ms", percentile.percentile() * 100,
+          percentile.value(TimeUnit.MILLISECONDS)));
+    }
+    log.info("First {} requests: mean={} ms max={} ms{}", snapshot.count(),
+        String.format("%.1f", snapshot.mean(TimeUnit.MILLISECONDS)),
+        String.format("%.1f", snapshot.max(TimeUnit.MILLISECONDS)), percentiles);
+  }
+}
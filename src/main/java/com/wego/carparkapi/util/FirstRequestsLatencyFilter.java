@@ -0,0 +1,54 @@
+package com.wego.carparkapi.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+/**
+ * Times the first {@code app.carpark.startup.observed-requests} carpark API
+ * requests served by this instance, to show how much slower a freshly started
+ * instance is than a warm one. See {@link FirstRequestsLatency}; the WebFlux
+ * counterpart is {@link ReactiveFirstRequestsLatencyFilter}.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@Component
+public class FirstRequestsLatencyFilter extends OncePerRequestFilter {
+
+  private final FirstRequestsLatency latency;
+
+  public FirstRequestsLatencyFilter(MeterRegistry meterRegistry,
+      @Value("${app.carpark.startup.observed-requests:1000}") int observedRequests) {
+    this.latency = new FirstRequestsLatency(meterRegistry, observedRequests);
+  }
+
+  @Override
+  protected boolean shouldNotFilter(HttpServletRequest request) {
+    return !latency.isCandidate(request.getRequestURI());
+  }
+
+  @Override
+  protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+      FilterChain filterChain) throws ServletException, IOException {
+    if (!latency.start()) {
+      filterChain.doFilter(request, response);
+      return;
+    }
+
+    long start = System.nanoTime();
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      latency.complete(System.nanoTime() - start);
+    }
+  }
+}
@@ -6,13 +6,21 @@ import java.util.HashMap;
 import java.util.Map;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.BindingResult;
 import org.springframework.validation.FieldError;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.bind.support.WebExchangeBindException;
+import org.springframework.web.server.MissingRequestValueException;
+import org.springframework.web.server.ServerWebInputException;
 
 /**
+ * Maps request errors to the same 400 bodies whether the application runs on
+ * servlets or on WebFlux ({@code reactive} profile), which raises its own exceptions
+ * for a missing parameter or an invalid request body.
+ *
  * @author chesterjavier
  * @Date 7/23/25
  */
@@ -23,12 +31,33 @@ public class GlobalExceptionHandler {
   @ExceptionHandler(MissingServletRequestParameterException.class)
   public ResponseEntity<Map<String, String>> handleMissingParams(
       MissingServletRequestParameterException ex) {
-    log.warn("Missing required parameter: {}", ex.getParameterName());
+    return missingParameter(ex.getParameterName());
+  }
+
+  @ExceptionHandler(MissingRequestValueException.class)
+  public ResponseEntity<Map<String, String>> handleMissingRequestValue(
+      MissingRequestValueException ex) {
+    return missingParameter(ex.getName());
+  }
+
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<Map<String, String>> handleServerWebInput(ServerWebInputException ex) {
+    log.warn("Invalid request input: {}", ex.getReason());
+
+    Map<String, String> error = new HashMap<>();
+    error.put("error", "Invalid argument");
+    error.put("message", ex.getReason());
+
+    return ResponseEntity.badRequest().body(error);
+  }
+
+  private static ResponseEntity<Map<String, String>> missingParameter(String parameterName) {
+    log.warn("Missing required parameter: {}", parameterName);
 
     Map<String, String> error = new HashMap<>();
     error.put("error", "Missing required parameter");
-    error.put("parameter", ex.getParameterName());
-    error.put("message", String.format("Required parameter '%s' is missing", ex.getParameterName()));
+    error.put("parameter", parameterName);
+    error.put("message", String.format("Required parameter '%s' is missing", parameterName));
 
     return ResponseEntity.badRequest().body(error);
   }
@@ -52,11 +81,20 @@ public class GlobalExceptionHandler {
   @ExceptionHandler(MethodArgumentNotValidException.class)
   public ResponseEntity<Map<String, String>> handleValidationExceptions(MethodArgumentNotValidException ex) {
     log.warn("Method argument validation failed: {}", ex.getMessage());
+    return validationFailed(ex.getBindingResult());
+  }
+
+  @ExceptionHandler(WebExchangeBindException.class)
+  public ResponseEntity<Map<String, String>> handleWebExchangeBind(WebExchangeBindException ex) {
+    log.warn("Request body validation failed: {}", ex.getMessage());
+    return validationFailed(ex.getBindingResult());
+  }
 
+  private static ResponseEntity<Map<String, String>> validationFailed(BindingResult bindingResult) {
     Map<String, String> errors = new HashMap<>();
     errors.put("error", "Validation failed");
 
-    ex.getBindingResult().getAllErrors().forEach((error) -> {
+    bindingResult.getAllErrors().forEach((error) -> {
       String fieldName = ((FieldError) error).getField();
       String errorMessage = error.getDefaultMessage();
       errors.put(fieldName, errorMessage);
@@ -0,0 +1,41 @@
+package com.wego.carparkapi.util;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link FirstRequestsLatencyFilter}. A request is timed from
+ * subscription until its response completes, errors or is cancelled.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@Component
+public class ReactiveFirstRequestsLatencyFilter implements WebFilter {
+
+  private final FirstRequestsLatency latency;
+
+  public ReactiveFirstRequestsLatencyFilter(MeterRegistry meterRegistry,
+      @Value("${app.carpark.startup.observed-requests:1000}") int observedRequests) {
+    this.latency = new FirstRequestsLatency(meterRegistry, observedRequests);
+  }
+
+  @Override
+  public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+    if (!latency.isCandidate(exchange.getRequest().getPath().value()) || !latency.start()) {
+      return chain.filter(exchange);
+    }
+    return Mono.defer(() -> {
+      long start = System.nanoTime();
+      return chain.filter(exchange)
+          .doFinally(signal -> latency.complete(System.nanoTime() - start));
+    });
+  }
+}
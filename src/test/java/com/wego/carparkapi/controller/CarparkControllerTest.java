@@ -1,18 +1,31 @@
 package com.wego.carparkapi.controller;
 
+import static org.hamcrest.Matchers.startsWith;
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyDouble;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
+import com.wego.carparkapi.dto.CarparkFilter;
 import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
 import com.wego.carparkapi.service.CarparkService;
+import com.wego.carparkapi.service.NearestCarparkPage;
+import com.wego.carparkapi.util.AvailabilityUpdateService;
 import com.wego.carparkapi.util.GlobalExceptionHandler;
 import java.util.Arrays;
 import java.util.List;
@@ -20,14 +33,16 @@ import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.bind.MethodArgumentNotValidException;
+import reactor.core.publisher.Mono;
 
 /**
  * @author chesterjavier
@@ -42,11 +57,12 @@ class CarparkControllerTest {
   @Mock
   private CarparkService carparkService;
 
-  @InjectMocks
   private CarparkController carparkController;
 
   @BeforeEach
   void setUp() {
+    carparkController = new CarparkController(carparkService,
+        new AvailabilityUpdateService(carparkService));
     mockMvc = MockMvcBuilders.standaloneSetup(carparkController)
         .setControllerAdvice(new GlobalExceptionHandler())
         .build();
@@ -59,8 +75,8 @@ class CarparkControllerTest {
         new CarparkResponseDto( "BLK 98A ALJUNIED CRESCENT", 1.32, 103.88,  5, 50, null)
     );
 
-    when(carparkService.findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt()))
-        .thenReturn(mockResponse);
+    when(carparkService.findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any()))
+        .thenReturn(NearestCarparkPage.of(mockResponse));
 
     mockMvc.perform(get("/carparks/nearest")
             .param("latitude", "1.3")
@@ -76,23 +92,146 @@ class CarparkControllerTest {
         .andExpect(jsonPath("$[1].latitude").value(1.32))
         .andExpect(jsonPath("$[1].longitude").value(103.88));
 
-    verify(carparkService, times(1)).findNearestCarparks(1.3, 103.8, 1, 10);
+    verify(carparkService, times(1)).findNearestCarparks(1.3, 103.8, 1, 10, CarparkFilter.NONE);
+  }
+
+  @Test
+  void getNearestCarparks_ShouldReturnNotModified_WhenETagMatches() throws Exception {
+    when(carparkService.getNearestCarparksVersion()).thenReturn("7.3");
+    when(carparkService.findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any()))
+        .thenReturn(NearestCarparkPage.of(
+            List.of(new CarparkResponseDto("BLK 98A ALJUNIED CRESCENT", 1.32, 103.88, 5, 50, null))));
+
+    String etag = mockMvc.perform(get("/carparks/nearest")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"7.3-")))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/carparks/nearest")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isNotModified())
+        .andExpect(header().string(HttpHeaders.ETAG, etag))
+        .andExpect(content().string(""));
+
+    verify(carparkService, times(1)).findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any());
+  }
+
+  @Test
+  void getNearestCarparks_ShouldReturnBody_WhenSnapshotOrQueryChanged() throws Exception {
+    when(carparkService.getNearestCarparksVersion()).thenReturn("7.3", "8.3", "8.3");
+    when(carparkService.findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any()))
+        .thenReturn(NearestCarparkPage.of(List.of()));
+
+    String etag = mockMvc.perform(get("/carparks/nearest")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8"))
+        .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+    mockMvc.perform(get("/carparks/nearest")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk());
+    mockMvc.perform(get("/carparks/nearest")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8")
+            .param("page", "2")
+            .header(HttpHeaders.IF_NONE_MATCH, etag))
+        .andExpect(status().isOk());
+
+    verify(carparkService, times(3)).findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any());
+  }
+
+  @Test
+  void getNearestCarparks_ShouldPassFiltersToService() throws Exception {
+    when(carparkService.findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any()))
+        .thenReturn(NearestCarparkPage.of(List.of()));
+
+    mockMvc.perform(get("/carparks/nearest")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8")
+            .param("radius_km", "1")
+            .param("min_gantry_height", "2.1")
+            .param("night_parking", "true")
+            .param("parking_system", "electronic parking"))
+        .andExpect(status().isOk());
+
+    verify(carparkService).findNearestCarparks(1.3, 103.8, 1, 10, CarparkFilter.builder()
+        .radiusKm(1.0)
+        .minGantryHeight(2.1)
+        .nightParking(true)
+        .parkingSystem("electronic parking")
+        .build());
+  }
+
+  @Test
+  void nearestCarparksETag_ShouldTellApartQueriesWithSameFieldText() {
+    String shifted = CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.builder().carparkType("SURFACE").build());
+    String other = CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.builder().parkingSystem("SURFACE").build());
+    String textNull = CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.builder().carparkType("null").build());
+
+    assertNotEquals(shifted, other);
+    assertNotEquals(textNull, CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.NONE));
+    // 7.3- and 64 hex digits of SHA-256
+    assertEquals(4 + 64, shifted.length());
+  }
+
+  @Test
+  void nearestCarparksETag_ShouldDifferByFilter() {
+    String unfiltered = CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.NONE);
+    String filtered = CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.builder().radiusKm(1.0).build());
+
+    assertNotEquals(unfiltered, filtered);
+    assertEquals(filtered, CarparkController.nearestCarparksETag("7.3", 1.3, 103.8, 1, 10,
+        CarparkFilter.builder().radiusKm(1.0).build()));
+  }
+
+  @Test
+  void getNearestCarparksByCursor_ShouldReturnDataAndNextToken() throws Exception {
+    CarparkCursorPageDto mockResponse = CarparkCursorPageDto.builder()
+        .data(List.of(new CarparkResponseDto("BLK 98A ALJUNIED CRESCENT", 1.32, 103.88, 5, 50, null)))
+        .next("abc")
+        .build();
+
+    when(carparkService.findNearestCarparksByCursor(anyDouble(), anyDouble(), isNull(), anyInt()))
+        .thenReturn(mockResponse);
+
+    mockMvc.perform(get("/carparks/nearest/cursor")
+            .param("latitude", "1.3")
+            .param("longitude", "103.8")
+            .param("per_page", "1"))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.data.length()").value(1))
+        .andExpect(jsonPath("$.data[0].address").value("BLK 98A ALJUNIED CRESCENT"))
+        .andExpect(jsonPath("$.next").value("abc"));
+
+    verify(carparkService, times(1)).findNearestCarparksByCursor(1.3, 103.8, null, 1);
   }
 
   @Test
   void importCarparkData_ShouldReturnSuccessMessage() {
-    ResponseEntity<String> response = carparkController.importCarparkDataFromCsv();
+    ResponseEntity<String> response = carparkController.importCarparkDataFromCsv(false);
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals("CSV import completed successfully", response.getBody());
-    verify(carparkService, times(1)).importCarparkDataFromCsv();
+    verify(carparkService, times(1)).importCarparkDataFromCsv(false);
   }
 
   @Test
   void importCarparkData_WhenExceptionThrown_ShouldReturnErrorResponse() {
-    doThrow(new RuntimeException("Test exception")).when(carparkService).importCarparkDataFromCsv();
+    doThrow(new RuntimeException("Test exception")).when(carparkService).importCarparkDataFromCsv(false);
 
-    ResponseEntity<String> response = carparkController.importCarparkDataFromCsv();
+    ResponseEntity<String> response = carparkController.importCarparkDataFromCsv(false);
 
     assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
     assertTrue(response.getBody().startsWith("CSV import failed: Test exception"));
@@ -100,16 +239,19 @@ class CarparkControllerTest {
 
   @Test
   void updateAvailability_ShouldReturnSuccessMessage() {
+    when(carparkService.refreshAvailability()).thenReturn(Mono.empty());
+
     ResponseEntity<String> response = carparkController.updateAvailability();
 
     assertEquals(HttpStatus.OK, response.getStatusCode());
     assertEquals("Availability update completed successfully", response.getBody());
-    verify(carparkService, times(1)).updateCarparkAvailability();
+    verify(carparkService, times(1)).refreshAvailability();
   }
 
   @Test
   void updateAvailability_WhenExceptionThrown_ShouldReturnErrorResponse() {
-    doThrow(new RuntimeException("Test exception")).when(carparkService).updateCarparkAvailability();
+    when(carparkService.refreshAvailability())
+        .thenReturn(Mono.error(new RuntimeException("Test exception")));
 
     ResponseEntity<String> response = carparkController.updateAvailability();
 
@@ -117,6 +259,73 @@ class CarparkControllerTest {
     assertTrue(response.getBody().startsWith("Availability update failed: Test exception"));
   }
 
+  @Test
+  void getNearestCarparksBatch_ShouldReturnResultsPerOrigin() throws Exception {
+    when(carparkService.findNearestCarparksBatch(anyList())).thenReturn(NearestCarparkBatchDto.builder()
+        .version(7L)
+        .results(List.of(
+            new NearestCarparkBatchDto.Result(1.3, 103.8, List.of(
+                new CarparkResponseDto("BLK 98A ALJUNIED CRESCENT", 1.32, 103.88, 5, 50, null))),
+            new NearestCarparkBatchDto.Result(1.4, 103.9, List.of())))
+        .build());
+
+    mockMvc.perform(post("/carparks/nearest/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("""
+                {"origins":[{"latitude":1.3,"longitude":103.8,"k":1},{"latitude":1.4,"longitude":103.9}]}
+                """))
+        .andExpect(status().isOk())
+        .andExpect(jsonPath("$.version").value(7))
+        .andExpect(jsonPath("$.results.length()").value(2))
+        .andExpect(jsonPath("$.results[0].data[0].address").value("BLK 98A ALJUNIED CRESCENT"))
+        .andExpect(jsonPath("$.results[1].latitude").value(1.4));
+  }
+
+  @Test
+  void getNearestCarparksBatch_WithInvalidOrigin_ShouldReturnBadRequest() throws Exception {
+    mockMvc.perform(post("/carparks/nearest/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"origins\":[{\"latitude\":1.3,\"k\":0}]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Validation failed"));
+
+    verifyNoInteractions(carparkService);
+  }
+
+  @Test
+  void getNearestCarparksBatch_WithNullK_ShouldReturnBadRequest() throws Exception {
+    mockMvc.perform(post("/carparks/nearest/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"origins\":[{\"latitude\":1.3,\"longitude\":103.8,\"k\":null}]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Validation failed"));
+
+    verifyNoInteractions(carparkService);
+  }
+
+  @Test
+  void getNearestCarparksBatch_WithNullOrigin_ShouldReturnBadRequest() throws Exception {
+    mockMvc.perform(post("/carparks/nearest/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"origins\":[null]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.error").value("Validation failed"));
+
+    verifyNoInteractions(carparkService);
+  }
+
+  @Test
+  void getNearestCarparksBatch_OverLimits_ShouldReturnBadRequest() throws Exception {
+    when(carparkService.findNearestCarparksBatch(anyList()))
+        .thenThrow(new IllegalArgumentException("k must not exceed 50, got 60"));
+
+    mockMvc.perform(post("/carparks/nearest/batch")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content("{\"origins\":[{\"latitude\":1.3,\"longitude\":103.8,\"k\":60}]}"))
+        .andExpect(status().isBadRequest())
+        .andExpect(jsonPath("$.message").value("k must not exceed 50, got 60"));
+  }
+
   @Test
   void health_ShouldReturnOkWithCount() {
     when(carparkService.getCarparksWithAvailabilityCount()).thenReturn(150L);
@@ -0,0 +1,246 @@
+package com.wego.carparkapi.controller;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.service.CarparkService;
+import com.wego.carparkapi.service.NearestCarparkPage;
+import com.wego.carparkapi.util.AvailabilityUpdateService;
+import com.wego.carparkapi.util.GlobalExceptionHandler;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.test.context.runner.ReactiveWebApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@ExtendWith(MockitoExtension.class)
+class ReactiveCarparkControllerTest {
+
+  @Mock
+  private CarparkService carparkService;
+
+  @Mock
+  private AvailabilityUpdateService availabilityUpdateService;
+
+  private WebTestClient webTestClient;
+
+  @BeforeEach
+  void setUp() {
+    webTestClient = WebTestClient.bindToController(
+            new ReactiveCarparkController(carparkService, availabilityUpdateService))
+        .controllerAdvice(new GlobalExceptionHandler())
+        .build();
+  }
+
+  @Test
+  void getNearestCarparks_ShouldReturnOk() {
+    when(carparkService.getNearestCarparksVersion()).thenReturn("3");
+    when(carparkService.isMemoryEngine()).thenReturn(true);
+    when(carparkService.findNearestCarparksAsync(1.3, 103.8, 1, 10)).thenReturn(
+        CompletableFuture.completedFuture(NearestCarparkPage.of(List.of(
+            new CarparkResponseDto("BLK 98A ALJUNIED CRESCENT", 1.32, 103.88, 5, 50, null)))));
+
+    webTestClient.get()
+        .uri("/carparks/nearest?latitude=1.3&longitude=103.8")
+        .exchange()
+        .expectStatus().isOk()
+        .expectHeader().value(HttpHeaders.ETAG, etag -> assertTrue(etag.startsWith("\"3-")))
+        .expectBody()
+        .jsonPath("$.length()").isEqualTo(1)
+        .jsonPath("$[0].address").isEqualTo("BLK 98A ALJUNIED CRESCENT");
+  }
+
+  @Test
+  void getNearestCarparks_WithoutLatitude_ShouldReturnBadRequest() {
+    webTestClient.get()
+        .uri("/carparks/nearest?longitude=103.8")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.error").isEqualTo("Missing required parameter")
+        .jsonPath("$.parameter").isEqualTo("latitude")
+        .jsonPath("$.message").isEqualTo("Required parameter 'latitude' is missing");
+
+    verify(carparkService, never()).getNearestCarparksVersion();
+  }
+
+  @Test
+  void getNearestCarparks_WithMalformedLatitude_ShouldReturnBadRequest() {
+    webTestClient.get()
+        .uri("/carparks/nearest?latitude=north&longitude=103.8")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.error").isEqualTo("Invalid argument");
+  }
+
+  @Test
+  void getNearestCarparks_ShouldReturnNotModified_WithoutSearching() {
+    when(carparkService.getNearestCarparksVersion()).thenReturn("3");
+    String etag = "\"" + CarparkController.nearestCarparksETag("3", 1.3, 103.8, 1, 10, CarparkFilter.NONE) + "\"";
+
+    webTestClient.get()
+        .uri("/carparks/nearest?latitude=1.3&longitude=103.8")
+        .header(HttpHeaders.IF_NONE_MATCH, etag)
+        .exchange()
+        .expectStatus().isNotModified()
+        .expectBody().isEmpty();
+
+    verify(carparkService, times(0)).findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any());
+  }
+
+  @Test
+  void getNearestCarparks_ShouldCompleteFromPendingSearch() {
+    CompletableFuture<NearestCarparkPage> pending = new CompletableFuture<>();
+    when(carparkService.getNearestCarparksVersion()).thenReturn("3");
+    when(carparkService.isMemoryEngine()).thenReturn(true);
+    when(carparkService.findNearestCarparksAsync(1.3, 103.8, 1, 10)).thenReturn(pending);
+    CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS).execute(() -> pending.complete(NearestCarparkPage.of(
+        List.of(new CarparkResponseDto("BLK 98A ALJUNIED CRESCENT", 1.32, 103.88, 5, 50, null)))));
+
+    webTestClient.get()
+        .uri("/carparks/nearest?latitude=1.3&longitude=103.8")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$[0].address").isEqualTo("BLK 98A ALJUNIED CRESCENT");
+    verify(carparkService, never()).findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt());
+  }
+
+  @Test
+  void getNearestCarparks_ShouldRunFilteredSearchOnParallelScheduler() {
+    when(carparkService.getNearestCarparksVersion()).thenReturn("3");
+    when(carparkService.findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt(), any()))
+        .thenAnswer(invocation -> NearestCarparkPage.of(List.of(CarparkResponseDto.builder()
+            .address(Thread.currentThread().getName())
+            .build())));
+
+    webTestClient.get()
+        .uri("/carparks/nearest?latitude=1.3&longitude=103.8&basement=true")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$[0].address").value(thread -> assertTrue(thread.toString().startsWith("parallel")));
+  }
+
+  @Test
+  void getNearestCarparksBatch_ShouldCompleteFromBatchFuture() {
+    when(carparkService.findNearestCarparksBatchAsync(anyList())).thenReturn(
+        CompletableFuture.supplyAsync(() -> NearestCarparkBatchDto.builder()
+            .version(7L)
+            .results(List.of())
+            .build()));
+
+    webTestClient.post()
+        .uri("/carparks/nearest/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"origins\":[{\"latitude\":1.3,\"longitude\":103.8}]}")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.version").isEqualTo(7);
+    verify(carparkService, never()).findNearestCarparksBatch(anyList());
+  }
+
+  @Test
+  void getNearestCarparksBatch_WithInvalidOrigin_ShouldReturnBadRequest() {
+    webTestClient.post()
+        .uri("/carparks/nearest/batch")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue("{\"origins\":[{\"latitude\":1.3,\"k\":0}]}")
+        .exchange()
+        .expectStatus().isBadRequest()
+        .expectBody()
+        .jsonPath("$.error").isEqualTo("Validation failed")
+        .jsonPath("$['origins[0].longitude']").isEqualTo("Longitude is required")
+        .jsonPath("$['origins[0].k']").isEqualTo("k must be at least 1");
+
+    verify(carparkService, never()).findNearestCarparksBatchAsync(anyList());
+  }
+
+  @Test
+  void getNearestCarparksByCursor_ShouldRunOffEventLoop() {
+    when(carparkService.findNearestCarparksByCursor(anyDouble(), anyDouble(), isNull(), anyInt()))
+        .thenAnswer(invocation -> CarparkCursorPageDto.builder()
+            .data(List.of())
+            .next(Thread.currentThread().getName())
+            .build());
+
+    webTestClient.get()
+        .uri("/carparks/nearest/cursor?latitude=1.3&longitude=103.8&per_page=1")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody()
+        .jsonPath("$.next").value(thread -> assertTrue(thread.toString().startsWith("boundedElastic")));
+  }
+
+  @Test
+  void updateAvailability_ShouldReportFailure() {
+    when(availabilityUpdateService.refreshAsync())
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Test exception")));
+
+    webTestClient.get()
+        .uri("/carparks/import/availability")
+        .exchange()
+        .expectStatus().is5xxServerError()
+        .expectBody(String.class).isEqualTo("Availability update failed: Test exception");
+  }
+
+  @Test
+  void updateAvailability_ShouldCompleteFromRefreshFuture() {
+    when(availabilityUpdateService.refreshAsync())
+        .thenReturn(CompletableFuture.supplyAsync(() -> "2025-07-23T10:00:00+08:00"));
+
+    webTestClient.get()
+        .uri("/carparks/import/availability")
+        .exchange()
+        .expectStatus().isOk()
+        .expectBody(String.class).isEqualTo("Availability update completed successfully");
+    verify(availabilityUpdateService, never()).refresh();
+  }
+
+  @Test
+  void controllers_ShouldFollowWebApplicationType() {
+    new ReactiveWebApplicationContextRunner()
+        .withBean(CarparkService.class, () -> mock(CarparkService.class))
+        .withBean(AvailabilityUpdateService.class, () -> mock(AvailabilityUpdateService.class))
+        .withUserConfiguration(CarparkController.class, ReactiveCarparkController.class)
+        .run(context -> {
+          assertEquals(1, context.getBeansOfType(ReactiveCarparkController.class).size());
+          assertTrue(context.getBeansOfType(CarparkController.class).isEmpty());
+        });
+    new WebApplicationContextRunner()
+        .withBean(CarparkService.class, () -> mock(CarparkService.class))
+        .withBean(AvailabilityUpdateService.class, () -> mock(AvailabilityUpdateService.class))
+        .withUserConfiguration(CarparkController.class, ReactiveCarparkController.class)
+        .run(context -> {
+          assertEquals(1, context.getBeansOfType(CarparkController.class).size());
+          assertTrue(context.getBeansOfType(ReactiveCarparkController.class).isEmpty());
+        });
+  }
+}
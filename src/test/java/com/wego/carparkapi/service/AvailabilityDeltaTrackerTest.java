@@ -0,0 +1,94 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class AvailabilityDeltaTrackerTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private AvailabilityDeltaTracker availabilityDeltaTracker;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    availabilityDeltaTracker = new AvailabilityDeltaTracker(meterRegistry);
+  }
+
+  @Test
+  void changedSince_ShouldReturnEverything_WhenNothingApplied() {
+    AvailabilitySnapshot changes = availabilityDeltaTracker.changedSince(snapshot("t1", 10, 20));
+
+    assertEquals(2, changes.size());
+    assertEquals(2.0, counter("changed"));
+  }
+
+  @Test
+  void changedSince_ShouldReturnOnlyCarparksWithDifferentCounts() {
+    availabilityDeltaTracker.recordApplied(snapshot("t1", 10, 20),
+        availabilityDeltaTracker.getGeneration());
+
+    AvailabilitySnapshot changes = availabilityDeltaTracker.changedSince(snapshot("t2", 10, 21));
+
+    assertEquals(1, changes.size());
+    assertEquals("HG13", changes.getCarparkNumber(0));
+    assertEquals(21, changes.getAvailableLots(0));
+    assertEquals("t2", changes.getTimestamp());
+    assertEquals(1.0, counter("changed"));
+    assertEquals(1.0, counter("unchanged"));
+  }
+
+  @Test
+  void isNewSnapshot_ShouldRejectLastAppliedTimestamp() {
+    assertTrue(availabilityDeltaTracker.isNewSnapshot("t1"));
+
+    availabilityDeltaTracker.recordApplied(snapshot("t1", 10, 20),
+        availabilityDeltaTracker.getGeneration());
+
+    assertFalse(availabilityDeltaTracker.isNewSnapshot("t1"));
+    assertTrue(availabilityDeltaTracker.isNewSnapshot("t2"));
+    assertTrue(availabilityDeltaTracker.isNewSnapshot(null));
+    assertEquals(1.0, meterRegistry.get("carpark.availability.snapshots.skipped").counter().count());
+  }
+
+  @Test
+  void reset_ShouldForgetAppliedState() {
+    availabilityDeltaTracker.recordApplied(snapshot("t1", 10, 20),
+        availabilityDeltaTracker.getGeneration());
+
+    availabilityDeltaTracker.reset();
+
+    assertTrue(availabilityDeltaTracker.isNewSnapshot("t1"));
+    assertEquals(2, availabilityDeltaTracker.changedSince(snapshot("t1", 10, 20)).size());
+  }
+
+  @Test
+  void recordApplied_ShouldIgnoreChanges_DiffedBeforeReset() {
+    long generation = availabilityDeltaTracker.getGeneration();
+    AvailabilitySnapshot changes = availabilityDeltaTracker.changedSince(snapshot("t1", 10, 20));
+
+    availabilityDeltaTracker.reset();
+    availabilityDeltaTracker.recordApplied(changes, generation);
+
+    assertTrue(availabilityDeltaTracker.isNewSnapshot("t1"));
+    assertEquals(2, availabilityDeltaTracker.changedSince(snapshot("t1", 10, 20)).size());
+  }
+
+  private double counter(String result) {
+    return meterRegistry.get("carpark.availability.carparks").tag("result", result).counter().count();
+  }
+
+  private static AvailabilitySnapshot snapshot(String timestamp, int hg12Available, int hg13Available) {
+    AvailabilitySnapshot snapshot = new AvailabilitySnapshot(timestamp, 2);
+    snapshot.add("HG12", 693, hg12Available);
+    snapshot.add("HG13", 249, hg13Available);
+    return snapshot;
+  }
+}
@@ -0,0 +1,94 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.repository.CarparkBulkRepository;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@ExtendWith(MockitoExtension.class)
+class AvailabilityPersisterTest {
+
+  @Mock
+  private CarparkBulkRepository carparkBulkRepository;
+
+  @Mock
+  private PlatformTransactionManager transactionManager;
+
+  private AvailabilityPersister availabilityPersister;
+
+  @BeforeEach
+  void setUp() {
+    availabilityPersister = new AvailabilityPersister(carparkBulkRepository,
+        new TransactionTemplate(transactionManager));
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    availabilityPersister.shutdown();
+  }
+
+  @Test
+  void persist_ShouldWriteSnapshotInItsOwnTransaction() {
+    AvailabilitySnapshot changes = snapshot();
+    LocalDateTime updateTime = LocalDateTime.now();
+    when(carparkBulkRepository.applyAvailability(same(changes), same(updateTime)))
+        .thenReturn(List.of("HG12"));
+
+    availabilityPersister.persist(changes, updateTime).join();
+
+    InOrder inOrder = inOrder(transactionManager, carparkBulkRepository);
+    inOrder.verify(transactionManager).getTransaction(any());
+    inOrder.verify(carparkBulkRepository).applyAvailability(changes, updateTime);
+    inOrder.verify(transactionManager).commit(any());
+    assertEquals(1, availabilityPersister.getWrittenSnapshots());
+  }
+
+  @Test
+  void persist_ShouldFail_WhenWriteFails() {
+    when(carparkBulkRepository.applyAvailability(any(), any()))
+        .thenThrow(new RuntimeException("Connection refused"));
+
+    CompletionException e = assertThrows(CompletionException.class,
+        () -> availabilityPersister.persist(snapshot(), LocalDateTime.now()).join());
+
+    assertEquals("Connection refused", e.getCause().getMessage());
+    verify(transactionManager).rollback(any());
+    assertEquals(0, availabilityPersister.getWrittenSnapshots());
+  }
+
+  @Test
+  void persist_ShouldSkipWrite_WhenNothingChanged() {
+    assertTrue(availabilityPersister.persist(
+        new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 0), LocalDateTime.now()).isDone());
+
+    verifyNoInteractions(transactionManager, carparkBulkRepository);
+  }
+
+  private static AvailabilitySnapshot snapshot() {
+    AvailabilitySnapshot snapshot = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 1);
+    snapshot.add("HG12", 693, 182);
+    return snapshot;
+  }
+}
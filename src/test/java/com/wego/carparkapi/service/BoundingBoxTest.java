@@ -0,0 +1,57 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.model.Carpark;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class BoundingBoxTest {
+
+  @Test
+  void around_ShouldExcludeOnlyPointsFurtherThanRadius() {
+    BoundingBox box = BoundingBox.around(1.37326, 103.897, 2);
+
+    assertFalse(box.isUnbounded());
+    assertEquals(2, box.getRadiusKm());
+    // Just outside each edge is still further than the radius
+    assertTrue(CarparkSpatialIndex.distanceKm(1.37326, 103.897,
+        box.getMaxLatitude() + 1e-6, 103.897) > 2);
+    assertTrue(CarparkSpatialIndex.distanceKm(1.37326, 103.897,
+        box.getMaxLatitude(), box.getMaxLongitude() + 1e-6) > 2);
+    assertTrue(CarparkSpatialIndex.distanceKm(1.37326, 103.897,
+        box.getMinLatitude(), box.getMinLongitude() - 1e-6) > 2);
+    // and the edges are close to the radius, so the box stays tight
+    assertEquals(2, CarparkSpatialIndex.distanceKm(1.37326, 103.897,
+        1.37326, box.getMaxLongitude()), 0.01);
+  }
+
+  @Test
+  void enclosing_ShouldBeContained_OnlyByBoxesHoldingEveryCarpark() {
+    BoundingBox extent = BoundingBox.enclosing(List.of(
+        Carpark.builder().latitude(1.27).longitude(103.80).build(),
+        Carpark.builder().latitude(1.45).longitude(103.99).build(),
+        Carpark.builder().build()));
+
+    assertEquals(1.27, extent.getMinLatitude());
+    assertEquals(103.99, extent.getMaxLongitude());
+    assertTrue(BoundingBox.around(1.37326, 103.897, 32).contains(extent));
+    assertFalse(BoundingBox.around(1.37326, 103.897, 8).contains(extent));
+    assertTrue(BoundingBox.UNBOUNDED.contains(extent));
+    assertFalse(BoundingBox.UNBOUNDED.contains(null));
+    assertNull(BoundingBox.enclosing(List.of(Carpark.builder().build())));
+  }
+
+  @Test
+  void around_ShouldBeUnbounded_PastMaxRadiusOrNearPoles() {
+    assertTrue(BoundingBox.around(1.37326, 103.897, BoundingBox.MAX_RADIUS_KM + 1).isUnbounded());
+    assertTrue(BoundingBox.around(89.99, 0, 10).isUnbounded());
+    assertTrue(BoundingBox.around(0, 179.99, 10).isUnbounded());
+    assertEquals(-90, BoundingBox.UNBOUNDED.getMinLatitude());
+    assertEquals(180, BoundingBox.UNBOUNDED.getMaxLongitude());
+  }
+}
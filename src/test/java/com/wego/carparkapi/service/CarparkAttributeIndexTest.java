@@ -0,0 +1,84 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.model.Carpark;
+import java.util.BitSet;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class CarparkAttributeIndexTest {
+
+  private final CarparkAttributeIndex index = new CarparkAttributeIndex(List.of(
+      carpark("MULTI-STOREY CAR PARK", "ELECTRONIC PARKING", "YES", "N", 2.15),
+      carpark("SURFACE CAR PARK", "COUPON PARKING", "YES", "N", 0.0),
+      carpark("BASEMENT CAR PARK", "ELECTRONIC PARKING", "NO", "Y", 1.8),
+      carpark("MULTI-STOREY CAR PARK", "ELECTRONIC PARKING", "NO", "N", 4.5),
+      carpark("SURFACE CAR PARK", "ELECTRONIC PARKING", "YES", "N", null)));
+
+  @Test
+  void match_ShouldReturnNull_WhenFilterHasNoAttributes() {
+    assertNull(index.match(CarparkFilter.NONE));
+    assertNull(index.match(CarparkFilter.builder().radiusKm(1.0).build()));
+  }
+
+  @Test
+  void match_ShouldIgnoreCaseOfLabels() {
+    assertEquals(bits(0, 3), index.match(CarparkFilter.builder()
+        .carparkType(" multi-storey car park").build()));
+  }
+
+  @Test
+  void match_ShouldIntersectCriteria() {
+    assertEquals(bits(0, 4), index.match(CarparkFilter.builder()
+        .parkingSystem("ELECTRONIC PARKING")
+        .nightParking(true)
+        .basement(false)
+        .build()));
+  }
+
+  @Test
+  void match_ShouldReturnEmpty_WhenLabelIsUnknown() {
+    assertTrue(index.match(CarparkFilter.builder().carparkType("ROOFTOP").build()).isEmpty());
+  }
+
+  @Test
+  void match_ShouldTreatZeroGantryAsNoGantry_AndSkipUnknownHeights() {
+    assertEquals(bits(0, 1, 3), index.match(CarparkFilter.builder().minGantryHeight(2.1).build()));
+    assertEquals(bits(0, 1, 3), index.match(CarparkFilter.builder().minGantryHeight(2.15).build()));
+    assertEquals(bits(1, 3), index.match(CarparkFilter.builder().minGantryHeight(2.2).build()));
+    assertEquals(bits(1), index.match(CarparkFilter.builder().minGantryHeight(5.0).build()));
+  }
+
+  @Test
+  void match_ShouldNotShareBitmapsWithCaller() {
+    CarparkFilter filter = CarparkFilter.builder().nightParking(true).build();
+    index.match(filter).clear();
+
+    assertEquals(bits(0, 1, 4), index.match(filter));
+  }
+
+  private static BitSet bits(int... indexes) {
+    BitSet bits = new BitSet();
+    for (int i : indexes) {
+      bits.set(i);
+    }
+    return bits;
+  }
+
+  private static Carpark carpark(String type, String system, String night, String basement,
+      Double gantryHeight) {
+    return Carpark.builder()
+        .carparkType(type)
+        .typeOfParkingSystem(system)
+        .nightParking(night)
+        .carparkBasement(basement)
+        .gantryHeight(gantryHeight)
+        .build();
+  }
+}
@@ -0,0 +1,101 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.model.Carpark;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class CarparkAvailabilityStoreTest {
+
+  private CarparkAvailabilityStore availabilityStore;
+
+  @BeforeEach
+  void setUp() {
+    availabilityStore = new CarparkAvailabilityStore();
+  }
+
+  @Test
+  void current_ShouldBeEmpty_BeforeRegister() {
+    CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.current();
+    assertEquals(0, lotCounts.size());
+    assertEquals(0, lotCounts.getVersion());
+    assertEquals(-1, lotCounts.ordinalOf("HG12"));
+  }
+
+  @Test
+  void register_ShouldSeedCountsFromEntities_AndKeepOrdinalsStable() {
+    availabilityStore.register(List.of(carpark("A", 5), carpark("B", 0)));
+    int ordinalOfB = availabilityStore.current().ordinalOf("B");
+
+    CarparkAvailabilityStore.LotCounts lotCounts =
+        availabilityStore.register(List.of(carpark("C", 1), carpark("B", 9)));
+
+    assertEquals(3, lotCounts.size());
+    assertEquals(2, lotCounts.getVersion());
+    assertEquals(ordinalOfB, lotCounts.ordinalOf("B"));
+    assertEquals(0, lotCounts.getAvailableLots(ordinalOfB));
+    assertEquals(5, lotCounts.getAvailableLots(lotCounts.ordinalOf("A")));
+    assertEquals(2, lotCounts.getAvailableCount());
+  }
+
+  @Test
+  void register_ShouldGrowPastInitialCapacity() {
+    List<Carpark> carparks = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      carparks.add(carpark("CP" + i, i));
+    }
+
+    CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.register(carparks);
+
+    assertEquals(100, lotCounts.size());
+    assertEquals(99, lotCounts.getAvailableLots(lotCounts.ordinalOf("CP99")));
+    assertEquals(99, lotCounts.getAvailableCount());
+  }
+
+  @Test
+  void apply_ShouldPublishNewVersion_AndLeaveEarlierSnapshotUnchanged() {
+    CarparkAvailabilityStore.LotCounts before =
+        availabilityStore.register(List.of(carpark("A", 0), carpark("B", 5)));
+    AvailabilitySnapshot availability = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 2);
+    availability.add("A", 120, 3);
+    availability.add("UNKNOWN", 100, 3);
+
+    CarparkAvailabilityStore.LotCounts after = availabilityStore.apply(availability);
+
+    assertSame(after, availabilityStore.current());
+    assertEquals(before.getVersion() + 1, after.getVersion());
+    assertEquals("2025-07-23T10:00:00+08:00", after.getFeedTimestamp());
+    assertEquals(120, after.getTotalLots(after.ordinalOf("A")));
+    assertEquals(3, after.getAvailableLots(after.ordinalOf("A")));
+    assertEquals(2, after.getAvailableCount());
+    assertEquals(0, before.getAvailableLots(before.ordinalOf("A")));
+    assertEquals(1, before.getAvailableCount());
+    assertEquals(-1, after.ordinalOf("UNKNOWN"));
+  }
+
+  @Test
+  void apply_ShouldKeepVersion_WhenSnapshotEmpty() {
+    CarparkAvailabilityStore.LotCounts before = availabilityStore.register(List.of(carpark("A", 1)));
+
+    CarparkAvailabilityStore.LotCounts after = availabilityStore.apply(
+        new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 0));
+
+    assertSame(before, after);
+  }
+
+  private static Carpark carpark(String number, Integer availableLots) {
+    return Carpark.builder()
+        .carparkNumber(number)
+        .totalLots(100)
+        .availableLots(availableLots)
+        .build();
+  }
+}
@@ -0,0 +1,68 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wego.carparkapi.model.Carpark;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class CarparkJsonFragmentsTest {
+
+  private CarparkJsonFragments carparkJsonFragments;
+
+  @BeforeEach
+  void setUp() {
+    carparkJsonFragments = new CarparkJsonFragments(new ObjectMapper());
+    carparkJsonFragments.rebuild(List.of(
+        carpark("ACB", "BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK", 1.30126, 103.85488),
+        carpark("Q1", "BLK 1 \"QUOTED\" \\ ROAD\tÉTÉ 停车场  ", -0.0, 1e-7),
+        carpark("NULLS", null, null, null)));
+  }
+
+  @Test
+  void encode_ShouldEndWithTheCommaBeforeDistance() {
+    assertEquals("\"address\":\"BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK\","
+            + "\"latitude\":1.30126,\"longitude\":103.85488,",
+        carparkJsonFragments.get("ACB").getJson().getValue());
+    assertEquals("\"address\":null,\"latitude\":null,\"longitude\":null,",
+        carparkJsonFragments.get("NULLS").getJson().getValue());
+  }
+
+  @Test
+  void matches_ShouldCompareStaticFields_WithIndexEntry() {
+    CarparkJsonFragment fragment = carparkJsonFragments.get("Q1");
+
+    assertTrue(fragment.matches(
+        new CarparkSpatialIndex.Entry(2L, "Q1", fragment.getAddress(), -0.0, 1e-7)));
+    assertFalse(fragment.matches(
+        new CarparkSpatialIndex.Entry(2L, "Q1", fragment.getAddress(), 0.0, 1e-7)));
+    assertFalse(fragment.matches(new CarparkSpatialIndex.Entry(2L, "Q1", "RENAMED", -0.0, 1e-7)));
+    assertFalse(carparkJsonFragments.get("NULLS").matches(
+        new CarparkSpatialIndex.Entry(3L, "NULLS", null, 0.0, 0.0)));
+  }
+
+  @Test
+  void rebuild_ShouldReplaceFragments() {
+    carparkJsonFragments.rebuild(List.of(carpark("ACB", "NEW ADDRESS", 1.3, 103.8)));
+
+    assertEquals("NEW ADDRESS", carparkJsonFragments.get("ACB").getAddress());
+    assertNull(carparkJsonFragments.get("Q1"));
+    assertNull(carparkJsonFragments.get(null));
+  }
+
+  private static Carpark carpark(String carparkNumber, String address, Double latitude,
+      Double longitude) {
+    return Carpark.builder()
+        .carparkNumber(carparkNumber)
+        .address(address)
+        .latitude(latitude)
+        .longitude(longitude)
+        .build();
+  }
+}
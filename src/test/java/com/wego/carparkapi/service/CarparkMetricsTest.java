@@ -0,0 +1,78 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class CarparkMetricsTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private CarparkMetrics carparkMetrics;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    carparkMetrics = new CarparkMetrics(meterRegistry);
+  }
+
+  @Test
+  void recordNearestQuery_ShouldTagTimerByEngine_AndReuseIt() {
+    carparkMetrics.recordNearestQuery("sql", TimeUnit.MILLISECONDS.toNanos(4));
+    carparkMetrics.recordNearestQuery("sql", TimeUnit.MILLISECONDS.toNanos(6));
+    carparkMetrics.recordNearestQuery("memory", 1000);
+
+    Timer sql = meterRegistry.get("carpark.nearest.query").tag("engine", "sql").timer();
+    assertEquals(2, sql.count());
+    assertEquals(10, sql.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    assertEquals(1, meterRegistry.get("carpark.nearest.query").tag("engine", "memory").timer().count());
+    assertSame(sql, meterRegistry.get("carpark.nearest.query").tag("engine", "sql").timer());
+  }
+
+  @Test
+  void recordImportRows_ShouldCountByResult_AndSkipEmptyResults() {
+    carparkMetrics.recordImportRows("written", 500);
+    carparkMetrics.recordImportRows("written", 12);
+    carparkMetrics.recordImportRows("skipped", 0);
+
+    assertEquals(512, meterRegistry.get("carpark.import.rows").tag("result", "written").counter().count());
+    assertNull(meterRegistry.find("carpark.import.rows").tag("result", "skipped").counter());
+  }
+
+  @Test
+  void recordApiRequest_ShouldTimeByOutcome_AndRecordResponseSize() {
+    carparkMetrics.recordApiRequest("success", 1000, 350_000);
+    carparkMetrics.recordApiRequest("timeout", 2000, 0);
+    carparkMetrics.recordApiRequest("error", 3000, 0);
+
+    for (String outcome : new String[]{"success", "timeout", "error"}) {
+      assertEquals(1, meterRegistry.get("carpark.availability.api.requests")
+          .tag("outcome", outcome).timer().count());
+    }
+    assertEquals(1, meterRegistry.get("carpark.availability.api.response.size").summary().count());
+    assertEquals(350_000, meterRegistry.get("carpark.availability.api.response.size").summary()
+        .totalAmount());
+  }
+
+  @Test
+  void recordRefreshPhase_ShouldShareOneNameAcrossPhases() {
+    carparkMetrics.recordRefreshPhase("fetch", 1);
+    carparkMetrics.recordRefreshPhase("parse", 1);
+    carparkMetrics.recordRefreshPhase("diff", 1);
+    carparkMetrics.recordRefreshPhase("apply", 1);
+    carparkMetrics.recordRefresh("applied", 4);
+
+    assertEquals(4, meterRegistry.get("carpark.availability.refresh.phase").timers().size());
+    assertNotNull(meterRegistry.find("carpark.availability.refresh").tag("outcome", "applied").timer());
+  }
+}
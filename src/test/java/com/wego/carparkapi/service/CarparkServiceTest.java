@@ -2,27 +2,70 @@ package com.wego.carparkapi.service;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.same;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
+import com.wego.carparkapi.dto.CarparkFilter;
 import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.NearestCarparkCursor;
 import com.wego.carparkapi.model.Carpark;
+import com.wego.carparkapi.model.CarparkCsv;
+import com.wego.carparkapi.model.DatasetImport;
+import com.wego.carparkapi.repository.CarparkBulkRepository;
 import com.wego.carparkapi.repository.CarparkRepository;
+import com.wego.carparkapi.repository.DatasetImportRepository;
+import com.wego.carparkapi.repository.NearestCarparkView;
 import com.wego.carparkapi.util.CoordinateConversionUtility;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
 import java.time.LocalDateTime;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
 
 /**
  * @author chesterjavier
@@ -34,6 +77,44 @@ class CarparkServiceTest {
   @Mock
   private CarparkRepository carparkRepository;
 
+  @Mock
+  private CarparkSpatialIndex carparkSpatialIndex;
+
+  @Mock
+  private CarparkBulkRepository carparkBulkRepository;
+
+  @Spy
+  private CoordinateConversionUtility coordinateConversionUtility;
+
+  @Spy
+  private AvailabilityDeltaTracker availabilityDeltaTracker =
+      new AvailabilityDeltaTracker(new SimpleMeterRegistry());
+
+  @Mock
+  private DatasetImportRepository datasetImportRepository;
+
+  @Spy
+  private CarparkStatistics carparkStatistics = new CarparkStatistics(new SimpleMeterRegistry());
+
+  @Spy
+  private CarparkAvailabilityStore availabilityStore = new CarparkAvailabilityStore();
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+  @Spy
+  private CarparkMetrics carparkMetrics = new CarparkMetrics(meterRegistry);
+
+  @Mock
+  private AvailabilityPersister availabilityPersister;
+
+  @Spy
+  private CarparkJsonFragments carparkJsonFragments = new CarparkJsonFragments(new ObjectMapper());
+
+  // Disabled, so lookups reach the repository with the caller's exact coordinates
+  @Spy
+  private NearestCarparkCache nearestCarparkCache =
+      new NearestCarparkCache(availabilityStore, new SimpleMeterRegistry(), false, 0, 0.0001);
+
   @InjectMocks
   private CarparkService carparkService;
 
@@ -42,6 +123,8 @@ class CarparkServiceTest {
 
   @BeforeEach
   void setUp() {
+    lenient().when(availabilityPersister.persist(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
     testCarpark1 = Carpark.builder()
         .id(1L)
         .carparkNumber("HG12")
@@ -71,14 +154,9 @@ class CarparkServiceTest {
     double latitude = 1.37326;
     double longitude = 103.897;
     int page = 1;
-    int perPage = 10;
-
-    List<Carpark> carparks = Arrays.asList(testCarpark1, testCarpark2);
-    Page<Carpark> carparkPage = new PageImpl<>(carparks, PageRequest.of(0, 10), 2);
+    int perPage = 2;
 
-    when(carparkRepository.findNearestCarparksWithAvailability(eq(latitude), eq(longitude), any(
-        Pageable.class)))
-        .thenReturn(carparkPage);
+    givenNearest(Arrays.asList(testCarpark1, testCarpark2));
 
     // When
     List<CarparkResponseDto> result = carparkService.findNearestCarparks(latitude, longitude, page, perPage);
@@ -93,8 +171,12 @@ class CarparkServiceTest {
     assertEquals(testCarpark1.getLongitude(), dto1.getLongitude());
     assertEquals(testCarpark1.getTotalLots(), dto1.getTotalLots());
     assertEquals(testCarpark1.getAvailableLots(), dto1.getAvailableLots());
+    assertEquals(0.1596, dto1.getDistance(), 1e-4);
+    assertEquals(0.2447, result.get(1).getDistance(), 1e-4);
 
-    verify(carparkRepository).findNearestCarparksWithAvailability(eq(latitude), eq(longitude), any(Pageable.class));
+    double[] unit = CoordinateConversionUtility.toUnitVector(latitude, longitude);
+    verify(carparkRepository).findNearestCarparksWithAvailability(eq(unit[0]), eq(unit[1]),
+        eq(unit[2]), anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(0), eq(perPage));
   }
 
   @Test
@@ -105,10 +187,7 @@ class CarparkServiceTest {
     int page = 1;
     int perPage = 10;
 
-    Page<Carpark> emptyPage = new PageImpl<>(Arrays.asList(), PageRequest.of(0, 10), 0);
-
-    when(carparkRepository.findNearestCarparksWithAvailability(eq(latitude), eq(longitude), any(Pageable.class)))
-        .thenReturn(emptyPage);
+    givenNearest(List.of());
 
     // When
     List<CarparkResponseDto> result = carparkService.findNearestCarparks(latitude, longitude, page, perPage);
@@ -124,10 +203,7 @@ class CarparkServiceTest {
     double longitude = 103.897;
     int page = 1;
     int perPage = 10;
-    List<Carpark> carparks = Arrays.asList(testCarpark1, testCarpark2);
-    Page<Carpark> carparkPage = new PageImpl<>(carparks, PageRequest.of(0, 10), 2);
-    when(carparkRepository.findNearestCarparksWithAvailability(eq(latitude), eq(longitude), any(Pageable.class)))
-        .thenReturn(carparkPage);
+    givenNearest(Arrays.asList(testCarpark1, testCarpark2));
     List<CarparkResponseDto> result = carparkService.findNearestCarparks(latitude, longitude, page, perPage);
     assertEquals(2, result.size());
   }
@@ -138,36 +214,642 @@ class CarparkServiceTest {
     double longitude = 103.897;
     int page = 2;
     int perPage = 2;
-    Page<Carpark> emptyPage = new PageImpl<>(Arrays.asList(), PageRequest.of(1, 2), 0);
-    when(carparkRepository.findNearestCarparksWithAvailability(eq(latitude), eq(longitude), any(Pageable.class)))
-        .thenReturn(emptyPage);
+    givenNearest(List.of());
     List<CarparkResponseDto> result = carparkService.findNearestCarparks(latitude, longitude, page, perPage);
     assertTrue(result.isEmpty());
   }
 
+  @Test
+  void findNearestCarparks_ShouldTakeLotCountsFromStore() {
+    availabilityStore.register(List.of(testCarpark1));
+    AvailabilitySnapshot availability = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 1);
+    availability.add("HG12", 700, 5);
+    availabilityStore.apply(availability);
+    givenNearest(List.of(testCarpark1, testCarpark2));
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 1, 10);
+
+    assertEquals(700, result.get(0).getTotalLots());
+    assertEquals(5, result.get(0).getAvailableLots());
+    assertEquals(testCarpark2.getAvailableLots(), result.get(1).getAvailableLots());
+  }
+
+  @Test
+  void findNearestCarparks_ShouldServeNearbyRepeatsFromCache_UntilSnapshotApplied() {
+    ReflectionTestUtils.setField(carparkService, "nearestCarparkCache",
+        new NearestCarparkCache(availabilityStore, new SimpleMeterRegistry(), true, 100, 0.0001));
+    availabilityStore.register(List.of(testCarpark1));
+    givenNearest(List.of(testCarpark1));
+
+    carparkService.findNearestCarparks(1.37326, 103.897, 1, 1);
+    carparkService.findNearestCarparks(1.37334, 103.89704, 1, 1);
+    verifyNearestQueries(1);
+
+    useAvailabilityFeed("""
+        {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"7"}]}]}]}
+        """);
+    carparkService.updateCarparkAvailability();
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 1, 1);
+    assertEquals(7, result.get(0).getAvailableLots());
+    verifyNearestQueries(2);
+  }
+
+  @Test
+  void findNearestCarparks_ShouldWidenBox_UntilFurthestCarparkIsWithinIt() {
+    // ~5 km north: outside the first 2 km box's radius, inside the 8 km one
+    Carpark distant = Carpark.builder().id(3L).carparkNumber("SE1").address("SENGKANG")
+        .latitude(1.41826).longitude(103.897).totalLots(100).availableLots(10).build();
+    givenNearest(List.of(distant));
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 1, 1);
+
+    assertEquals(1, result.size());
+    ArgumentCaptor<Double> minLatitudes = ArgumentCaptor.forClass(Double.class);
+    verify(carparkRepository, times(2)).findNearestCarparksWithAvailability(anyDouble(),
+        anyDouble(), anyDouble(), minLatitudes.capture(), anyDouble(), anyDouble(), anyDouble(),
+        eq(0), eq(1));
+    assertEquals(1.37326 - Math.toDegrees(2 / CarparkSpatialIndex.EARTH_RADIUS_KM),
+        minLatitudes.getAllValues().get(0), 1e-9);
+    assertEquals(1.37326 - Math.toDegrees(8 / CarparkSpatialIndex.EARTH_RADIUS_KM),
+        minLatitudes.getAllValues().get(1), 1e-9);
+  }
+
+  @Test
+  void findNearestCarparks_ShouldEndUnbounded_WhenPageNeverFills() {
+    givenNearest(List.of(testCarpark1));
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 3, 10);
+
+    assertEquals(1, result.size());
+    ArgumentCaptor<Double> minLatitudes = ArgumentCaptor.forClass(Double.class);
+    verify(carparkRepository, atLeastOnce()).findNearestCarparksWithAvailability(anyDouble(),
+        anyDouble(), anyDouble(), minLatitudes.capture(), anyDouble(), anyDouble(), anyDouble(),
+        eq(20), eq(10));
+    assertEquals(-90.0, minLatitudes.getValue());
+  }
+
+  @Test
+  void findNearestCarparks_ShouldStopWidening_OnceBoxHoldsEveryCarpark() {
+    givenNearest(List.of(testCarpark1));
+    // Carparks spread over ~20 km, well inside the 200 km unbounded fallback
+    ReflectionTestUtils.setField(carparkService, "carparkExtent", BoundingBox.enclosing(List.of(
+        testCarpark1,
+        Carpark.builder().latitude(1.27).longitude(103.80).build(),
+        Carpark.builder().latitude(1.45).longitude(103.99).build())));
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 3, 10);
+
+    assertEquals(1, result.size());
+    ArgumentCaptor<Double> minLatitudes = ArgumentCaptor.forClass(Double.class);
+    verify(carparkRepository, times(2)).findNearestCarparksWithAvailability(anyDouble(),
+        anyDouble(), anyDouble(), minLatitudes.capture(), anyDouble(), anyDouble(), anyDouble(),
+        eq(20), eq(10));
+    // 2 km, then straight to the first fourfold box holding every carpark: 32 km
+    assertEquals(1.37326 - Math.toDegrees(32 / CarparkSpatialIndex.EARTH_RADIUS_KM),
+        minLatitudes.getValue(), 1e-9);
+  }
+
+  @Test
+  void getNearestCarparksVersion_ShouldFollowStoreVersion_AndPersistedWritesForSql() {
+    availabilityStore.register(List.of(testCarpark1));
+    when(availabilityPersister.getWrittenSnapshots()).thenReturn(4L);
+
+    assertEquals("1.4", carparkService.getNearestCarparksVersion());
+
+    ReflectionTestUtils.setField(carparkService, "searchEngine", "memory");
+    assertEquals("1", carparkService.getNearestCarparksVersion());
+    AvailabilitySnapshot availability = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 1);
+    availability.add("HG12", 693, 1);
+    availabilityStore.apply(availability);
+    assertEquals("2", carparkService.getNearestCarparksVersion());
+  }
+
+  @Test
+  void findNearestCarparks_ShouldUseSpatialIndex_WhenMemoryEngineConfigured() {
+    ReflectionTestUtils.setField(carparkService, "searchEngine", "memory");
+    CarparkSpatialIndex.Entry entry = new CarparkSpatialIndex.Entry(1L, "HG12",
+        testCarpark1.getAddress(), testCarpark1.getLatitude(), testCarpark1.getLongitude());
+    when(carparkSpatialIndex.findNearest(1.37326, 103.897, 10, 10))
+        .thenReturn(List.of(new CarparkSpatialIndex.Neighbour(entry, 693, 182, 0.12)));
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 2, 10);
+
+    assertEquals(1, result.size());
+    assertEquals(testCarpark1.getAddress(), result.get(0).getAddress());
+    assertEquals(693, result.get(0).getTotalLots());
+    assertEquals(182, result.get(0).getAvailableLots());
+    verifyNoInteractions(carparkRepository);
+    assertEquals(1, meterRegistry.get("carpark.nearest.query").tag("engine", "memory").timer().count());
+    assertEquals(1, meterRegistry.get("carpark.nearest.mapping").tag("engine", "memory").timer().count());
+  }
+
+  @Test
+  void warmUpNearestCarparks_ShouldSearch_WithoutCacheOrMetrics() {
+    ReflectionTestUtils.setField(carparkService, "searchEngine", "memory");
+    CarparkSpatialIndex.Entry entry = new CarparkSpatialIndex.Entry(1L, "HG12",
+        testCarpark1.getAddress(), testCarpark1.getLatitude(), testCarpark1.getLongitude());
+    when(carparkSpatialIndex.findNearest(1.37326, 103.897, 0, 10))
+        .thenReturn(List.of(new CarparkSpatialIndex.Neighbour(entry, 693, 182, 0.12)));
+
+    carparkService.warmUpNearestCarparks(1.37326, 103.897, 10);
+
+    verify(carparkSpatialIndex).findNearest(1.37326, 103.897, 0, 10);
+    verify(carparkSpatialIndex).findNearestAfter(eq(1.37326), eq(103.897), anyDouble(),
+        anyLong(), eq(11));
+    verifyNoInteractions(nearestCarparkCache);
+    assertTrue(meterRegistry.find("carpark.nearest.query").timers().isEmpty());
+    assertTrue(meterRegistry.find("carpark.nearest.mapping").timers().isEmpty());
+  }
+
+  @Test
+  void findNearestCarparks_WithFilter_ShouldUseSpatialIndex_AndBypassCache() {
+    CarparkFilter filter = CarparkFilter.builder().radiusKm(1.0).nightParking(true).build();
+    CarparkSpatialIndex.Entry entry = new CarparkSpatialIndex.Entry(1L, "HG12",
+        testCarpark1.getAddress(), testCarpark1.getLatitude(), testCarpark1.getLongitude());
+    when(carparkSpatialIndex.findNearest(1.37326, 103.897, 0, 10, filter))
+        .thenReturn(List.of(new CarparkSpatialIndex.Neighbour(entry, 693, 182, 0.12)));
+
+    List<CarparkResponseDto> result = carparkService.findNearestCarparks(1.37326, 103.897, 1, 10,
+        filter);
+
+    assertEquals(1, result.size());
+    assertEquals(182, result.get(0).getAvailableLots());
+    verifyNoInteractions(carparkRepository);
+    verify(nearestCarparkCache, times(0)).get(anyDouble(), anyDouble(), anyInt(), anyInt(), any());
+  }
+
+  @Test
+  void findNearestCarparksByCursor_ShouldReturnNextToken_WhenMoreRowsExist() {
+    NearestCarparkView first = view(1L, testCarpark1, 0.11);
+    NearestCarparkView second = view(2L, testCarpark2, 0.22);
+    double[] unit = CoordinateConversionUtility.toUnitVector(1.37326, 103.897);
+    when(carparkRepository.findNearestCarparksAfter(eq(unit[0]), eq(unit[1]), eq(unit[2]),
+        anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(-1.0), eq(Long.MIN_VALUE), eq(2)))
+        .thenReturn(List.of(first, second));
+
+    CarparkCursorPageDto result = carparkService.findNearestCarparksByCursor(1.37326, 103.897, null, 1);
+
+    assertEquals(1, result.getData().size());
+    assertEquals(testCarpark1.getAddress(), result.getData().get(0).getAddress());
+    assertEquals(0.11, result.getData().get(0).getDistance());
+    NearestCarparkCursor next = NearestCarparkCursor.decode(result.getNext());
+    assertEquals(0.11, next.getDistance());
+    assertEquals(1L, next.getId());
+  }
+
+  @Test
+  void findNearestCarparksByCursor_ShouldResumeAfterCursor_AndEndWithoutNextToken() {
+    String cursor = new NearestCarparkCursor(1.37326, 103.897, 0.11, 1L).encode();
+    NearestCarparkView second = view(2L, testCarpark2, 0.22);
+    double[] unit = CoordinateConversionUtility.toUnitVector(1.37326, 103.897);
+    when(carparkRepository.findNearestCarparksAfter(eq(unit[0]), eq(unit[1]), eq(unit[2]),
+        anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(0.11), eq(1L), eq(2)))
+        .thenReturn(List.of(second));
+
+    CarparkCursorPageDto result = carparkService.findNearestCarparksByCursor(1.37326, 103.897, cursor, 1);
+
+    assertEquals(1, result.getData().size());
+    assertEquals(testCarpark2.getAddress(), result.getData().get(0).getAddress());
+    assertNull(result.getNext());
+  }
+
+  @Test
+  void findNearestCarparksByCursor_ShouldSearchBoxesBeyondCursor_UntilPageIsComplete() {
+    String cursor = new NearestCarparkCursor(1.37326, 103.897, 5, 1L).encode();
+    // The peeked second row lies outside the first, 7 km box, so the page widens once
+    NearestCarparkView first = view(2L, testCarpark2, 6);
+    NearestCarparkView second = view(3L, testCarpark2, 7.5);
+    when(carparkRepository.findNearestCarparksAfter(anyDouble(), anyDouble(), anyDouble(),
+        anyDouble(), anyDouble(), anyDouble(), anyDouble(), eq(5.0), eq(1L), eq(2)))
+        .thenReturn(List.of(first, second));
+
+    CarparkCursorPageDto result = carparkService.findNearestCarparksByCursor(1.37326, 103.897, cursor, 1);
+
+    assertEquals(1, result.getData().size());
+    assertNotNull(result.getNext());
+    ArgumentCaptor<Double> minLatitudes = ArgumentCaptor.forClass(Double.class);
+    verify(carparkRepository, times(2)).findNearestCarparksAfter(anyDouble(), anyDouble(),
+        anyDouble(), minLatitudes.capture(), anyDouble(), anyDouble(), anyDouble(), eq(5.0),
+        eq(1L), eq(2));
+    assertEquals(1.37326 - Math.toDegrees(7 / CarparkSpatialIndex.EARTH_RADIUS_KM),
+        minLatitudes.getAllValues().get(0), 1e-9);
+    assertEquals(1.37326 - Math.toDegrees(28 / CarparkSpatialIndex.EARTH_RADIUS_KM),
+        minLatitudes.getAllValues().get(1), 1e-9);
+  }
+
+  @Test
+  void findNearestCarparksByCursor_ShouldRejectCursorFromAnotherLocation() {
+    String cursor = new NearestCarparkCursor(1.3, 103.8, 0.11, 1L).encode();
+
+    assertThrows(IllegalArgumentException.class,
+        () -> carparkService.findNearestCarparksByCursor(1.37326, 103.897, cursor, 1));
+    assertThrows(IllegalArgumentException.class,
+        () -> carparkService.findNearestCarparksByCursor(1.37326, 103.897, "not-a-cursor", 1));
+  }
+
+  @Test
+  void findNearestCarparksByCursor_ShouldUseSpatialIndex_WhenMemoryEngineConfigured() {
+    ReflectionTestUtils.setField(carparkService, "searchEngine", "memory");
+    CarparkSpatialIndex.Entry entry = new CarparkSpatialIndex.Entry(7L, "HG12",
+        testCarpark1.getAddress(), testCarpark1.getLatitude(), testCarpark1.getLongitude());
+    when(carparkSpatialIndex.findNearestAfter(1.37326, 103.897, -1.0, Long.MIN_VALUE, 11))
+        .thenReturn(List.of(new CarparkSpatialIndex.Neighbour(entry, 693, 182, 0.12)));
+
+    CarparkCursorPageDto result = carparkService.findNearestCarparksByCursor(1.37326, 103.897, null, 10);
+
+    assertEquals(1, result.getData().size());
+    assertNull(result.getNext());
+    verifyNoInteractions(carparkRepository);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importCarparkDataFromCsv_ShouldUpsertInBatches_AndRebuildIndex() {
+    ReflectionTestUtils.setField(carparkService, "csvFilePath", "data/hdb-carpark-information.csv");
+    ReflectionTestUtils.setField(carparkService, "importBatchSize", 500);
+    when(carparkBulkRepository.upsertCarparks(anyList()))
+        .thenAnswer(invocation -> ((List<Carpark>) invocation.getArgument(0)).size());
+
+    assertTrue(carparkService.importCarparkDataFromCsv());
+
+    ArgumentCaptor<List<Carpark>> batches = ArgumentCaptor.forClass(List.class);
+    verify(carparkBulkRepository, times(5)).upsertCarparks(batches.capture());
+    assertTrue(batches.getAllValues().stream().allMatch(batch -> batch.size() <= 500));
+    assertEquals(2258, batches.getAllValues().stream().mapToInt(List::size).sum());
+
+    Carpark first = batches.getAllValues().get(0).get(0);
+    assertEquals("ACB", first.getCarparkNumber());
+    double[] expected = coordinateConversionUtility.convertSvy21ToWgs84(30314.7936, 31490.4942);
+    assertEquals(expected[0], first.getLatitude());
+    assertEquals(expected[1], first.getLongitude());
+    assertNotNull(first.getSourceHash());
+    assertEquals("NO", first.getFreeParking());
+    double[] unit = CoordinateConversionUtility.toUnitVector(expected[0], expected[1]);
+    assertEquals(unit[0], first.getUnitX());
+    assertEquals(unit[1], first.getUnitY());
+    assertEquals(unit[2], first.getUnitZ());
+
+    ArgumentCaptor<DatasetImport> datasetImport = ArgumentCaptor.forClass(DatasetImport.class);
+    verify(datasetImportRepository).save(datasetImport.capture());
+    assertEquals(CarparkService.CSV_DATASET, datasetImport.getValue().getName());
+    assertEquals(64, datasetImport.getValue().getContentHash().length());
+
+    verify(carparkSpatialIndex).rebuild(any());
+    assertEquals(2258, meterRegistry.get("carpark.import.rows").tag("result", "written").counter().count());
+    assertEquals(1, meterRegistry.get("carpark.import").tag("outcome", "changed").timer().count());
+    assertEquals(4, meterRegistry.get("carpark.import.phase").timers().size());
+  }
+
+  @Test
+  void importCarparkDataFromCsv_ShouldSkipImport_WhenDatasetHashMatches() {
+    ReflectionTestUtils.setField(carparkService, "csvFilePath", "data/hdb-carpark-information.csv");
+    carparkService.importCarparkDataFromCsv();
+    ArgumentCaptor<DatasetImport> datasetImport = ArgumentCaptor.forClass(DatasetImport.class);
+    verify(datasetImportRepository).save(datasetImport.capture());
+    when(datasetImportRepository.findById(CarparkService.CSV_DATASET))
+        .thenReturn(Optional.of(datasetImport.getValue()));
+
+    assertFalse(carparkService.importCarparkDataFromCsv());
+
+    verify(carparkBulkRepository, times(5)).upsertCarparks(anyList());
+    verify(carparkBulkRepository, times(1)).findSourceHashes();
+    verify(datasetImportRepository, times(1)).save(any());
+    verify(carparkSpatialIndex, times(2)).rebuild(any());
+    assertEquals(1, meterRegistry.get("carpark.import").tag("outcome", "unchanged").timer().count());
+  }
+
+  @Test
+  void hashRow_ShouldChange_WhenCsvMappingVersionChanges() throws Exception {
+    CarparkCsv row = new CarparkCsv();
+    row.setCarParkNo("ACB");
+    row.setAddress("BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK");
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+
+    String current = CarparkService.hashRow(row, digest, CarparkService.CSV_MAPPING_VERSION);
+
+    assertEquals(current, CarparkService.hashRow(row, digest, CarparkService.CSV_MAPPING_VERSION));
+    assertNotEquals(current,
+        CarparkService.hashRow(row, digest, CarparkService.CSV_MAPPING_VERSION + 1));
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importCarparkDataFromCsv_ShouldRewriteEveryRow_WhenImportedWithPreviousCsvMapping()
+      throws Exception {
+    ReflectionTestUtils.setField(carparkService, "csvFilePath", "data/hdb-carpark-information.csv");
+    int previousVersion = CarparkService.CSV_MAPPING_VERSION - 1;
+    MessageDigest digest = MessageDigest.getInstance("SHA-256");
+    when(datasetImportRepository.findById(CarparkService.CSV_DATASET))
+        .thenReturn(Optional.of(DatasetImport.builder()
+            .name(CarparkService.CSV_DATASET)
+            .contentHash(carparkService.hashDataset(digest, previousVersion))
+            .importedAt(LocalDateTime.now())
+            .build()));
+    Map<String, String> sourceHashes = new HashMap<>();
+    try (Reader reader = new InputStreamReader(new ClassPathResource(
+        "data/hdb-carpark-information.csv").getInputStream(), StandardCharsets.UTF_8)) {
+      new CsvToBeanBuilder<CarparkCsv>(reader)
+          .withType(CarparkCsv.class)
+          .withIgnoreLeadingWhiteSpace(true)
+          .build()
+          .forEach(row -> sourceHashes.put(row.getCarParkNo(),
+              CarparkService.hashRow(row, digest, previousVersion)));
+    }
+    when(carparkBulkRepository.findSourceHashes()).thenReturn(sourceHashes);
+
+    assertTrue(carparkService.importCarparkDataFromCsv());
+
+    ArgumentCaptor<List<Carpark>> batches = ArgumentCaptor.forClass(List.class);
+    verify(carparkBulkRepository, times(5)).upsertCarparks(batches.capture());
+    assertEquals(sourceHashes.size(), batches.getAllValues().stream().mapToInt(List::size).sum());
+    verify(datasetImportRepository).save(any());
+  }
+
+  @Test
+  void importCarparkDataFromCsv_ShouldPublishIndex_OnlyAfterCommit() {
+    ReflectionTestUtils.setField(carparkService, "csvFilePath", "data/hdb-carpark-information.csv");
+    TransactionSynchronizationManager.initSynchronization();
+    try {
+      assertTrue(carparkService.importCarparkDataFromCsv());
+
+      verify(carparkRepository).findAll();
+      verify(carparkSpatialIndex, never()).rebuild(any());
+      verify(availabilityStore, never()).register(any());
+
+      TransactionSynchronizationManager.getSynchronizations()
+          .forEach(TransactionSynchronization::afterCommit);
+      verify(carparkSpatialIndex).rebuild(any());
+      verify(availabilityStore).register(any());
+      assertEquals(1, meterRegistry.get("carpark.import.phase").tag("phase", "index").timer().count());
+    } finally {
+      TransactionSynchronizationManager.clearSynchronization();
+    }
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importCarparkDataFromCsv_ShouldUpsertOnlyRowsWhoseHashChanged() {
+    ReflectionTestUtils.setField(carparkService, "csvFilePath", "data/hdb-carpark-information.csv");
+    carparkService.importCarparkDataFromCsv();
+    ArgumentCaptor<List<Carpark>> batches = ArgumentCaptor.forClass(List.class);
+    verify(carparkBulkRepository, times(5)).upsertCarparks(batches.capture());
+
+    Map<String, String> sourceHashes = new HashMap<>();
+    batches.getAllValues().forEach(batch -> batch.forEach(
+        carpark -> sourceHashes.put(carpark.getCarparkNumber(), carpark.getSourceHash())));
+    sourceHashes.put("ACB", "outdated");
+    when(carparkBulkRepository.findSourceHashes()).thenReturn(sourceHashes);
+
+    assertTrue(carparkService.importCarparkDataFromCsv());
+
+    verify(carparkBulkRepository, times(6)).upsertCarparks(batches.capture());
+    List<Carpark> changed = batches.getAllValues().get(batches.getAllValues().size() - 1);
+    assertEquals(1, changed.size());
+    assertEquals("ACB", changed.get(0).getCarparkNumber());
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importCarparkDataFromCsv_ShouldRewriteEveryRow_WhenForced() {
+    ReflectionTestUtils.setField(carparkService, "csvFilePath", "data/hdb-carpark-information.csv");
+    carparkService.importCarparkDataFromCsv();
+    ArgumentCaptor<DatasetImport> datasetImport = ArgumentCaptor.forClass(DatasetImport.class);
+    ArgumentCaptor<List<Carpark>> batches = ArgumentCaptor.forClass(List.class);
+    verify(datasetImportRepository).save(datasetImport.capture());
+    verify(carparkBulkRepository, times(5)).upsertCarparks(batches.capture());
+    Map<String, String> sourceHashes = new HashMap<>();
+    batches.getAllValues().forEach(batch -> batch.forEach(
+        carpark -> sourceHashes.put(carpark.getCarparkNumber(), carpark.getSourceHash())));
+    lenient().when(datasetImportRepository.findById(CarparkService.CSV_DATASET))
+        .thenReturn(Optional.of(datasetImport.getValue()));
+    lenient().when(carparkBulkRepository.findSourceHashes()).thenReturn(sourceHashes);
+
+    assertTrue(carparkService.importCarparkDataFromCsv(true));
+
+    verify(carparkBulkRepository, times(10)).upsertCarparks(batches.capture());
+    List<List<Carpark>> forced = batches.getAllValues();
+    assertEquals(2258, forced.subList(forced.size() - 5, forced.size()).stream()
+        .mapToInt(List::size).sum());
+    verify(datasetImportRepository, times(2)).save(any());
+  }
+
+  @Test
+  void updateCarparkAvailability_ShouldApplySnapshotInOneBulkUpdate() {
+    useAvailabilityFeed("""
+        {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[
+            {"total_lots":"20","lot_type":"Y","lots_available":"3"},
+            {"total_lots":"693","lot_type":"C","lots_available":"182"}]},
+          {"carpark_number":"HG13","carpark_info":[
+            {"total_lots":"249","lot_type":"C","lots_available":"143"}]},
+          {"carpark_number":"BAD","carpark_info":[
+            {"total_lots":"n/a","lot_type":"C","lots_available":"1"}]},
+          {"carpark_number":"ZZ99","carpark_info":[
+            {"total_lots":"10","lot_type":"C","lots_available":"1"}]}]}]}
+        """);
+    availabilityStore.register(List.of(testCarpark1, testCarpark2));
+
+    carparkService.updateCarparkAvailability();
+
+    ArgumentCaptor<AvailabilitySnapshot> captor = ArgumentCaptor.forClass(AvailabilitySnapshot.class);
+    verify(availabilityPersister).persist(captor.capture(), any());
+    AvailabilitySnapshot snapshot = captor.getValue();
+    assertEquals("2025-07-23T10:00:00+08:00", snapshot.getTimestamp());
+    assertEquals(3, snapshot.size());
+    assertEquals("HG12", snapshot.getCarparkNumber(0));
+    assertEquals(693, snapshot.getTotalLots(0));
+    assertEquals(182, snapshot.getAvailableLots(0));
+    assertEquals("ZZ99", snapshot.getCarparkNumber(2));
+    verify(availabilityStore).apply(same(snapshot));
+    assertEquals("2025-07-23T10:00:00+08:00", availabilityStore.current().getFeedTimestamp());
+    verifyNoInteractions(carparkRepository, carparkBulkRepository);
+  }
+
+  @Test
+  void updateCarparkAvailability_ShouldWriteOnlyChangedCarparks_AndSkipRepeatedSnapshots() {
+    String feed = """
+        {"items":[{"timestamp":"%s","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"%d"}]},
+          {"carpark_number":"HG13","carpark_info":[{"total_lots":"249","lot_type":"C","lots_available":"143"}]}]}]}
+        """;
+    useAvailabilityFeed(String.format(feed, "2025-07-23T10:00:00+08:00", 182));
+    carparkService.updateCarparkAvailability();
+    carparkService.updateCarparkAvailability();
+    useAvailabilityFeed(String.format(feed, "2025-07-23T10:05:00+08:00", 181));
+    carparkService.updateCarparkAvailability();
+
+    ArgumentCaptor<AvailabilitySnapshot> captor = ArgumentCaptor.forClass(AvailabilitySnapshot.class);
+    verify(availabilityPersister, times(2)).persist(captor.capture(), any());
+    assertEquals(2, captor.getAllValues().get(0).size());
+    AvailabilitySnapshot delta = captor.getAllValues().get(1);
+    assertEquals(1, delta.size());
+    assertEquals("HG12", delta.getCarparkNumber(0));
+    assertEquals(181, delta.getAvailableLots(0));
+  }
+
+  @Test
+  void updateCarparkAvailability_ShouldRewriteChanges_WhenTheirWriteFailed() {
+    useAvailabilityFeed("""
+        {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"182"}]}]}]}
+        """);
+    when(availabilityPersister.persist(any(), any()))
+        .thenReturn(CompletableFuture.failedFuture(new RuntimeException("Connection refused")))
+        .thenReturn(CompletableFuture.completedFuture(null));
+
+    carparkService.updateCarparkAvailability();
+    carparkService.updateCarparkAvailability();
+    carparkService.updateCarparkAvailability();
+
+    ArgumentCaptor<AvailabilitySnapshot> captor = ArgumentCaptor.forClass(AvailabilitySnapshot.class);
+    verify(availabilityPersister, times(2)).persist(captor.capture(), any());
+    assertEquals(1, captor.getAllValues().get(1).size());
+    assertEquals("HG12", captor.getAllValues().get(1).getCarparkNumber(0));
+  }
+
+  @Test
+  void updateCarparkAvailability_ShouldPublishToStoreBeforeQueueingWrite() {
+    useAvailabilityFeed("""
+        {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"0"}]}]}]}
+        """);
+    availabilityStore.register(List.of(testCarpark1));
+    long version = availabilityStore.current().getVersion();
+
+    carparkService.updateCarparkAvailability();
+
+    InOrder inOrder = inOrder(availabilityStore, availabilityPersister);
+    inOrder.verify(availabilityStore).apply(any());
+    inOrder.verify(availabilityPersister).persist(any(), any());
+    CarparkAvailabilityStore.LotCounts lotCounts = availabilityStore.current();
+    assertEquals(version + 1, lotCounts.getVersion());
+    assertEquals(0, lotCounts.getAvailableLots(lotCounts.ordinalOf("HG12")));
+  }
+
+  @Test
+  void updateCarparkAvailability_ShouldLeaveStoreUntouched_WhenFetchTimesOut() {
+    useAvailabilityFeed("{}");
+    ReflectionTestUtils.setField(carparkService, "webClient",
+        WebClient.builder().exchangeFunction(request -> Mono.never()).build());
+    ReflectionTestUtils.setField(carparkService, "apiTimeout", 50);
+
+    carparkService.updateCarparkAvailability();
+
+    verify(availabilityStore, times(0)).apply(any());
+    verifyNoInteractions(availabilityPersister, carparkBulkRepository, carparkSpatialIndex);
+    assertEquals(1, meterRegistry.get("carpark.availability.api.requests")
+        .tag("outcome", "timeout").timer().count());
+    assertEquals(1, meterRegistry.get("carpark.availability.refresh")
+        .tag("outcome", "empty").timer().count());
+  }
+
+  @Test
+  void refreshAvailability_ShouldNotFetchUntilSubscribed() {
+    AtomicInteger requests = new AtomicInteger();
+    useAvailabilityFeed("{}");
+    ReflectionTestUtils.setField(carparkService, "webClient", WebClient.builder()
+        .exchangeFunction(request -> {
+          requests.incrementAndGet();
+          return Mono.just(ClientResponse.create(HttpStatus.OK)
+              .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+              .body("""
+                  {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+                    {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"5"}]}]}]}
+                  """)
+              .build());
+        })
+        .build());
+    availabilityStore.register(List.of(testCarpark1));
+
+    Mono<String> refresh = carparkService.refreshAvailability();
+    assertEquals(0, requests.get());
+
+    assertEquals("2025-07-23T10:00:00+08:00", refresh.toFuture().join());
+    assertEquals(1, requests.get());
+    assertEquals(1, availabilityStore.current().getAvailableCount());
+  }
+
   @Test
   void getCarparksWithAvailabilityCount_ShouldReturnCount() {
     // Given
-    Page<Carpark> carparkPage = new PageImpl<>(Arrays.asList(testCarpark1, testCarpark2),
-        PageRequest.of(0, 10), 2);
-    when(carparkRepository.findAllWithAvailableLots(any(Pageable.class)))
-        .thenReturn(carparkPage);
+    carparkStatistics.recordImport(5, 2);
 
     // When
     long count = carparkService.getCarparksWithAvailabilityCount();
 
     // Then
     assertEquals(2L, count);
-    verify(carparkRepository).findAllWithAvailableLots(any(Pageable.class));
+    verifyNoInteractions(carparkRepository);
   }
 
   @Test
   void getCarparksWithAvailabilityCount_ShouldReturnZeroWhenNoneAvailable() {
-    Page<Carpark> emptyPage = new PageImpl<>(Arrays.asList(), PageRequest.of(0, 10), 0);
-    when(carparkRepository.findAllWithAvailableLots(any(Pageable.class)))
-        .thenReturn(emptyPage);
     long count = carparkService.getCarparksWithAvailabilityCount();
     assertEquals(0L, count);
   }
 
+  @Test
+  void updateCarparkAvailability_ShouldRecordRefreshStatistics() {
+    useAvailabilityFeed("""
+        {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"182"}]}]}]}
+        """);
+    availabilityStore.register(List.of(testCarpark1, testCarpark2));
+
+    carparkService.updateCarparkAvailability();
+
+    assertEquals(2L, carparkStatistics.getCarparksWithAvailability());
+    assertNotNull(carparkStatistics.getLastRefreshAt());
+    assertEquals(1, meterRegistry.get("carpark.availability.api.requests")
+        .tag("outcome", "success").timer().count());
+    assertTrue(meterRegistry.get("carpark.availability.api.response.size").summary().totalAmount() > 0);
+    assertEquals(1, meterRegistry.get("carpark.availability.refresh")
+        .tag("outcome", "applied").timer().count());
+    assertEquals(1, meterRegistry.get("carpark.availability.refresh.phase")
+        .tag("phase", "apply").timer().count());
+  }
+
+  // Rows as the sql engine returns them for a search from 1.37326, 103.897
+  private void givenNearest(List<Carpark> carparks) {
+    List<NearestCarparkView> rows = carparks.stream()
+        .map(carpark -> view(carpark.getId(), carpark, CarparkSpatialIndex.distanceKm(
+            1.37326, 103.897, carpark.getLatitude(), carpark.getLongitude())))
+        .toList();
+    when(carparkRepository.findNearestCarparksWithAvailability(anyDouble(), anyDouble(),
+        anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt(), anyInt()))
+        .thenReturn(rows);
+  }
+
+  private void verifyNearestQueries(int times) {
+    verify(carparkRepository, times(times)).findNearestCarparksWithAvailability(anyDouble(),
+        anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt(),
+        anyInt());
+  }
+
+  private static NearestCarparkView view(Long id, Carpark carpark, double distance) {
+    NearestCarparkView view = mock(NearestCarparkView.class);
+    lenient().when(view.getId()).thenReturn(id);
+    lenient().when(view.getCarparkNumber()).thenReturn(carpark.getCarparkNumber());
+    lenient().when(view.getAddress()).thenReturn(carpark.getAddress());
+    lenient().when(view.getLatitude()).thenReturn(carpark.getLatitude());
+    lenient().when(view.getLongitude()).thenReturn(carpark.getLongitude());
+    lenient().when(view.getTotalLots()).thenReturn(carpark.getTotalLots());
+    lenient().when(view.getAvailableLots()).thenReturn(carpark.getAvailableLots());
+    lenient().when(view.getDistance()).thenReturn(distance);
+    return view;
+  }
+
+  private void useAvailabilityFeed(String body) {
+    WebClient webClient = WebClient.builder()
+        .exchangeFunction(request -> Mono.just(ClientResponse.create(HttpStatus.OK)
+            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+            .body(body)
+            .build()))
+        .build();
+    ReflectionTestUtils.setField(carparkService, "webClient", webClient);
+    ReflectionTestUtils.setField(carparkService, "carparkApiUrl", "http://localhost/availability");
+    ReflectionTestUtils.setField(carparkService, "apiTimeout", 1000);
+  }
 }
@@ -0,0 +1,254 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.dto.CarparkFilter;
+import com.wego.carparkapi.model.Carpark;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class CarparkSpatialIndexTest {
+
+  private CarparkAvailabilityStore availabilityStore;
+
+  private CarparkSpatialIndex carparkSpatialIndex;
+
+  @BeforeEach
+  void setUp() {
+    availabilityStore = new CarparkAvailabilityStore();
+    carparkSpatialIndex = new CarparkSpatialIndex(availabilityStore);
+  }
+
+  @Test
+  void findNearest_ShouldReturnEmpty_WhenIndexNotBuilt() {
+    assertTrue(carparkSpatialIndex.findNearest(1.3, 103.8, 0, 10).isEmpty());
+  }
+
+  @Test
+  void findNearest_ShouldOrderByDistanceAndSkipFullCarparks() {
+    rebuild(List.of(
+        carpark(1L, "HG12", 1.37429, 103.896, 182),
+        carpark(2L, "HG13", 1.37234, 103.899, 143),
+        carpark(3L, "HG14", 1.37300, 103.897, 0),
+        carpark(4L, "ACB", 1.30000, 103.800, 10)));
+
+    List<CarparkSpatialIndex.Neighbour> result = carparkSpatialIndex.findNearest(1.37326, 103.897, 0, 10);
+
+    assertEquals(List.of("HG12", "HG13", "ACB"), numbers(result));
+    assertTrue(result.get(0).getDistanceKm() < result.get(1).getDistanceKm());
+    assertEquals(182, result.get(0).getAvailableLots());
+  }
+
+  @Test
+  void findNearest_ShouldApplyOffsetAndLimit() {
+    rebuild(List.of(
+        carpark(1L, "A", 1.300, 103.800, 1),
+        carpark(2L, "B", 1.301, 103.800, 1),
+        carpark(3L, "C", 1.302, 103.800, 1),
+        carpark(4L, "D", 1.303, 103.800, 1)));
+
+    assertEquals(List.of("B", "C"), numbers(carparkSpatialIndex.findNearest(1.300, 103.800, 1, 2)));
+    assertTrue(carparkSpatialIndex.findNearest(1.300, 103.800, 4, 2).isEmpty());
+  }
+
+  @Test
+  void findNearestAfter_ShouldContinueFromKeysetPosition() {
+    rebuild(List.of(
+        carpark(1L, "A", 1.300, 103.800, 1),
+        carpark(2L, "B", 1.301, 103.800, 1),
+        carpark(3L, "C", 1.302, 103.800, 1)));
+
+    CarparkSpatialIndex.Neighbour first = carparkSpatialIndex.findNearest(1.300, 103.800, 0, 1).get(0);
+    List<CarparkSpatialIndex.Neighbour> rest = carparkSpatialIndex.findNearestAfter(1.300, 103.800,
+        first.getDistanceKm(), first.getEntry().getId(), 10);
+
+    assertEquals("A", first.getEntry().getCarparkNumber());
+    assertEquals(List.of("B", "C"), numbers(rest));
+  }
+
+  @Test
+  void findNearest_ShouldFollowLotCountsPublishedToStore() {
+    rebuild(List.of(
+        carpark(1L, "A", 1.300, 103.800, 0),
+        carpark(2L, "B", 1.310, 103.800, 5)));
+
+    assertEquals(List.of("B"), numbers(carparkSpatialIndex.findNearest(1.300, 103.800, 0, 10)));
+
+    AvailabilitySnapshot availability = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 1);
+    availability.add("A", 100, 3);
+    availabilityStore.apply(availability);
+
+    List<CarparkSpatialIndex.Neighbour> result = carparkSpatialIndex.findNearest(1.300, 103.800, 0, 10);
+    assertEquals(List.of("A", "B"), numbers(result));
+    assertEquals(3, result.get(0).getAvailableLots());
+  }
+
+  @Test
+  void view_ShouldKeepLotCountsOfWhenItWasTaken() {
+    rebuild(List.of(
+        carpark(1L, "A", 1.300, 103.800, 0),
+        carpark(2L, "B", 1.310, 103.800, 5)));
+    CarparkSpatialIndex.View view = carparkSpatialIndex.view();
+
+    AvailabilitySnapshot availability = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 1);
+    availability.add("A", 100, 3);
+    availabilityStore.apply(availability);
+
+    assertEquals(List.of("B"), numbers(view.findNearest(1.300, 103.800, 0, 10)));
+    assertEquals(availabilityStore.current().getVersion() - 1, view.getVersion());
+    assertEquals(List.of("A", "B"), numbers(carparkSpatialIndex.view().findNearest(1.300, 103.800, 0, 10)));
+  }
+
+  @Test
+  void rebuild_ShouldSkipCarparksUnknownToStore() {
+    availabilityStore.register(List.of(carpark(1L, "A", 1.300, 103.800, 1)));
+    carparkSpatialIndex.rebuild(List.of(
+        carpark(1L, "A", 1.300, 103.800, 1),
+        carpark(2L, "B", 1.301, 103.800, 1)));
+
+    assertEquals(List.of("A"), numbers(carparkSpatialIndex.findNearest(1.300, 103.800, 0, 10)));
+  }
+
+  @Test
+  void findNearest_ShouldMatchBruteForceRanking() {
+    Random random = new Random(42);
+    List<Carpark> carparks = new ArrayList<>();
+    for (long id = 1; id <= 2000; id++) {
+      carparks.add(carpark(id, "CP" + id, 1.24 + random.nextDouble() * 0.22,
+          103.62 + random.nextDouble() * 0.38, random.nextInt(4)));
+    }
+    rebuild(carparks);
+
+    for (int q = 0; q < 50; q++) {
+      double latitude = 1.2 + random.nextDouble() * 0.3;
+      double longitude = 103.55 + random.nextDouble() * 0.5;
+
+      List<String> expected = carparks.stream()
+          .filter(c -> c.getAvailableLots() > 0)
+          .sorted(Comparator.<Carpark>comparingDouble(c -> CarparkSpatialIndex.distanceKm(
+              latitude, longitude, c.getLatitude(), c.getLongitude()))
+              .thenComparing(Carpark::getId))
+          .limit(25)
+          .map(Carpark::getCarparkNumber)
+          .collect(Collectors.toList());
+
+      assertEquals(expected, numbers(carparkSpatialIndex.findNearest(latitude, longitude, 0, 25)));
+    }
+  }
+
+  @Test
+  void findNearest_ShouldApplyRadius() {
+    rebuild(List.of(
+        carpark(1L, "A", 1.300, 103.800, 1),
+        carpark(2L, "B", 1.305, 103.800, 1),
+        carpark(3L, "C", 1.320, 103.800, 1)));
+
+    CarparkFilter withinOneKm = CarparkFilter.builder().radiusKm(1.0).build();
+    assertEquals(List.of("A", "B"), numbers(carparkSpatialIndex.findNearest(1.300, 103.800, 0, 10,
+        withinOneKm)));
+    assertTrue(carparkSpatialIndex.findNearest(1.400, 103.900, 0, 10, withinOneKm).isEmpty());
+  }
+
+  @Test
+  void findNearest_ShouldFindFarColumn_WhenOriginIsPolewardOfEveryCarpark() {
+    // At 89 degrees a degree of longitude is a third as long as at 87, where the
+    // nearest carpark is, so the columns east of the origin must not be cut off
+    // by a bound taken from the carparks' latitudes alone
+    rebuild(List.of(
+        carpark(1L, "SAME_COLUMN", 86.0, 0.0, 1),
+        carpark(2L, "FAR_COLUMN", 87.0, 70.0, 1)));
+
+    List<CarparkSpatialIndex.Neighbour> result = carparkSpatialIndex.findNearest(89.0, 0.0, 0, 1);
+
+    assertEquals(List.of("FAR_COLUMN"), numbers(result));
+    assertEquals(CarparkSpatialIndex.distanceKm(89.0, 0.0, 87.0, 70.0),
+        result.get(0).getDistanceKm(), 1e-9);
+  }
+
+  @Test
+  void findNearest_WithFilter_ShouldMatchBruteForceRanking() {
+    Random random = new Random(3);
+    String[] systems = {"ELECTRONIC PARKING", "COUPON PARKING"};
+    double[] gantries = {0, 1.8, 2.1, 2.15, 4.5};
+    List<Carpark> carparks = new ArrayList<>();
+    for (long id = 1; id <= 2000; id++) {
+      Carpark carpark = carpark(id, "CP" + id, 1.24 + random.nextDouble() * 0.22,
+          103.62 + random.nextDouble() * 0.38, random.nextInt(4));
+      carpark.setTypeOfParkingSystem(systems[random.nextInt(10) == 0 ? 1 : 0]);
+      carpark.setNightParking(random.nextBoolean() ? "YES" : "NO");
+      carpark.setGantryHeight(gantries[random.nextInt(gantries.length)]);
+      carparks.add(carpark);
+    }
+    rebuild(carparks);
+
+    // A broad filter takes the ring search, a narrow one the direct scan
+    List<CarparkFilter> filters = List.of(
+        CarparkFilter.builder().nightParking(true).minGantryHeight(2.1).radiusKm(5.0).build(),
+        CarparkFilter.builder().parkingSystem("coupon parking").minGantryHeight(4.0).build());
+    for (CarparkFilter filter : filters) {
+      for (int q = 0; q < 30; q++) {
+        double latitude = 1.25 + random.nextDouble() * 0.2;
+        double longitude = 103.65 + random.nextDouble() * 0.3;
+
+        List<String> expected = carparks.stream()
+            .filter(c -> c.getAvailableLots() > 0)
+            .filter(c -> matches(c, filter))
+            .filter(c -> filter.getRadiusKm() == null || CarparkSpatialIndex.distanceKm(
+                latitude, longitude, c.getLatitude(), c.getLongitude()) <= filter.getRadiusKm())
+            .sorted(Comparator.<Carpark>comparingDouble(c -> CarparkSpatialIndex.distanceKm(
+                latitude, longitude, c.getLatitude(), c.getLongitude()))
+                .thenComparing(Carpark::getId))
+            .limit(10)
+            .map(Carpark::getCarparkNumber)
+            .collect(Collectors.toList());
+
+        assertEquals(expected, numbers(carparkSpatialIndex.findNearest(latitude, longitude, 0, 10,
+            filter)));
+      }
+    }
+  }
+
+  private static boolean matches(Carpark carpark, CarparkFilter filter) {
+    boolean gantry = filter.getMinGantryHeight() == null || carpark.getGantryHeight() == 0
+        || carpark.getGantryHeight() >= filter.getMinGantryHeight();
+    boolean night = filter.getNightParking() == null
+        || carpark.getNightParking().equals(filter.getNightParking() ? "YES" : "NO");
+    boolean system = filter.getParkingSystem() == null
+        || carpark.getTypeOfParkingSystem().equalsIgnoreCase(filter.getParkingSystem());
+    return gantry && night && system;
+  }
+
+  private void rebuild(List<Carpark> carparks) {
+    availabilityStore.register(carparks);
+    carparkSpatialIndex.rebuild(carparks);
+  }
+
+  private static List<String> numbers(List<CarparkSpatialIndex.Neighbour> neighbours) {
+    return neighbours.stream()
+        .map(n -> n.getEntry().getCarparkNumber())
+        .collect(Collectors.toList());
+  }
+
+  private static Carpark carpark(Long id, String number, double latitude, double longitude,
+      int availableLots) {
+    return Carpark.builder()
+        .id(id)
+        .carparkNumber(number)
+        .address("ADDRESS " + number)
+        .latitude(latitude)
+        .longitude(longitude)
+        .totalLots(100)
+        .availableLots(availableLots)
+        .build();
+  }
+}
@@ -0,0 +1,152 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchRequestDto;
+import com.wego.carparkapi.model.Carpark;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class NearestCarparkBatchSearchTest {
+
+  private CarparkAvailabilityStore availabilityStore;
+  private CarparkSpatialIndex carparkSpatialIndex;
+  private CarparkJsonFragments carparkJsonFragments;
+  private NearestCarparkBatchSearch batchSearch;
+
+  @BeforeEach
+  void setUp() {
+    availabilityStore = new CarparkAvailabilityStore();
+    carparkSpatialIndex = new CarparkSpatialIndex(availabilityStore);
+    carparkJsonFragments = new CarparkJsonFragments(new ObjectMapper());
+    batchSearch = new NearestCarparkBatchSearch(carparkSpatialIndex, carparkJsonFragments,
+        4, 100, 50, 2000);
+
+    Random random = new Random(7);
+    List<Carpark> carparks = new ArrayList<>();
+    for (long id = 1; id <= 500; id++) {
+      carparks.add(Carpark.builder()
+          .id(id)
+          .carparkNumber("CP" + id)
+          .address("ADDRESS " + id)
+          .latitude(1.24 + random.nextDouble() * 0.22)
+          .longitude(103.62 + random.nextDouble() * 0.38)
+          .totalLots(100)
+          .availableLots(1 + random.nextInt(3))
+          .build());
+    }
+    availabilityStore.register(carparks);
+    carparkSpatialIndex.rebuild(carparks);
+    carparkJsonFragments.rebuild(carparks);
+  }
+
+  @AfterEach
+  void tearDown() {
+    batchSearch.shutdown();
+  }
+
+  @Test
+  void search_ShouldAnswerEveryOriginInOrder_WithItsOwnK() {
+    NearestCarparkBatchDto result = batchSearch.search(List.of(
+        origin(1.30, 103.80, 3),
+        origin(1.40, 103.90, 1)));
+
+    assertEquals(availabilityStore.current().getVersion(), result.getVersion());
+    assertEquals(2, result.getResults().size());
+    assertEquals(1.30, result.getResults().get(0).getLatitude());
+    assertEquals(3, result.getResults().get(0).getData().size());
+    CarparkResponseDto nearest = result.getResults().get(0).getData().get(0);
+    assertEquals(CarparkSpatialIndex.distanceKm(1.30, 103.80,
+        nearest.getLatitude(), nearest.getLongitude()), nearest.getDistance(), 1e-9);
+    NearestCarparkPage data = assertInstanceOf(NearestCarparkPage.class,
+        result.getResults().get(0).getData());
+    assertNotNull(data.getFragment(0));
+    assertEquals(1.40, result.getResults().get(1).getLatitude());
+    assertEquals(1, result.getResults().get(1).getData().size());
+  }
+
+  @Test
+  void search_ShouldMatchSingleSearches_WhenRunInParallel() {
+    Random random = new Random(11);
+    List<NearestCarparkBatchRequestDto.Origin> origins = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      origins.add(origin(1.25 + random.nextDouble() * 0.2, 103.65 + random.nextDouble() * 0.3, 10));
+    }
+
+    NearestCarparkBatchDto result = batchSearch.search(origins);
+
+    assertEquals(origins.size(), result.getResults().size());
+    for (int i = 0; i < origins.size(); i++) {
+      List<String> expected = carparkSpatialIndex.findNearest(origins.get(i).getLatitude(),
+              origins.get(i).getLongitude(), 0, 10).stream()
+          .map(neighbour -> neighbour.getEntry().getAddress())
+          .collect(Collectors.toList());
+      assertEquals(expected, result.getResults().get(i).getData().stream()
+          .map(CarparkResponseDto::getAddress)
+          .collect(Collectors.toList()));
+    }
+  }
+
+  @Test
+  void searchAsync_ShouldMatchSearch_ForBatchRunOnPool() throws Exception {
+    List<NearestCarparkBatchRequestDto.Origin> origins = new ArrayList<>();
+    for (int i = 0; i < 40; i++) {
+      origins.add(origin(1.3, 103.8, 10));
+    }
+    CompletableFuture<NearestCarparkBatchDto> result = batchSearch.searchAsync(origins);
+
+    assertEquals(origins.size(), result.get(5, TimeUnit.SECONDS).getResults().size());
+    assertEquals(batchSearch.search(origins).getResults().get(39).getData(),
+        result.join().getResults().get(39).getData());
+  }
+
+  @Test
+  void searchAsync_ShouldReturnSmallBatchCompleted() {
+    CompletableFuture<NearestCarparkBatchDto> result = batchSearch.searchAsync(List.of(
+        origin(1.30, 103.80, 3)));
+
+    assertTrue(result.isDone());
+    assertEquals(3, result.join().getResults().get(0).getData().size());
+  }
+
+  @Test
+  void search_ShouldRejectBatchesOverLimits() {
+    NearestCarparkBatchSearch limited = new NearestCarparkBatchSearch(carparkSpatialIndex,
+        carparkJsonFragments, 1, 2, 5, 6);
+    try {
+      assertThrows(IllegalArgumentException.class, () -> limited.search(List.of(
+          origin(1.3, 103.8, 1), origin(1.3, 103.8, 1), origin(1.3, 103.8, 1))));
+      assertThrows(IllegalArgumentException.class, () -> limited.search(List.of(
+          origin(1.3, 103.8, 6))));
+      assertThrows(IllegalArgumentException.class, () -> limited.search(List.of(
+          origin(1.3, 103.8, 4), origin(1.3, 103.8, 4))));
+      assertEquals(2, limited.search(List.of(origin(1.3, 103.8, 3), origin(1.3, 103.8, 3)))
+          .getResults().size());
+    } finally {
+      limited.shutdown();
+    }
+  }
+
+  private static NearestCarparkBatchRequestDto.Origin origin(double latitude, double longitude,
+      int k) {
+    return NearestCarparkBatchRequestDto.Origin.builder()
+        .latitude(latitude)
+        .longitude(longitude)
+        .k(k)
+        .build();
+  }
+}
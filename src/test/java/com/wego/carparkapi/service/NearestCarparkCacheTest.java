@@ -0,0 +1,192 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.model.Carpark;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class NearestCarparkCacheTest {
+
+  private CarparkAvailabilityStore availabilityStore;
+  private SimpleMeterRegistry meterRegistry;
+  private NearestCarparkCache nearestCarparkCache;
+  private AtomicInteger searches;
+
+  @BeforeEach
+  void setUp() {
+    availabilityStore = new CarparkAvailabilityStore();
+    availabilityStore.register(List.of(Carpark.builder().carparkNumber("A").build()));
+    meterRegistry = new SimpleMeterRegistry();
+    nearestCarparkCache = new NearestCarparkCache(availabilityStore, meterRegistry, true, 100, 0.001);
+    searches = new AtomicInteger();
+  }
+
+  @Test
+  void get_ShouldShareEntry_ForCoordinatesInSameCell() {
+    NearestCarparkPage first = nearestCarparkCache.get(1.30001, 103.80001, 1, 10, this::search);
+    NearestCarparkPage second = nearestCarparkCache.get(1.30032, 103.79968, 1, 10, this::search);
+
+    assertSame(first, second);
+    assertEquals(1, searches.get());
+    // computed for the cell centre, not for the first caller's position
+    assertEquals(1.3, first.get(0).getLatitude(), 1e-9);
+    assertEquals(103.8, first.get(0).getLongitude(), 1e-9);
+  }
+
+  @Test
+  void get_ShouldMiss_ForOtherCellOrPage() {
+    nearestCarparkCache.get(1.300, 103.800, 1, 10, this::search);
+    nearestCarparkCache.get(1.302, 103.800, 1, 10, this::search);
+    nearestCarparkCache.get(1.300, 103.800, 2, 10, this::search);
+    nearestCarparkCache.get(1.300, 103.800, 1, 20, this::search);
+
+    assertEquals(4, searches.get());
+  }
+
+  @Test
+  void get_ShouldMiss_AfterSnapshotApplied() {
+    nearestCarparkCache.get(1.300, 103.800, 1, 10, this::search);
+
+    AvailabilitySnapshot availability = new AvailabilitySnapshot("2025-07-23T10:00:00+08:00", 1);
+    availability.add("A", 10, 5);
+    availabilityStore.apply(availability);
+    nearestCarparkCache.get(1.300, 103.800, 1, 10, this::search);
+
+    assertEquals(2, searches.get());
+  }
+
+  @Test
+  void invalidateAll_ShouldDropEveryEntry() {
+    nearestCarparkCache.get(1.300, 103.800, 1, 10, this::search);
+    nearestCarparkCache.get(1.310, 103.800, 1, 10, this::search);
+
+    nearestCarparkCache.invalidateAll();
+
+    assertEquals(0, nearestCarparkCache.size());
+  }
+
+  @Test
+  void get_ShouldRunSearchOnce_ForConcurrentIdenticalMisses() throws Exception {
+    CountDownLatch release = new CountDownLatch(1);
+    NearestCarparkCache.Search slowSearch = (latitude, longitude) -> {
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return search(latitude, longitude);
+    };
+
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try {
+      List<Future<NearestCarparkPage>> results = new ArrayList<>();
+      for (int i = 0; i < 8; i++) {
+        results.add(executor.submit(() -> nearestCarparkCache.get(1.300, 103.800, 1, 10, slowSearch)));
+      }
+      Thread.sleep(100);
+      release.countDown();
+      for (Future<NearestCarparkPage> result : results) {
+        assertEquals(1, result.get(5, TimeUnit.SECONDS).size());
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, searches.get());
+  }
+
+  @Test
+  void getAsync_ShouldReturnPendingSearch_WithoutWaitingForIt() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    NearestCarparkCache.Search slowSearch = (latitude, longitude) -> {
+      started.countDown();
+      try {
+        release.await(5, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+      return search(latitude, longitude);
+    };
+
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    try {
+      Future<NearestCarparkPage> leader = executor.submit(
+          () -> nearestCarparkCache.get(1.300, 103.800, 1, 10, slowSearch));
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+
+      CompletableFuture<NearestCarparkPage> follower =
+          nearestCarparkCache.getAsync(1.300, 103.800, 1, 10, slowSearch);
+      assertFalse(follower.isDone());
+
+      release.countDown();
+      assertSame(leader.get(5, TimeUnit.SECONDS), follower.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    assertEquals(1, searches.get());
+  }
+
+  @Test
+  void getAsync_ShouldFail_WhenDisabledSearchThrows() {
+    NearestCarparkCache disabled = new NearestCarparkCache(availabilityStore,
+        new SimpleMeterRegistry(), false, 100, 0.001);
+
+    CompletableFuture<NearestCarparkPage> result = disabled.getAsync(1.3, 103.8, 1, 10,
+        (latitude, longitude) -> {
+          throw new IllegalStateException("Test exception");
+        });
+
+    ExecutionException e = assertThrows(ExecutionException.class, result::get);
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+  }
+
+  @Test
+  void get_ShouldBypassCache_WhenDisabled() {
+    NearestCarparkCache disabled = new NearestCarparkCache(availabilityStore,
+        new SimpleMeterRegistry(), false, 100, 0.001);
+
+    NearestCarparkPage result = disabled.get(1.30001, 103.80001, 1, 10, this::search);
+    disabled.get(1.30001, 103.80001, 1, 10, this::search);
+
+    assertEquals(1.30001, result.get(0).getLatitude());
+    assertEquals(2, searches.get());
+  }
+
+  @Test
+  void metrics_ShouldReportHitsMissesAndHitRatio() {
+    nearestCarparkCache.get(1.300, 103.800, 1, 10, this::search);
+    nearestCarparkCache.get(1.300, 103.800, 1, 10, this::search);
+
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "carpark.nearest")
+        .tag("result", "hit").functionCounter().count());
+    assertEquals(1, meterRegistry.get("cache.gets").tag("cache", "carpark.nearest")
+        .tag("result", "miss").functionCounter().count());
+    assertEquals(0.5, meterRegistry.get("carpark.nearest.cache.hit.ratio").gauge().value());
+  }
+
+  private NearestCarparkPage search(double latitude, double longitude) {
+    searches.incrementAndGet();
+    return NearestCarparkPage.of(List.of(CarparkResponseDto.builder()
+        .latitude(latitude)
+        .longitude(longitude)
+        .build()));
+  }
+}
@@ -0,0 +1,123 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wego.carparkapi.dto.CarparkResponseDto;
+import com.wego.carparkapi.dto.NearestCarparkBatchDto;
+import com.wego.carparkapi.model.Carpark;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class NearestCarparkPageSerializerTest {
+
+  private final ObjectMapper objectMapper = new ObjectMapper();
+
+  private CarparkJsonFragments carparkJsonFragments;
+
+  @BeforeEach
+  void setUp() {
+    carparkJsonFragments = new CarparkJsonFragments(objectMapper);
+    carparkJsonFragments.rebuild(List.of(
+        carpark("ACB", "BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK", 1.30126, 103.85488),
+        carpark("Q1", "BLK 1 \"QUOTED\" \\ ROAD\tÉTÉ 停车场  ", -0.0, 1e-7)));
+  }
+
+  @Test
+  void serialise_ShouldMatchBeanSerializer_WithFragments() throws Exception {
+    NearestCarparkPage page = NearestCarparkPage.of(List.of(
+        neighbour("ACB", "BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK", 1.30126, 103.85488,
+            0.15962803),
+        neighbour("Q1", "BLK 1 \"QUOTED\" \\ ROAD\tÉTÉ 停车场  ", -0.0, 1e-7, 1.2),
+        neighbour("NEW", null, 1.32, 103.88, 2.5)), carparkJsonFragments);
+
+    assertNotNull(page.getFragment(0));
+    assertNotNull(page.getFragment(1));
+    assertNull(page.getFragment(2));
+    assertSerialisedLikeBeans(page);
+  }
+
+  @Test
+  void serialise_ShouldEncodeFields_WhenFragmentNoLongerMatchesIndex() throws Exception {
+    NearestCarparkPage page = NearestCarparkPage.of(List.of(
+        neighbour("ACB", "BLK 99 RENAMED", 1.30126, 103.85488, 0.2)), carparkJsonFragments);
+
+    assertNull(page.getFragment(0));
+    assertTrue(objectMapper.writeValueAsString(page).contains("BLK 99 RENAMED"));
+    assertSerialisedLikeBeans(page);
+  }
+
+  @Test
+  void serialise_ShouldMatchBeanSerializer_ForMappedCarparks() throws Exception {
+    NearestCarparkPage page = NearestCarparkPage.of(List.of(
+        new CarparkResponseDto("BLK 98A ALJUNIED CRESCENT", 1.32, 103.88, 5, 50, 0.4),
+        new CarparkResponseDto(null, null, null, null, null, null)));
+
+    assertSerialisedLikeBeans(page);
+  }
+
+  @Test
+  void serialise_ShouldWriteEmptyArray_WhenNothingFound() throws Exception {
+    assertEquals("[]", objectMapper.writeValueAsString(
+        NearestCarparkPage.of(List.of(), carparkJsonFragments)));
+    assertEquals("[]", objectMapper.writeValueAsString(NearestCarparkPage.of(List.of())));
+  }
+
+  @Test
+  void serialise_ShouldMatchBeanSerializer_WhenNested() throws Exception {
+    NearestCarparkPage page = NearestCarparkPage.of(List.of(
+        neighbour("ACB", "BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK", 1.30126, 103.85488,
+            0.15962803)), carparkJsonFragments);
+
+    assertEquals(
+        objectMapper.writeValueAsString(new NearestCarparkBatchDto.Result(1.3, 103.8,
+            new ArrayList<>(page))),
+        objectMapper.writeValueAsString(new NearestCarparkBatchDto.Result(1.3, 103.8, page)));
+  }
+
+  @Test
+  void get_ShouldMapNeighbourToResponse() {
+    NearestCarparkPage page = NearestCarparkPage.of(List.of(
+        neighbour("ACB", "BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK", 1.30126, 103.85488,
+            0.15962803)), carparkJsonFragments);
+
+    assertEquals(List.of(new CarparkResponseDto("BLK 270/271 ALBERT CENTRE BASEMENT CAR PARK",
+        1.30126, 103.85488, 100, 12, 0.15962803)), page);
+  }
+
+  /**
+   * The page, written by its own serializer whether the declared type is the page or
+   * unknown, is what Jackson's bean serializer writes for the same carparks.
+   */
+  private void assertSerialisedLikeBeans(NearestCarparkPage page) throws Exception {
+    List<CarparkResponseDto> beans = new ArrayList<>(page);
+    assertArrayEquals(objectMapper.writeValueAsBytes(beans), objectMapper.writeValueAsBytes(page));
+    assertEquals(objectMapper.writeValueAsString(beans),
+        objectMapper.writerFor(NearestCarparkPage.class).writeValueAsString(page));
+    assertEquals(objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(beans),
+        objectMapper.writerWithDefaultPrettyPrinter().writeValueAsString(page));
+  }
+
+  private static CarparkSpatialIndex.Neighbour neighbour(String carparkNumber, String address,
+      double latitude, double longitude, double distanceKm) {
+    return new CarparkSpatialIndex.Neighbour(
+        new CarparkSpatialIndex.Entry(1L, carparkNumber, address, latitude, longitude),
+        100, 12, distanceKm);
+  }
+
+  private static Carpark carpark(String carparkNumber, String address, Double latitude,
+      Double longitude) {
+    return Carpark.builder()
+        .carparkNumber(carparkNumber)
+        .address(address)
+        .latitude(latitude)
+        .longitude(longitude)
+        .build();
+  }
+}
@@ -0,0 +1,100 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.CarparkCursorPageDto;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import jdk.jfr.consumer.RecordedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.junit.jupiter.api.condition.JRE;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.DockerClientFactory;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+/**
+ * {@link VirtualThreadPinningTest} against a real DataSource: a full CSV import and
+ * sql-engine cursor pages run concurrently on virtual threads through HikariCP,
+ * pgjdbc, Hibernate and Spring's transactions to PostgreSQL. Any
+ * {@code jdk.VirtualThreadPinned} event fails the test, wherever its stack ends,
+ * since only the workload runs on virtual threads. Needs Java 21+ and a database:
+ * the one {@code CARPARK_TEST_DATASOURCE_URL} (with {@code _USERNAME} and
+ * {@code _PASSWORD}) points at, which the test imports into, or else a PostgreSQL
+ * container, which needs Docker. It is skipped without either.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@EnabledIf("databaseAvailable")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE, properties = {
+    "app.carpark.search.engine=sql",
+    // nothing listens there, so availability refreshes fail fast
+    "app.carpark.api.url=http://localhost:1/availability"})
+class VirtualThreadPinningPostgresTest {
+
+  private static final String DATASOURCE_URL = System.getenv("CARPARK_TEST_DATASOURCE_URL");
+
+  static boolean databaseAvailable() {
+    return DATASOURCE_URL != null || DockerClientFactory.instance().isDockerAvailable();
+  }
+
+  @DynamicPropertySource
+  static void dataSource(DynamicPropertyRegistry registry) {
+    if (DATASOURCE_URL != null) {
+      registry.add("spring.datasource.url", () -> DATASOURCE_URL);
+      registry.add("spring.datasource.username",
+          () -> System.getenv("CARPARK_TEST_DATASOURCE_USERNAME"));
+      registry.add("spring.datasource.password",
+          () -> System.getenv("CARPARK_TEST_DATASOURCE_PASSWORD"));
+      return;
+    }
+    // Stopped with the JVM by Testcontainers
+    PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+    postgres.start();
+    registry.add("spring.datasource.url", postgres::getJdbcUrl);
+    registry.add("spring.datasource.username", postgres::getUsername);
+    registry.add("spring.datasource.password", postgres::getPassword);
+  }
+
+  @Autowired
+  private CarparkService carparkService;
+
+  @Autowired
+  private ApplicationAvailability applicationAvailability;
+
+  @BeforeEach
+  void awaitStartupImport() throws InterruptedException {
+    Instant deadline = Instant.now().plus(Duration.ofMinutes(2));
+    while (applicationAvailability.getReadinessState() != ReadinessState.ACCEPTING_TRAFFIC) {
+      assertTrue(Instant.now().isBefore(deadline), "startup import did not finish");
+      Thread.sleep(100);
+    }
+  }
+
+  @Test
+  void importAndCursorSearch_ShouldNotPin_OnRealDataSource() throws Exception {
+    List<RecordedEvent> pinned = VirtualThreadPinningTest.recordPinning(
+        () -> VirtualThreadPinningTest.runOnVirtualThreads(101, i -> {
+          if (i == 0) {
+            assertTrue(carparkService.importCarparkDataFromCsv(true));
+          } else {
+            CarparkCursorPageDto page = carparkService.findNearestCarparksByCursor(
+                1.30 + (i % 10) * 0.01, 103.8, null, 10);
+            assertNotNull(page.getData());
+          }
+        }),
+        event -> true);
+
+    assertEquals(List.of(), VirtualThreadPinningTest.describe(pinned));
+  }
+}
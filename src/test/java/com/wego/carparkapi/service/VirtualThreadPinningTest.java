@@ -0,0 +1,252 @@
+package com.wego.carparkapi.service;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.wego.carparkapi.model.Carpark;
+import com.wego.carparkapi.repository.CarparkBulkRepository;
+import com.wego.carparkapi.repository.CarparkRepository;
+import com.wego.carparkapi.repository.DatasetImportRepository;
+import com.wego.carparkapi.repository.NearestCarparkView;
+import com.wego.carparkapi.util.CoordinateConversionUtility;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledForJreRange;
+import org.junit.jupiter.api.condition.JRE;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+/**
+ * Runs the request and refresh paths on virtual threads while the blocking calls
+ * underneath them park, and fails if JFR reports a virtual thread pinned to its
+ * carrier inside application code. Only runs on Java 21+ ({@code -Pjava21}).
+ * The repositories and the feed are mocks that sleep, so this covers our own
+ * locking only; {@link VirtualThreadPinningPostgresTest} runs the JDBC paths
+ * through HikariCP and pgjdbc.
+ *
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+@EnabledForJreRange(min = JRE.JAVA_21)
+@ExtendWith(MockitoExtension.class)
+class VirtualThreadPinningTest {
+
+  private static final long BLOCKING_CALL_MILLIS = 30;
+
+  @Mock
+  private CarparkRepository carparkRepository;
+
+  @Mock
+  private CarparkSpatialIndex carparkSpatialIndex;
+
+  @Mock
+  private CarparkBulkRepository carparkBulkRepository;
+
+  @Mock
+  private DatasetImportRepository datasetImportRepository;
+
+  @Mock
+  private AvailabilityPersister availabilityPersister;
+
+  @Spy
+  private CoordinateConversionUtility coordinateConversionUtility;
+
+  @Spy
+  private AvailabilityDeltaTracker availabilityDeltaTracker =
+      new AvailabilityDeltaTracker(new SimpleMeterRegistry());
+
+  @Spy
+  private CarparkStatistics carparkStatistics = new CarparkStatistics(new SimpleMeterRegistry());
+
+  @Spy
+  private CarparkMetrics carparkMetrics = new CarparkMetrics(new SimpleMeterRegistry());
+
+  @Spy
+  private CarparkAvailabilityStore availabilityStore = new CarparkAvailabilityStore();
+
+  @Spy
+  private CarparkJsonFragments carparkJsonFragments = new CarparkJsonFragments(new ObjectMapper());
+
+  @Spy
+  private NearestCarparkCache nearestCarparkCache =
+      new NearestCarparkCache(availabilityStore, new SimpleMeterRegistry(), true, 1000, 0.001);
+
+  @InjectMocks
+  private CarparkService carparkService;
+
+  private Carpark carpark;
+
+  @BeforeEach
+  void setUp() {
+    carpark = Carpark.builder()
+        .id(1L)
+        .carparkNumber("HG12")
+        .address("BLK 401-413, 460-463 HOUGANG AVENUE 10")
+        .latitude(1.37429)
+        .longitude(103.896)
+        .totalLots(693)
+        .availableLots(182)
+        .build();
+    availabilityStore.register(List.of(carpark));
+    lenient().when(availabilityPersister.persist(any(), any()))
+        .thenReturn(CompletableFuture.completedFuture(null));
+  }
+
+  @Test
+  void findNearestCarparks_ShouldNotPin_WhileQueryBlocks() throws Exception {
+    // Backed by a map, as Spring Data backs native query projections
+    NearestCarparkView row = new SpelAwareProxyProjectionFactory().createProjection(
+        NearestCarparkView.class, Map.of("id", carpark.getId(),
+            "carparkNumber", carpark.getCarparkNumber(), "address", carpark.getAddress(),
+            "latitude", carpark.getLatitude(), "longitude", carpark.getLongitude(),
+            "totalLots", carpark.getTotalLots(), "availableLots", carpark.getAvailableLots(),
+            "distance", 8.5));
+    when(carparkRepository.findNearestCarparksWithAvailability(anyDouble(), anyDouble(),
+        anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyDouble(), anyInt(), anyInt()))
+        .thenAnswer(invocation -> {
+          Thread.sleep(BLOCKING_CALL_MILLIS);
+          return List.of(row);
+        });
+
+    List<RecordedEvent> pinned = recordPinning(() -> runOnVirtualThreads(200, i -> {
+      // ten cells, so most threads join a search already in progress
+      List<?> result = carparkService.findNearestCarparks(1.30 + (i % 10) * 0.01, 103.8, 1, 10);
+      assertEquals(1, result.size());
+    }));
+
+    assertEquals(List.of(), describe(pinned));
+  }
+
+  @Test
+  void updateCarparkAvailability_ShouldNotPin_WhileWaitingForFeed() throws Exception {
+    String feed = """
+        {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+          {"carpark_number":"HG12","carpark_info":[{"total_lots":"693","lot_type":"C","lots_available":"5"}]}]}]}
+        """;
+    ReflectionTestUtils.setField(carparkService, "carparkApiUrl", "http://localhost/availability");
+    ReflectionTestUtils.setField(carparkService, "apiTimeout", 5000);
+    ReflectionTestUtils.setField(carparkService, "webClient", WebClient.builder()
+        .exchangeFunction(request -> Mono.delay(Duration.ofMillis(BLOCKING_CALL_MILLIS))
+            .map(tick -> ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(feed)
+                .build()))
+        .build());
+
+    List<RecordedEvent> pinned = recordPinning(() -> runOnVirtualThreads(20, i ->
+        carparkService.updateCarparkAvailability()));
+
+    assertEquals(List.of(), describe(pinned));
+    assertEquals(5, availabilityStore.current().getAvailableLots(0));
+  }
+
+  interface Task {
+
+    void run(int index) throws Exception;
+  }
+
+  static void runOnVirtualThreads(int count, Task task) throws Exception {
+    ExecutorService executor = newVirtualThreadPerTaskExecutor();
+    try {
+      List<Future<?>> futures = new ArrayList<>();
+      for (int i = 0; i < count; i++) {
+        int index = i;
+        futures.add(executor.submit((Callable<Void>) () -> {
+          task.run(index);
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get(30, TimeUnit.SECONDS);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  // Compiled against Java 17, so the Java 21 factory is looked up reflectively
+  private static ExecutorService newVirtualThreadPerTaskExecutor() throws Exception {
+    return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor")
+        .invoke(null);
+  }
+
+  interface Workload {
+
+    void run() throws Exception;
+  }
+
+  private static List<RecordedEvent> recordPinning(Workload workload) throws Exception {
+    return recordPinning(workload, VirtualThreadPinningTest::inApplicationCode);
+  }
+
+  static List<RecordedEvent> recordPinning(Workload workload, Predicate<RecordedEvent> filter)
+      throws Exception {
+    Path file = Files.createTempFile("virtual-thread-pinning", ".jfr");
+    try (Recording recording = new Recording()) {
+      recording.enable("jdk.VirtualThreadPinned").withThreshold(Duration.ZERO).withStackTrace();
+      recording.start();
+      workload.run();
+      recording.stop();
+      recording.dump(file);
+      return RecordingFile.readAllEvents(file).stream()
+          .filter(filter)
+          .collect(Collectors.toList());
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  private static boolean inApplicationCode(RecordedEvent event) {
+    return event.getStackTrace() != null && event.getStackTrace().getFrames().stream()
+        .anyMatch(frame -> frame.getMethod().getType().getName().startsWith("com.wego."));
+  }
+
+  static List<String> describe(List<RecordedEvent> events) {
+    return events.stream()
+        .map(event -> event.getStackTrace() == null ? event.toString()
+            : event.getStackTrace().getFrames().stream()
+                .map(VirtualThreadPinningTest::describe)
+                .collect(Collectors.joining("\n  at ")))
+        .collect(Collectors.toList());
+  }
+
+  private static String describe(RecordedFrame frame) {
+    return frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+        + ":" + frame.getLineNumber();
+  }
+}
@@ -0,0 +1,89 @@
+package com.wego.carparkapi.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.dto.AvailabilitySnapshot;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import org.junit.jupiter.api.Test;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class AvailabilityFeedParserTest {
+
+  private static final String FEED = """
+      {"items":[{"timestamp":"2025-07-23T10:00:00+08:00","carpark_data":[
+        {"carpark_info":[{"total_lots":"20","lot_type":"Y","lots_available":"4"},
+                         {"total_lots":"105","lot_type":"C","lots_available":"45"}],
+         "carpark_number":"HE12","update_datetime":"2025-07-23T09:58:43"},
+        {"carpark_number":"HLM","carpark_info":[{"total_lots":"583","lot_type":"Y","lots_available":"31"}]},
+        {"carpark_number":"BAD","carpark_info":[{"total_lots":"n/a","lot_type":"C","lots_available":"1"}]},
+        {"carpark_number":"NUM","carpark_info":[{"total_lots":50,"lot_type":"C","lots_available":7}]}
+      ]},{"timestamp":"2025-07-23T09:59:00+08:00","carpark_data":[
+        {"carpark_number":"OLD","carpark_info":[{"total_lots":"1","lot_type":"C","lots_available":"1"}]}
+      ]}]}
+      """;
+
+  @Test
+  void parse_ShouldReduceFirstItemToLotCounts() {
+    AvailabilitySnapshot snapshot = AvailabilityFeedParser.parse(bytes(FEED));
+
+    assertEquals("2025-07-23T10:00:00+08:00", snapshot.getTimestamp());
+    assertEquals(3, snapshot.size());
+    assertCarpark(snapshot, 0, "HE12", 105, 45);
+    assertCarpark(snapshot, 1, "HLM", 583, 31);
+    assertCarpark(snapshot, 2, "NUM", 50, 7);
+  }
+
+  @Test
+  void feed_ShouldProduceSameSnapshot_WhenBytesArriveOneAtATime() {
+    AvailabilityFeedParser parser = new AvailabilityFeedParser();
+    for (byte b : bytes(FEED)) {
+      parser.feed(ByteBuffer.wrap(new byte[]{b}));
+    }
+    AvailabilitySnapshot snapshot = parser.finish();
+
+    assertEquals("2025-07-23T10:00:00+08:00", snapshot.getTimestamp());
+    assertEquals(3, snapshot.size());
+    assertCarpark(snapshot, 0, "HE12", 105, 45);
+    assertCarpark(snapshot, 2, "NUM", 50, 7);
+  }
+
+  @Test
+  void parse_ShouldReadTimestamp_WhenItFollowsCarparkData() {
+    AvailabilitySnapshot snapshot = AvailabilityFeedParser.parse(bytes("""
+        {"items":[{"carpark_data":[
+          {"carpark_number":"A1","carpark_info":[{"total_lots":"10","lot_type":"C","lots_available":"2"}]}
+        ],"timestamp":"2025-07-23T10:01:00+08:00"}]}
+        """));
+
+    assertEquals("2025-07-23T10:01:00+08:00", snapshot.getTimestamp());
+    assertCarpark(snapshot, 0, "A1", 10, 2);
+  }
+
+  @Test
+  void parse_ShouldReturnNull_WhenFeedHasNoItems() {
+    assertNull(AvailabilityFeedParser.parse(bytes("{\"items\":[]}")));
+    assertNull(AvailabilityFeedParser.parse(bytes("{}")));
+  }
+
+  @Test
+  void parse_ShouldThrow_WhenFeedIsMalformed() {
+    assertThrows(UncheckedIOException.class,
+        () -> AvailabilityFeedParser.parse(bytes("{\"items\":[{\"timestamp\":")));
+  }
+
+  private static void assertCarpark(AvailabilitySnapshot snapshot, int i, String number,
+      int totalLots, int availableLots) {
+    assertEquals(number, snapshot.getCarparkNumber(i));
+    assertEquals(totalLots, snapshot.getTotalLots(i));
+    assertEquals(availableLots, snapshot.getAvailableLots(i));
+  }
+
+  private static byte[] bytes(String json) {
+    return json.getBytes(StandardCharsets.UTF_8);
+  }
+}
@@ -1,16 +1,28 @@
 package com.wego.carparkapi.util;
 
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import com.wego.carparkapi.service.CarparkService;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
 
 /**
  * @author chesterjavier
@@ -27,19 +39,155 @@ class AvailabilityUpdateServiceTest {
 
   @Test
   void updateAvailability_shouldCallDataImportService() {
+    // Given
+    when(dataImportService.refreshAvailability()).thenReturn(Mono.empty());
     // When
     availabilityUpdateService.updateAvailability();
     // Then
-    verify(dataImportService, times(1)).updateCarparkAvailability();
+    verify(dataImportService, times(1)).refreshAvailability();
   }
 
   @Test
   void updateAvailability_shouldLogErrorOnException() {
     // Given
-    doThrow(new RuntimeException("Test exception")).when(dataImportService).updateCarparkAvailability();
+    when(dataImportService.refreshAvailability())
+        .thenReturn(Mono.error(new RuntimeException("Test exception")));
     // When/Then: Should not throw, but should log
     assertDoesNotThrow(() -> availabilityUpdateService.updateAvailability());
-    verify(dataImportService, times(1)).updateCarparkAvailability();
+    verify(dataImportService, times(1)).refreshAvailability();
+  }
+
+  @Test
+  void refresh_ShouldCollapseConcurrentTriggersIntoOneRun() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(dataImportService.refreshAvailability()).thenReturn(Mono.fromCallable(() -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      return "2025-07-23T10:00:00+08:00";
+    }));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(availabilityUpdateService::refresh);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      Future<String> follower = executor.submit(availabilityUpdateService::refresh);
+      Thread.sleep(100);
+      release.countDown();
+
+      assertEquals("2025-07-23T10:00:00+08:00", leader.get(5, TimeUnit.SECONDS));
+      assertEquals("2025-07-23T10:00:00+08:00", follower.get(5, TimeUnit.SECONDS));
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(dataImportService, times(1)).refreshAvailability();
+
+    availabilityUpdateService.refresh();
+    verify(dataImportService, times(2)).refreshAvailability();
+  }
+
+  @Test
+  void refresh_ShouldReleaseWaitingCallers_WhenRefreshThrowsError() throws Exception {
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    when(dataImportService.refreshAvailability()).thenReturn(Mono.fromCallable(() -> {
+      started.countDown();
+      release.await(5, TimeUnit.SECONDS);
+      throw new StackOverflowError("Test error");
+    }));
+
+    ExecutorService executor = Executors.newFixedThreadPool(2);
+    try {
+      Future<String> leader = executor.submit(availabilityUpdateService::refresh);
+      assertTrue(started.await(5, TimeUnit.SECONDS));
+      Future<String> follower = executor.submit(availabilityUpdateService::refresh);
+      Thread.sleep(100);
+      release.countDown();
+
+      ExecutionException leaderFailure = assertThrows(ExecutionException.class,
+          () -> leader.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(StackOverflowError.class, leaderFailure.getCause());
+      ExecutionException followerFailure = assertThrows(ExecutionException.class,
+          () -> follower.get(5, TimeUnit.SECONDS));
+      assertInstanceOf(StackOverflowError.class, followerFailure.getCause());
+    } finally {
+      executor.shutdownNow();
+    }
+    verify(dataImportService, times(1)).refreshAvailability();
+  }
+
+  @Test
+  void refresh_ShouldPropagateFailure() {
+    when(dataImportService.refreshAvailability())
+        .thenReturn(Mono.error(new RuntimeException("Test exception")));
+
+    RuntimeException e = assertThrows(RuntimeException.class, () -> availabilityUpdateService.refresh());
+    assertEquals("Test exception", e.getMessage());
+  }
+
+  @Test
+  void refreshAsync_ShouldReturnBeforeRefreshCompletes() {
+    Sinks.One<String> feed = Sinks.one();
+    when(dataImportService.refreshAvailability()).thenReturn(feed.asMono());
+
+    CompletableFuture<String> refresh = availabilityUpdateService.refreshAsync();
+    assertFalse(refresh.isDone());
+    assertSame(refresh, availabilityUpdateService.refreshAsync());
+
+    feed.tryEmitValue("2025-07-23T10:00:00+08:00");
+    assertEquals("2025-07-23T10:00:00+08:00", refresh.join());
+    verify(dataImportService, times(1)).refreshAvailability();
+  }
+
+  @Test
+  void refreshAsync_ShouldFail_WhenRefreshCannotStart() {
+    when(dataImportService.refreshAvailability()).thenThrow(new IllegalStateException("Test exception"));
+
+    CompletableFuture<String> refresh = availabilityUpdateService.refreshAsync();
+
+    ExecutionException e = assertThrows(ExecutionException.class, refresh::get);
+    assertInstanceOf(IllegalStateException.class, e.getCause());
+    assertNotSame(refresh, availabilityUpdateService.refreshAsync());
   }
 
+  @Test
+  void adjustPollInterval_ShouldFollowFasterFeedCadence() {
+    Instant now = Instant.parse("2025-07-23T02:00:00Z");
+    OffsetDateTime feedTime = OffsetDateTime.parse("2025-07-23T10:00:00+08:00");
+
+    // Polled every 5 minutes, the feed advances every time
+    for (int i = 0; i < 6; i++) {
+      availabilityUpdateService.adjustPollInterval(feedTime.toString(), now);
+      long interval = availabilityUpdateService.getPollInterval().toMillis();
+      now = now.plusMillis(interval);
+      feedTime = feedTime.plusSeconds(interval / 60000 * 60);
+    }
+
+    assertTrue(availabilityUpdateService.getPollInterval().toMillis() <= 60000);
+    assertTrue(availabilityUpdateService.getPollInterval().toMillis() >= 30000);
+  }
+
+  @Test
+  void adjustPollInterval_ShouldBackOff_WhenFeedStopsChanging() {
+    Instant now = Instant.parse("2025-07-23T02:00:00Z");
+    String feedTimestamp = "2025-07-23T10:00:00+08:00";
+
+    availabilityUpdateService.adjustPollInterval(feedTimestamp, now);
+    availabilityUpdateService.adjustPollInterval(feedTimestamp, now.plusSeconds(30));
+    assertEquals(Duration.ofSeconds(30), availabilityUpdateService.getPollInterval());
+    availabilityUpdateService.adjustPollInterval(feedTimestamp, now.plusSeconds(60));
+    assertEquals(Duration.ofSeconds(60), availabilityUpdateService.getPollInterval());
+    for (int i = 0; i < 10; i++) {
+      availabilityUpdateService.adjustPollInterval(feedTimestamp, now.plusSeconds(120));
+    }
+    assertEquals(Duration.ofMinutes(5), availabilityUpdateService.getPollInterval());
+  }
+
+  @Test
+  void adjustPollInterval_ShouldIgnoreMissingTimestamp() {
+    availabilityUpdateService.adjustPollInterval(null, Instant.now());
+    availabilityUpdateService.adjustPollInterval("not a timestamp", Instant.now());
+
+    assertEquals(Duration.ofMinutes(5), availabilityUpdateService.getPollInterval());
+  }
 }
@@ -1,15 +1,34 @@
 package com.wego.carparkapi.util;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
 
 import com.wego.carparkapi.service.CarparkService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.boot.availability.ApplicationAvailability;
+import org.springframework.boot.availability.ApplicationAvailabilityBean;
+import org.springframework.boot.availability.AvailabilityChangeEvent;
+import org.springframework.boot.availability.LivenessState;
+import org.springframework.boot.availability.ReadinessState;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.test.util.ReflectionTestUtils;
 
 /**
  * @author chesterjavier
@@ -21,13 +40,117 @@ class CarparkDataLoaderTest {
   @Mock
   private CarparkService carparkService;
 
-  @InjectMocks
+  @Mock
+  private AvailabilityUpdateService availabilityUpdateService;
+
+  @Mock
+  private ApplicationEventPublisher eventPublisher;
+
+  private SimpleMeterRegistry meterRegistry;
+
   private CarparkDataLoader carparkDataLoader;
 
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    carparkDataLoader = new CarparkDataLoader(carparkService, availabilityUpdateService,
+        eventPublisher, meterRegistry);
+    ReflectionTestUtils.setField(carparkDataLoader, "warmUpQueries", 5);
+  }
+
   @Test
   void importOnStartup_WhenApplicationStarts_ShouldCallImportCarparkData() {
     carparkDataLoader.importOnStartup();
     verify(carparkService, times(1)).importCarparkDataFromCsv();
   }
 
+  @Test
+  void importOnStartup_WhenDatasetUnchanged_ShouldStillComplete() {
+    when(carparkService.importCarparkDataFromCsv()).thenReturn(false);
+    assertDoesNotThrow(() -> carparkDataLoader.importOnStartup());
+    verify(carparkService, times(1)).importCarparkDataFromCsv();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importOnStartup_ShouldAcceptTraffic_AfterImportRefreshAndWarmUp() {
+    carparkDataLoader.importOnStartup();
+
+    InOrder inOrder = inOrder(carparkService, availabilityUpdateService, eventPublisher);
+    inOrder.verify(carparkService).importCarparkDataFromCsv();
+    inOrder.verify(availabilityUpdateService).refresh();
+    inOrder.verify(carparkService, times(5)).warmUpNearestCarparks(anyDouble(), anyDouble(), anyInt());
+    ArgumentCaptor<AvailabilityChangeEvent<ReadinessState>> event =
+        ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+    inOrder.verify(eventPublisher).publishEvent(event.capture());
+    assertEquals(ReadinessState.ACCEPTING_TRAFFIC, event.getValue().getState());
+
+    // Warm-up bypasses the nearest cache and its metrics
+    verify(carparkService, never()).findNearestCarparks(anyDouble(), anyDouble(), anyInt(), anyInt());
+    assertEquals(1, meterRegistry.get("carpark.startup.warmup").timer().count());
+  }
+
+  @Test
+  void importOnStartup_ShouldRetryImport_WhenItFails() {
+    ReflectionTestUtils.setField(carparkDataLoader, "importBackoffMillis", 1L);
+    when(carparkService.importCarparkDataFromCsv())
+        .thenThrow(new RuntimeException("Test exception"))
+        .thenReturn(true);
+
+    carparkDataLoader.importOnStartup();
+
+    verify(carparkService, times(2)).importCarparkDataFromCsv();
+    verify(availabilityUpdateService).refresh();
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  void importOnStartup_ShouldReportBroken_WhenEveryImportAttemptFails() {
+    ReflectionTestUtils.setField(carparkDataLoader, "importAttempts", 3);
+    ReflectionTestUtils.setField(carparkDataLoader, "importBackoffMillis", 1L);
+    when(carparkService.importCarparkDataFromCsv()).thenThrow(new RuntimeException("Test exception"));
+
+    carparkDataLoader.importOnStartup();
+
+    verify(carparkService, times(3)).importCarparkDataFromCsv();
+    ArgumentCaptor<AvailabilityChangeEvent<LivenessState>> event =
+        ArgumentCaptor.forClass(AvailabilityChangeEvent.class);
+    verify(eventPublisher).publishEvent(event.capture());
+    assertEquals(LivenessState.BROKEN, event.getValue().getState());
+    verifyNoInteractions(availabilityUpdateService);
+  }
+
+  @Test
+  void importOnStartup_ShouldStillBecomeReady_WhenInitialRefreshFails() {
+    doThrow(new RuntimeException("Test exception")).when(availabilityUpdateService).refresh();
+
+    carparkDataLoader.importOnStartup();
+
+    verify(eventPublisher).publishEvent(any(AvailabilityChangeEvent.class));
+  }
+
+  @Test
+  void readiness_ShouldRefuseTraffic_UntilDataIsLoaded() {
+    try (AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext()) {
+      context.registerBean(ApplicationAvailabilityBean.class);
+      context.registerBean(CarparkDataLoader.class, () -> {
+        CarparkDataLoader loader = new CarparkDataLoader(carparkService,
+            availabilityUpdateService, context, meterRegistry);
+        ReflectionTestUtils.setField(loader, "warmUpQueries", 0);
+        return loader;
+      });
+      context.refresh();
+      ApplicationAvailability availability = context.getBean(ApplicationAvailability.class);
+
+      // What Spring Boot publishes right after ApplicationReadyEvent
+      AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+      assertEquals(ReadinessState.REFUSING_TRAFFIC, availability.getReadinessState());
+
+      context.getBean(CarparkDataLoader.class).importOnStartup();
+      assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+
+      AvailabilityChangeEvent.publish(context, ReadinessState.ACCEPTING_TRAFFIC);
+      assertEquals(ReadinessState.ACCEPTING_TRAFFIC, availability.getReadinessState());
+    }
+  }
 }
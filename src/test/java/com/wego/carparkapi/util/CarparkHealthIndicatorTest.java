@@ -0,0 +1,75 @@
+package com.wego.carparkapi.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import com.wego.carparkapi.service.CarparkStatistics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Instant;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.Status;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class CarparkHealthIndicatorTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private CarparkStatistics carparkStatistics;
+  private CarparkHealthIndicator carparkHealthIndicator;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    carparkStatistics = new CarparkStatistics(meterRegistry);
+    carparkHealthIndicator = new CarparkHealthIndicator(carparkStatistics);
+  }
+
+  @Test
+  void health_ShouldBeDown_WhenNoCarparksLoaded() {
+    Health health = carparkHealthIndicator.health();
+
+    assertEquals(Status.DOWN, health.getStatus());
+    assertEquals(0L, health.getDetails().get("carparksLoaded"));
+    assertEquals(true, health.getDetails().get("availabilityStale"));
+  }
+
+  @Test
+  void health_ShouldBeUpWithCounters_AfterImportAndRefresh() {
+    carparkStatistics.recordImport(2258, 0);
+    carparkStatistics.recordRefresh(1900, Instant.now().minusSeconds(60));
+
+    Health health = carparkHealthIndicator.health();
+
+    assertEquals(Status.UP, health.getStatus());
+    assertEquals(2258L, health.getDetails().get("carparksLoaded"));
+    assertEquals(1900L, health.getDetails().get("carparksWithAvailability"));
+    assertEquals(false, health.getDetails().get("availabilityStale"));
+    assertTrue((Long) health.getDetails().get("lastRefreshAgeSeconds") >= 60);
+  }
+
+  @Test
+  void health_ShouldFlagStaleAvailability() {
+    carparkStatistics.recordImport(2258, 0);
+    carparkStatistics.recordRefresh(1900, Instant.now().minusSeconds(3600));
+
+    Health health = carparkHealthIndicator.health();
+
+    assertEquals(Status.UP, health.getStatus());
+    assertEquals(true, health.getDetails().get("availabilityStale"));
+  }
+
+  @Test
+  void statistics_ShouldBeExposedAsGauges() {
+    assertTrue(Double.isNaN(meterRegistry.get("carpark.availability.refresh.age").gauge().value()));
+
+    carparkStatistics.recordImport(2258, 0);
+    carparkStatistics.recordRefresh(1900, Instant.now().minusSeconds(30));
+
+    assertEquals(2258, meterRegistry.get("carpark.carparks.loaded").gauge().value());
+    assertEquals(1900, meterRegistry.get("carpark.carparks.available").gauge().value());
+    assertTrue(meterRegistry.get("carpark.availability.refresh.age").gauge().value() >= 30);
+  }
+}
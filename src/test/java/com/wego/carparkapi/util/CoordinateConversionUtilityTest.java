@@ -30,6 +30,34 @@ class CoordinateConversionUtilityTest {
     assertTrue(result[1] > 103.0 && result[1] < 104.5, "Longitude should be within Singapore bounds");
   }
 
+  @Test
+  void convertSvy21ToWgs84_bulkShouldMatchSinglePointConversion() {
+    double[] xs = {30314.7936, 33758.4143, 20000.0};
+    double[] ys = {31490.4942, 33695.5198, 45000.0};
+    double[] latitudes = new double[3];
+    double[] longitudes = new double[3];
+
+    coordinateConversionUtility.convertSvy21ToWgs84(xs, ys, 3, latitudes, longitudes);
+
+    for (int i = 0; i < 3; i++) {
+      double[] expected = coordinateConversionUtility.convertSvy21ToWgs84(xs[i], ys[i]);
+      assertEquals(expected[0], latitudes[i]);
+      assertEquals(expected[1], longitudes[i]);
+    }
+  }
+
+  @Test
+  void toUnitVector_dotProductShouldOrderLikeGreatCircleDistance() {
+    double[] origin = CoordinateConversionUtility.toUnitVector(1.37326, 103.897);
+    double[] near = CoordinateConversionUtility.toUnitVector(1.37429, 103.896);
+    double[] far = CoordinateConversionUtility.toUnitVector(1.30, 103.80);
+
+    assertEquals(1.0, dot(origin, origin), 1e-12);
+    assertTrue(dot(origin, near) > dot(origin, far));
+    // acos of the dot product is the angle between the positions
+    assertEquals(0.1595, 6371 * Math.acos(Math.min(1.0, dot(origin, near))), 1e-3);
+  }
+
   @Test
   void isValidSingaporeCoordinates_shouldReturnTrueForValid() {
     assertTrue(coordinateConversionUtility.isValidSingaporeCoordinates(1.3, 103.9));
@@ -43,4 +71,7 @@ class CoordinateConversionUtilityTest {
     assertFalse(coordinateConversionUtility.isValidSingaporeCoordinates(1.3, 104.6)); // longitude too high
   }
 
+  private static double dot(double[] a, double[] b) {
+    return a[0] * b[0] + a[1] * b[1] + a[2] * b[2];
+  }
 }
@@ -0,0 +1,44 @@
+package com.wego.carparkapi.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class FirstRequestsLatencyFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private FirstRequestsLatencyFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new FirstRequestsLatencyFilter(meterRegistry, 3);
+  }
+
+  @Test
+  void doFilter_ShouldTimeOnlyTheFirstCarparkRequests() throws Exception {
+    perform("/actuator/health/readiness");
+    perform("/carparks/import/availability");
+    for (int i = 0; i < 5; i++) {
+      perform("/carparks/nearest");
+    }
+
+    assertEquals(3, meterRegistry.get("carpark.startup.first.requests").timer().count());
+  }
+
+  private void perform(String uri) throws Exception {
+    MockHttpServletRequest request = new MockHttpServletRequest("GET", uri);
+    MockFilterChain chain = new MockFilterChain();
+    filter.doFilter(request, new MockHttpServletResponse(), chain);
+    assertNotNull(chain.getRequest());
+  }
+}
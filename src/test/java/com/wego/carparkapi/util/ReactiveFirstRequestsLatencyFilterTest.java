@@ -0,0 +1,57 @@
+package com.wego.carparkapi.util;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import reactor.core.publisher.Mono;
+
+/**
+ * @author chesterjavier
+ * @Date 10/17/26
+ */
+class ReactiveFirstRequestsLatencyFilterTest {
+
+  private SimpleMeterRegistry meterRegistry;
+  private ReactiveFirstRequestsLatencyFilter filter;
+
+  @BeforeEach
+  void setUp() {
+    meterRegistry = new SimpleMeterRegistry();
+    filter = new ReactiveFirstRequestsLatencyFilter(meterRegistry, 3);
+  }
+
+  @Test
+  void filter_ShouldTimeOnlyTheFirstCarparkRequests() {
+    perform("/actuator/health/readiness");
+    perform("/carparks/import/availability");
+    for (int i = 0; i < 5; i++) {
+      perform("/carparks/nearest");
+    }
+
+    assertEquals(3, meterRegistry.get("carpark.startup.first.requests").timer().count());
+  }
+
+  @Test
+  void filter_ShouldTimeFailedRequests() {
+    MockServerWebExchange exchange =
+        MockServerWebExchange.from(MockServerHttpRequest.get("/carparks/nearest"));
+
+    Mono<Void> result = filter.filter(exchange,
+        e -> Mono.error(new IllegalStateException("Test exception")));
+
+    assertThrows(IllegalStateException.class, result::block);
+    assertEquals(1, meterRegistry.get("carpark.startup.first.requests").timer().count());
+  }
+
+  private void perform(String path) {
+    AtomicInteger calls = new AtomicInteger();
+    MockServerWebExchange exchange = MockServerWebExchange.from(MockServerHttpRequest.get(path));
+    filter.filter(exchange, e -> Mono.fromRunnable(calls::incrementAndGet)).block();
+    assertEquals(1, calls.get());
+  }
+}